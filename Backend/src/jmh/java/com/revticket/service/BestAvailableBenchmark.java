@@ -0,0 +1,74 @@
+package com.revticket.service;
+
+import com.revticket.entity.Seat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Best-available search and hold on a 1,000-seat hall (25 rows of 40) with part of it sold.
+ *
+ * Every call holds for the same session, and a session's own holds count as free, so each call
+ * finds the same block and the hall does not fill up over the run. At 90% sold most calls find
+ * no block, which is the full-scan worst case.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BestAvailableBenchmark {
+
+    private static final int ROWS = 25;
+    private static final int SEATS_PER_ROW = 40;
+    private static final String SESSION = "benchmark-session";
+
+    @Param({"0.0", "0.5", "0.9"})
+    private double soldFraction;
+
+    @Param({"2", "6"})
+    private int count;
+
+    private ShowtimeSeatInventory inventory;
+    private long expiresAt;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Seat> seats = new ArrayList<>(ROWS * SEATS_PER_ROW);
+        for (int row = 0; row < ROWS; row++) {
+            String rowLabel = String.valueOf((char) ('A' + row));
+            for (int number = 1; number <= SEATS_PER_ROW; number++) {
+                Seat seat = new Seat();
+                seat.setId(rowLabel + number);
+                seat.setRow(rowLabel);
+                seat.setNumber(number);
+                seat.setPrice(row < 8 ? 150.0 : row < 17 ? 200.0 : 300.0);
+                seat.setType(row < 8 ? Seat.SeatType.REGULAR : row < 17 ? Seat.SeatType.PREMIUM : Seat.SeatType.VIP);
+                seat.setIsBooked(random.nextDouble() < soldFraction);
+                seats.add(seat);
+            }
+        }
+        inventory = new ShowtimeSeatInventory("benchmark-showtime", seats, 1L);
+        expiresAt = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+    }
+
+    @Benchmark
+    public List<String> holdBestAvailable() {
+        return inventory.holdBestAvailable(count, Seat.SeatType.PREMIUM, SESSION, expiresAt, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,37 @@
+package com.revticket.controller;
+
+import com.revticket.dto.MailDeadLetter;
+import com.revticket.dto.MailDispatchStatus;
+import com.revticket.service.MailDispatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/mail")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminMailController {
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @GetMapping("/status")
+    public ResponseEntity<MailDispatchStatus> getStatus() {
+        return ResponseEntity.ok(mailDispatcher.getStatus());
+    }
+
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<MailDeadLetter>> getDeadLetters() {
+        return ResponseEntity.ok(mailDispatcher.getDeadLetters());
+    }
+
+    @PostMapping("/dead-letters/retry")
+    public ResponseEntity<Map<String, Integer>> retryDeadLetters() {
+        return ResponseEntity.ok(Map.of("requeued", mailDispatcher.retryDeadLetters()));
+    }
+}
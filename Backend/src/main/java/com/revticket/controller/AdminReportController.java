@@ -1,20 +1,26 @@
 package com.revticket.controller;
 
 import com.revticket.dto.*;
+import com.revticket.service.BookingArchiveService;
+import com.revticket.service.BookingExportService;
 import com.revticket.service.BookingReportService;
+import com.revticket.service.BookingRollupService;
+import com.revticket.service.BookingSearchService;
 import com.revticket.service.BookingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/reports")
@@ -25,9 +31,21 @@ public class AdminReportController {
     @Autowired
     private BookingReportService reportService;
 
+    @Autowired
+    private BookingArchiveService bookingArchiveService;
+
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private BookingRollupService bookingRollupService;
+
+    @Autowired
+    private BookingExportService bookingExportService;
+
+    @Autowired
+    private BookingSearchService bookingSearchService;
+
     @GetMapping("/summary")
     public ResponseEntity<BookingReportSummary> getSummary(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
@@ -42,6 +60,28 @@ public class AdminReportController {
         return ResponseEntity.ok(reportService.getRevenueTrend(fromDate, toDate));
     }
 
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        if (toDate.isBefore(fromDate)) {
+            throw new RuntimeException("toDate must not be before fromDate");
+        }
+        LocalDate earliest = bookingRollupService.earliestRebuildableDate();
+        if (toDate.isBefore(earliest)) {
+            throw new RuntimeException("Rollups before " + earliest + " cannot be rebuilt: their bookings may have been purged by retention");
+        }
+        LocalDate from = fromDate.isBefore(earliest) ? earliest : fromDate;
+        bookingRollupService.rebuildInBackground(from, toDate);
+        return ResponseEntity.accepted().body(Map.of("message", "Rollup rebuild started for " + from + " to " + toDate));
+    }
+
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildSearchIndex() {
+        bookingSearchService.rebuildInBackground();
+        return ResponseEntity.accepted().body(Map.of("message", "Search index rebuild started"));
+    }
+
     @GetMapping("/bookings")
     public ResponseEntity<Page<BookingResponse>> getFilteredBookings(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
@@ -66,6 +106,55 @@ public class AdminReportController {
         return ResponseEntity.ok(reportService.getFilteredBookings(filter));
     }
 
+    @GetMapping("/bookings/search")
+    public ResponseEntity<Slice<BookingResponse>> searchBookings(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean exact,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String theaterId,
+            @RequestParam(required = false) String movieId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+
+        BookingReportFilter filter = new BookingReportFilter();
+        filter.setFromDate(fromDate);
+        filter.setToDate(toDate);
+        filter.setTheaterId(theaterId);
+        filter.setMovieId(movieId);
+        filter.setStatus(status);
+        filter.setSearchTerm(q);
+        filter.setPage(Math.max(page, 0));
+        filter.setSize(Math.min(Math.max(size, 1), 100));
+
+        return ResponseEntity.ok(reportService.searchBookings(filter, exact));
+    }
+
+    @GetMapping("/archive/bookings")
+    public ResponseEntity<Page<BookingResponse>> getArchivedBookings(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String theaterId,
+            @RequestParam(required = false) String movieId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+
+        BookingReportFilter filter = new BookingReportFilter();
+        filter.setFromDate(fromDate);
+        filter.setToDate(toDate);
+        filter.setTheaterId(theaterId);
+        filter.setMovieId(movieId);
+        filter.setStatus(status);
+        filter.setSearchTerm(searchTerm);
+        filter.setPage(Math.max(page, 0));
+        filter.setSize(Math.min(Math.max(size, 1), 100));
+
+        return ResponseEntity.ok(bookingArchiveService.findBookings(filter));
+    }
+
     @GetMapping("/bookings/{id}")
     public ResponseEntity<BookingResponse> getBookingDetails(@PathVariable String id) {
         return bookingService.getBookingById(id)
@@ -74,13 +163,14 @@ public class AdminReportController {
     }
 
     @GetMapping("/export/csv")
-    public ResponseEntity<String> exportCSV(
+    public ResponseEntity<StreamingResponseBody> exportCSV(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(required = false) String theaterId,
             @RequestParam(required = false) String movieId,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String searchTerm) {
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(defaultValue = "false") boolean gzip) {
         
         BookingReportFilter filter = new BookingReportFilter();
         filter.setFromDate(fromDate);
@@ -89,39 +179,18 @@ public class AdminReportController {
         filter.setMovieId(movieId);
         filter.setStatus(status);
         filter.setSearchTerm(searchTerm);
-        filter.setPage(0);
-        filter.setSize(10000);
-
-        Page<BookingResponse> bookings = reportService.getFilteredBookings(filter);
-        
-        StringBuilder csv = new StringBuilder();
-        csv.append("Booking ID,Customer Name,Email,Phone,Movie,Theater,Screen,Show Date,Seats,Amount,Status,Booking Date\n");
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        
-        bookings.getContent().forEach(booking -> {
-            csv.append(String.format("\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",%.2f,\"%s\",\"%s\"\n",
-                booking.getId(),
-                booking.getCustomerName(),
-                booking.getCustomerEmail(),
-                booking.getCustomerPhone(),
-                booking.getMovieTitle(),
-                booking.getTheaterName(),
-                booking.getScreen(),
-                booking.getShowtime().format(formatter),
-                String.join("; ", booking.getSeats()),
-                booking.getTotalAmount(),
-                booking.getStatus(),
-                booking.getBookingDate().format(formatter)
-            ));
-        });
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv"));
-        headers.setContentDispositionFormData("attachment", "bookings-report.csv");
+        if (gzip) {
+            headers.setContentType(MediaType.parseMediaType("application/gzip"));
+            headers.setContentDispositionFormData("attachment", "bookings-report.csv.gz");
+        } else {
+            headers.setContentType(MediaType.parseMediaType("text/csv"));
+            headers.setContentDispositionFormData("attachment", "bookings-report.csv");
+        }
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(csv.toString());
+                .body(outputStream -> bookingExportService.writeCsv(filter, outputStream, gzip));
     }
 }
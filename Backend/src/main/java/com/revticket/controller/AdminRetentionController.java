@@ -0,0 +1,32 @@
+package com.revticket.controller;
+
+import com.revticket.dto.RetentionJobStatus;
+import com.revticket.service.RetentionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/retention")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminRetentionController {
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @GetMapping("/status")
+    public ResponseEntity<List<RetentionJobStatus>> getStatus() {
+        return ResponseEntity.ok(retentionService.getStatus());
+    }
+
+    @PostMapping("/{job}/run")
+    public ResponseEntity<Map<String, String>> run(@PathVariable String job) {
+        retentionService.runInBackground(job);
+        return ResponseEntity.accepted().body(Map.of("message", "Retention job " + job + " started"));
+    }
+}
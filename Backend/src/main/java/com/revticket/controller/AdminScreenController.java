@@ -6,7 +6,9 @@ import com.revticket.entity.SeatCategory;
 import com.revticket.entity.SeatData;
 import com.revticket.entity.Theater;
 import com.revticket.repository.*;
+import com.revticket.service.ScreenLayoutPropagationService;
 import com.revticket.service.ScreenService;
+import com.revticket.service.SeatTemplateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -37,6 +39,12 @@ public class AdminScreenController {
     @Autowired
     private TheaterRepository theaterRepository;
 
+    @Autowired
+    private SeatTemplateService seatTemplateService;
+
+    @Autowired
+    private ScreenLayoutPropagationService screenLayoutPropagationService;
+
     @GetMapping
     public ResponseEntity<List<ScreenResponse>> getScreens(
             @RequestParam(name = "theatreId", required = false) String theatreId,
@@ -186,6 +194,8 @@ public class AdminScreenController {
                 }
             }
 
+            seatTemplateService.evictTemplate(id);
+            screenLayoutPropagationService.propagate(id);
             request.setId(updated.getId());
             return ResponseEntity.ok(request);
         } catch (Exception e) {
@@ -199,6 +209,7 @@ public class AdminScreenController {
         seatCategoryRepository.deleteByScreenId(id);
         seatDataRepository.deleteByScreenId(id);
         screenRepository.deleteById(id);
+        seatTemplateService.evictTemplate(id);
         return ResponseEntity.noContent().build();
     }
 }
@@ -2,10 +2,14 @@ package com.revticket.controller;
 
 import com.revticket.dto.ShowtimeRequest;
 import com.revticket.dto.ShowtimeResponse;
+import com.revticket.dto.ShowtimeScheduleRequest;
+import com.revticket.dto.ShowtimeScheduleStatus;
+import com.revticket.service.ShowtimeScheduleService;
 import com.revticket.service.ShowtimeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -25,6 +29,9 @@ public class AdminShowtimeController {
     @Autowired
     private ShowtimeService showtimeService;
 
+    @Autowired
+    private ShowtimeScheduleService showtimeScheduleService;
+
     @GetMapping
     public ResponseEntity<List<ShowtimeResponse>> getShowtimes(
             @RequestParam(name = "movieId", required = false) String movieId,
@@ -46,6 +53,16 @@ public class AdminShowtimeController {
         return ResponseEntity.ok(showtimeService.createShowtime(request));
     }
 
+    @PostMapping("/schedule")
+    public ResponseEntity<ShowtimeScheduleStatus> scheduleShowtimes(@Valid @RequestBody ShowtimeScheduleRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(showtimeScheduleService.submit(request));
+    }
+
+    @GetMapping("/schedule/{jobId}")
+    public ResponseEntity<ShowtimeScheduleStatus> getScheduleStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(showtimeScheduleService.getStatus(jobId));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ShowtimeResponse> updateShowtime(
             @PathVariable String id,
@@ -1,12 +1,17 @@
 package com.revticket.controller;
 
+import com.revticket.dto.BookingPage;
 import com.revticket.dto.BookingRequest;
 import com.revticket.dto.BookingResponse;
+import com.revticket.dto.BulkCancellationRequest;
+import com.revticket.dto.BulkCancellationResult;
 import com.revticket.dto.CancellationRequest;
 import com.revticket.service.BookingService;
+import com.revticket.service.IdempotencyService;
 import com.revticket.util.SecurityUtil;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -25,12 +30,20 @@ public class BookingController {
     @Autowired
     private SecurityUtil securityUtil;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping
     public ResponseEntity<BookingResponse> createBooking(
             @Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
         String userId = securityUtil.getCurrentUserId(authentication);
-        return ResponseEntity.ok(bookingService.createBooking(userId, request));
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.ok(bookingService.createBooking(userId, request));
+        }
+        return ResponseEntity.ok(idempotencyService.execute("booking:" + userId, idempotencyKey, request,
+                () -> bookingService.createBooking(userId, request)));
     }
 
     @GetMapping("/my-bookings")
@@ -39,6 +52,16 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.getUserBookings(userId));
     }
 
+    @GetMapping("/my-bookings/page")
+    public ResponseEntity<BookingPage> getMyBookingsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean upcoming,
+            Authentication authentication) {
+        String userId = securityUtil.getCurrentUserId(authentication);
+        return ResponseEntity.ok(bookingService.getUserBookingsPage(userId, cursor, limit, upcoming));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<BookingResponse> getBookingById(@PathVariable("id") String id) {
         return bookingService.getBookingById(id)
@@ -68,6 +91,26 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.getCancellationRequests());
     }
 
+    @GetMapping("/cancellation-requests/queue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<BookingResponse>> getCancellationQueue(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookingService.getCancellationQueue(page, size));
+    }
+
+    @PostMapping("/cancellation-requests/approve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkCancellationResult> approveCancellations(@Valid @RequestBody BulkCancellationRequest request) {
+        return ResponseEntity.ok(bookingService.approveCancellations(request.getBookingIds(), request.getReason()));
+    }
+
+    @PostMapping("/cancellation-requests/reject")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkCancellationResult> rejectCancellations(@Valid @RequestBody BulkCancellationRequest request) {
+        return ResponseEntity.ok(bookingService.rejectCancellations(request.getBookingIds()));
+    }
+
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<BookingResponse>> getAllBookings() {
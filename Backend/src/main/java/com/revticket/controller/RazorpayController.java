@@ -4,6 +4,7 @@ import com.revticket.dto.RazorpayOrderRequest;
 import com.revticket.dto.RazorpayOrderResponse;
 import com.revticket.dto.RazorpayVerificationRequest;
 import com.revticket.entity.Booking;
+import com.revticket.service.IdempotencyService;
 import com.revticket.service.RazorpayService;
 import com.revticket.util.SecurityUtil;
 import jakarta.validation.Valid;
@@ -26,6 +27,9 @@ public class RazorpayController {
     @Autowired
     private SecurityUtil securityUtil;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/create-order")
     public ResponseEntity<?> createOrder(@Valid @RequestBody RazorpayOrderRequest request) {
         try {
@@ -44,7 +48,9 @@ public class RazorpayController {
             Authentication authentication) {
         try {
             String userId = securityUtil.getCurrentUserId(authentication);
-            Booking booking = razorpayService.verifyPaymentAndCreateBooking(userId, request);
+            // The Razorpay payment id is a natural idempotency key: one payment, one booking
+            Booking booking = idempotencyService.execute("razorpay:" + userId, request.getRazorpayPaymentId(), request,
+                    () -> verifyPaymentAndCreateBooking(userId, request));
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -61,6 +67,16 @@ public class RazorpayController {
         }
     }
 
+    private Booking verifyPaymentAndCreateBooking(String userId, RazorpayVerificationRequest request) {
+        try {
+            return razorpayService.verifyPaymentAndCreateBooking(userId, request);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
     @PostMapping("/payment-failed")
     public ResponseEntity<?> paymentFailed(
             @RequestBody RazorpayVerificationRequest request,
@@ -1,10 +1,19 @@
 package com.revticket.controller;
 
+import com.revticket.dto.BestSeatsRequest;
+import com.revticket.dto.SeatHoldRequest;
+import com.revticket.dto.SeatHoldResult;
+import com.revticket.dto.SeatMapDeltaDTO;
+import com.revticket.dto.SeatMapLayoutDTO;
+import com.revticket.dto.SeatMapStatusDTO;
 import com.revticket.entity.Seat;
 import com.revticket.service.SeatService;
+import com.revticket.service.ShowtimeSeatInventory;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -18,8 +27,35 @@ public class SeatController {
     private SeatService seatService;
 
     @GetMapping("/showtime/{showtimeId}")
-    public ResponseEntity<List<Seat>> getSeatsByShowtime(@PathVariable("showtimeId") String showtimeId) {
-        return ResponseEntity.ok(seatService.getSeatsByShowtime(showtimeId));
+    public ResponseEntity<List<Seat>> getSeatsByShowtime(@PathVariable("showtimeId") String showtimeId,
+                                                         WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionTag(seatService.getSeatMapVersion(showtimeId)))) {
+            return null;
+        }
+        ShowtimeSeatInventory.SeatSnapshot snapshot = seatService.getSeatsByShowtime(showtimeId);
+        return ResponseEntity.ok().eTag(versionTag(snapshot.version())).body(snapshot.seats());
+    }
+
+    @GetMapping("/showtime/{showtimeId}/layout")
+    public ResponseEntity<SeatMapLayoutDTO> getSeatMapLayout(@PathVariable("showtimeId") String showtimeId) {
+        return ResponseEntity.ok(seatService.getSeatMapLayout(showtimeId));
+    }
+
+    @GetMapping("/showtime/{showtimeId}/status")
+    public ResponseEntity<SeatMapStatusDTO> getSeatMapStatus(@PathVariable("showtimeId") String showtimeId,
+                                                             WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionTag(seatService.getSeatMapVersion(showtimeId)))) {
+            return null;
+        }
+        SeatMapStatusDTO status = seatService.getSeatMapStatus(showtimeId);
+        return ResponseEntity.ok().eTag(versionTag(status.getVersion())).body(status);
+    }
+
+    @GetMapping("/showtime/{showtimeId}/changes")
+    public ResponseEntity<SeatMapDeltaDTO> getSeatMapChanges(@PathVariable("showtimeId") String showtimeId,
+                                                             @RequestParam("since") long sinceVersion) {
+        SeatMapDeltaDTO delta = seatService.getSeatMapChanges(showtimeId, sinceVersion);
+        return ResponseEntity.ok().eTag(versionTag(delta.getVersion())).body(delta);
     }
 
     @PostMapping("/showtime/{showtimeId}/initialize")
@@ -49,10 +85,36 @@ public class SeatController {
         return ResponseEntity.ok(Map.of("message", "Seats released successfully"));
     }
 
+    @PostMapping("/hold/batch")
+    public ResponseEntity<SeatHoldResult> holdSeatsBatch(@Valid @RequestBody SeatHoldRequest request) {
+        return ResponseEntity.ok(seatService.holdSeatsBatch(
+                request.getShowtimeId(), request.getSeatIds(), request.getSessionId()));
+    }
+
+    @PostMapping("/hold/best")
+    public ResponseEntity<SeatHoldResult> holdBestAvailable(@Valid @RequestBody BestSeatsRequest request) {
+        return ResponseEntity.ok(seatService.holdBestAvailable(
+                request.getShowtimeId(), request.getCount(), request.getSeatType(), request.getSessionId()));
+    }
+
+    @PostMapping("/release/batch")
+    public ResponseEntity<SeatHoldResult> releaseSeatsBatch(@Valid @RequestBody SeatHoldRequest request) {
+        return ResponseEntity.ok(seatService.releaseSeatsBatch(
+                request.getShowtimeId(), request.getSeatIds(), request.getSessionId()));
+    }
+
+    @PostMapping("/hold/heartbeat")
+    public ResponseEntity<SeatHoldResult> extendHolds(@Valid @RequestBody SeatHoldRequest request) {
+        return ResponseEntity.ok(seatService.extendHolds(request.getShowtimeId(), request.getSessionId()));
+    }
+
     @PostMapping("/screen/{screenId}/refresh")
     public ResponseEntity<Map<String, String>> refreshSeatsForScreen(@PathVariable String screenId) {
         seatService.refreshSeatsForScreen(screenId);
-        return ResponseEntity.ok(Map.of("message", "Seats refreshed successfully"));
+        return ResponseEntity.accepted().body(Map.of("message", "Seat refresh started"));
     }
-}
 
+    private static String versionTag(long version) {
+        return "\"" + version + "\"";
+    }
+}
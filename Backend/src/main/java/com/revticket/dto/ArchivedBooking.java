@@ -0,0 +1,65 @@
+package com.revticket.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.revticket.entity.Booking;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of the booking archive: the booking with its seats, showtime details and every payment
+ * attempt. Lines written before payments were archived as a list carry a single "payment".
+ */
+@Value
+@Builder
+@Jacksonized
+public class ArchivedBooking {
+    String id;
+    String userId;
+    String ticketNumber;
+    String qrCode;
+    Booking.BookingStatus status;
+    Double totalAmount;
+    Double ticketPrice;
+    String paymentMethod;
+    String paymentId;
+    LocalDateTime bookingDate;
+    String customerName;
+    String customerEmail;
+    String customerPhone;
+    Double refundAmount;
+    LocalDateTime refundDate;
+    String cancellationReason;
+    LocalDateTime cancellationRequestedAt;
+    List<String> seats;
+    List<String> seatLabels;
+    String showtimeId;
+    LocalDateTime showDateTime;
+    String screen;
+    String movieId;
+    String movieTitle;
+    String theaterId;
+    String theaterName;
+    String theaterLocation;
+    @JsonAlias("payment")
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+    List<Payment> payments;
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Payment {
+        String id;
+        Double amount;
+        String paymentMethod;
+        String status;
+        String transactionId;
+        String razorpayOrderId;
+        String razorpayPaymentId;
+        LocalDateTime paymentDate;
+    }
+}
@@ -0,0 +1,24 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+@Jacksonized
+public class ArchivedShowtime {
+    String id;
+    String movieId;
+    String movieTitle;
+    String theaterId;
+    String theaterName;
+    String screen;
+    LocalDateTime showDateTime;
+    Double ticketPrice;
+    Integer totalSeats;
+    Integer availableSeats;
+    String status;
+}
@@ -0,0 +1,23 @@
+package com.revticket.dto;
+
+import com.revticket.entity.Seat;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class BestSeatsRequest {
+    @NotBlank(message = "Showtime ID is required")
+    private String showtimeId;
+
+    @NotBlank(message = "Session ID is required")
+    private String sessionId;
+
+    @NotNull(message = "Seat count is required")
+    @Min(value = 1, message = "At least one seat is required")
+    private Integer count;
+
+    // Optional; blocks of this type are preferred but not required
+    private Seat.SeatType seatType;
+}
@@ -0,0 +1,14 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class BookingPage {
+    List<BookingResponse> items;
+    String nextCursor;
+    Boolean hasMore;
+}
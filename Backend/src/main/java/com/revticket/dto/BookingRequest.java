@@ -40,5 +40,7 @@ public class BookingRequest {
 
     @NotBlank(message = "Customer phone is required")
     private String customerPhone;
+
+    private String sessionId;
 }
 
@@ -0,0 +1,16 @@
+package com.revticket.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCancellationRequest {
+    @NotEmpty(message = "At least one booking is required")
+    @Size(max = 500, message = "At most 500 bookings can be processed at once")
+    private List<String> bookingIds;
+
+    private String reason;
+}
@@ -0,0 +1,14 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class BulkCancellationResult {
+    Integer processed;
+    Integer releasedSeats;
+    List<String> skippedBookingIds;
+}
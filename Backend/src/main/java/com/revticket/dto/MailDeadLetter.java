@@ -0,0 +1,16 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class MailDeadLetter {
+    String recipient;
+    String subject;
+    Integer attempts;
+    String error;
+    LocalDateTime failedAt;
+}
@@ -0,0 +1,17 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class MailDispatchStatus {
+    Integer queueDepth;
+    Integer queueCapacity;
+    Integer scheduledRetries;
+    Integer pendingDigestNotifications;
+    Integer deadLetters;
+    Long sent;
+    Long failedAttempts;
+    Long rateLimited;
+}
@@ -37,4 +37,6 @@ public class RazorpayVerificationRequest {
 
     @NotBlank(message = "Customer phone is required")
     private String customerPhone;
+
+    private String sessionId;
 }
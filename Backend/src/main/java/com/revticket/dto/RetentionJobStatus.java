@@ -0,0 +1,23 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class RetentionJobStatus {
+    String job;
+    Boolean running;
+    LocalDateTime cutoff;
+    LocalDateTime startedAt;
+    LocalDateTime finishedAt;
+    LocalDateTime cursorShowDateTime;
+    String cursorId;
+    Long deleted;
+    Long chunks;
+    Boolean complete;
+    String lastError;
+    Long totalDeleted;
+}
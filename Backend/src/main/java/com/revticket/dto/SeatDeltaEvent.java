@@ -0,0 +1,29 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Frame pushed to /topic/seats/{showtimeId}. Versions increase monotonically per showtime;
+ * resync=true means the server rebuilt the seat map and clients should refetch it.
+ */
+@Value
+@Builder
+public class SeatDeltaEvent {
+    String showtimeId;
+    Long version;
+    boolean resync;
+    List<SeatChange> changes;
+
+    @Value
+    public static class SeatChange {
+        String seatId;
+        State state;
+    }
+
+    public enum State {
+        AVAILABLE, HELD, BOOKED, DISABLED
+    }
+}
@@ -0,0 +1,18 @@
+package com.revticket.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class SeatHoldRequest {
+    @NotBlank(message = "Showtime ID is required")
+    private String showtimeId;
+
+    @NotBlank(message = "Session ID is required")
+    private String sessionId;
+
+    private List<String> seatIds = new ArrayList<>();
+}
@@ -0,0 +1,20 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Value
+@Builder
+public class SeatHoldResult {
+    String showtimeId;
+    String sessionId;
+    LocalDateTime holdExpiry;
+    Map<String, Outcome> outcomes;
+
+    public enum Outcome {
+        HELD, RELEASED, ALREADY_BOOKED, HELD_BY_OTHER, NOT_HELD, NOT_FOUND
+    }
+}
@@ -0,0 +1,20 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Seats whose state changed between fromVersion and version. When the server can no longer
+ * produce a delta that far back, changes is null and snapshot carries the full status vector.
+ */
+@Value
+@Builder
+public class SeatMapDeltaDTO {
+    String showtimeId;
+    Long fromVersion;
+    Long version;
+    List<SeatDeltaEvent.SeatChange> changes;
+    SeatMapStatusDTO snapshot;
+}
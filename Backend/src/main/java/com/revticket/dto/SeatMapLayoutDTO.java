@@ -0,0 +1,30 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Static part of a showtime seat map. Seat attributes are parallel arrays in the same order as
+ * the status vector of {@link SeatMapStatusDTO}, so clients fetch this once and poll the status.
+ */
+@Value
+@Builder
+public class SeatMapLayoutDTO {
+    String showtimeId;
+    List<String> rows;
+    Integer columns;
+    List<Category> categories;
+    List<String> seatIds;
+    int[] rowIndex;
+    int[] number;
+    int[] category;
+
+    @Value
+    @Builder
+    public static class Category {
+        String type;
+        Double price;
+    }
+}
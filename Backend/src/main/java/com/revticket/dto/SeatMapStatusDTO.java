@@ -0,0 +1,17 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Run-length encoded seat states, one symbol per seat in layout order:
+ * A = available, H = held, B = booked, D = disabled (e.g. "38A2B1H".)
+ */
+@Value
+@Builder
+public class SeatMapStatusDTO {
+    String showtimeId;
+    Long version;
+    Integer seatCount;
+    String status;
+}
@@ -0,0 +1,41 @@
+package com.revticket.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+public class ShowtimeScheduleRequest {
+
+    @NotBlank
+    private String movieId;
+
+    @NotBlank
+    private String theaterId;
+
+    @NotEmpty
+    private List<String> screens;
+
+    @NotEmpty
+    private List<LocalTime> timeSlots;
+
+    @NotNull
+    private LocalDate startDate;
+
+    @NotNull
+    @Min(1)
+    @Max(90)
+    private Integer days;
+
+    @NotNull
+    @Positive
+    private Double ticketPrice;
+}
@@ -0,0 +1,24 @@
+package com.revticket.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class ShowtimeScheduleStatus {
+    String jobId;
+    State state;
+    Integer totalShowtimes;
+    Integer createdShowtimes;
+    Integer skippedShowtimes;
+    Integer createdSeats;
+    String error;
+    LocalDateTime submittedAt;
+    LocalDateTime finishedAt;
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -13,7 +13,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_booking_user_date", columnList = "user_id, booking_date"),
+        @Index(name = "idx_booking_status_requested", columnList = "status, cancellation_requested_at"),
+        @Index(name = "idx_booking_date", columnList = "booking_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,54 @@
+package com.revticket.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated booking totals per day, theater, movie and status. Maintained incrementally by
+ * {@link com.revticket.service.BookingRollupService}; reports read these rows instead of bookings.
+ */
+@Entity
+@Table(name = "booking_daily_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDailyRollup {
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "booking_count", nullable = false)
+    private Long bookingCount = 0L;
+
+    @Column(name = "seat_count", nullable = false)
+    private Long seatCount = 0L;
+
+    @Column(nullable = false)
+    private Double revenue = 0.0;
+
+    @Column(nullable = false)
+    private Double refunds = 0.0;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "booking_date", nullable = false)
+        private LocalDate bookingDate;
+
+        @Column(name = "theater_id", nullable = false, length = 64)
+        private String theaterId;
+
+        @Column(name = "movie_id", nullable = false, length = 64)
+        private String movieId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 32)
+        private Booking.BookingStatus status;
+    }
+}
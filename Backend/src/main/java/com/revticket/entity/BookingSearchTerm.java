@@ -0,0 +1,37 @@
+package com.revticket.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One entry of the booking search index: a normalized term (name token, email, phone digits,
+ * ticket number, booking id) pointing at a booking. The primary key starts with the term, so
+ * exact and prefix lookups are index range scans.
+ */
+@Entity
+@Table(name = "booking_search_terms", indexes = {
+        @Index(name = "idx_search_term_booking", columnList = "booking_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSearchTerm {
+    @EmbeddedId
+    private Key id;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(nullable = false, length = 128)
+        private String term;
+
+        @Column(name = "booking_id", nullable = false, length = 64)
+        private String bookingId;
+    }
+}
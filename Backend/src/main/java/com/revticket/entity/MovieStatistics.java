@@ -0,0 +1,56 @@
+package com.revticket.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed rating, show and booking totals per movie. Maintained by
+ * {@link com.revticket.service.MovieStatisticsService}; movie listings read these rows instead of
+ * counting showtimes, bookings and reviews per movie.
+ */
+@Entity
+@Table(name = "movie_statistics")
+@Data
+@NoArgsConstructor
+public class MovieStatistics {
+    @Id
+    @Column(name = "movie_id", length = 64)
+    private String movieId;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount = 0L;
+
+    @Column(name = "rating_1", nullable = false)
+    private Long rating1 = 0L;
+
+    @Column(name = "rating_2", nullable = false)
+    private Long rating2 = 0L;
+
+    @Column(name = "rating_3", nullable = false)
+    private Long rating3 = 0L;
+
+    @Column(name = "rating_4", nullable = false)
+    private Long rating4 = 0L;
+
+    @Column(name = "rating_5", nullable = false)
+    private Long rating5 = 0L;
+
+    @Column(name = "show_count", nullable = false)
+    private Long showCount = 0L;
+
+    @Column(name = "booking_count", nullable = false)
+    private Long bookingCount = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public Double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : null;
+    }
+}
@@ -1,13 +1,16 @@
 package com.revticket.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "seats")
+@Table(name = "seats", indexes = {
+        @Index(name = "idx_seats_hold_expiry", columnList = "is_held, hold_expiry")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -47,8 +50,14 @@ public class Seat {
     private java.time.LocalDateTime holdExpiry;
 
     @Column(name = "session_id")
+    @JsonIgnore
     private String sessionId;
 
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
     public enum SeatType {
         REGULAR, PREMIUM, VIP
     }
@@ -10,7 +10,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "showtimes")
+@Table(name = "showtimes", indexes = {
+        @Index(name = "idx_showtime_date", columnList = "show_date_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,6 +47,14 @@ public class Showtime {
     @Enumerated(EnumType.STRING)
     private ShowStatus status = ShowStatus.ACTIVE;
 
+    // Seats come from the screen template; only seats with per-showtime state have rows.
+    @Column(name = "template_seats", nullable = false)
+    private Boolean templateSeats = false;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "showtime", cascade = CascadeType.ALL, orphanRemoval = true)
     @com.fasterxml.jackson.annotation.JsonIgnore
     private List<Seat> seats = new ArrayList<>();
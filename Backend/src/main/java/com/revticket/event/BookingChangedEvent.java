@@ -0,0 +1,73 @@
+package com.revticket.event;
+
+import com.revticket.entity.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published by booking code for every booking it creates, changes or deletes, so the services
+ * that keep derived data (rollup, search index, movie statistics, dashboard) follow along.
+ *
+ * The event is published inside the booking transaction and listeners run synchronously in it:
+ * table writes commit or roll back with the booking, and in-memory counters defer themselves to
+ * commit. Bulk operations publish one event with all their changes.
+ *
+ * Retention publishes its deletes with {@code purged} set: the bookings leave the live tables and
+ * counters, but history kept elsewhere (the daily rollup) still counts them.
+ */
+@Value
+@AllArgsConstructor
+public class BookingChangedEvent {
+    List<Change> changes;
+    boolean purged;
+
+    public BookingChangedEvent(List<Change> changes) {
+        this(changes, false);
+    }
+
+    public static BookingChangedEvent created(Booking booking) {
+        return new BookingChangedEvent(List.of(new Change(booking, null, State.of(booking))));
+    }
+
+    public static BookingChangedEvent updated(Booking booking, State before) {
+        return new BookingChangedEvent(List.of(new Change(booking, before, State.of(booking))));
+    }
+
+    public static BookingChangedEvent deleted(Booking booking) {
+        return new BookingChangedEvent(List.of(new Change(booking, State.of(booking), null)));
+    }
+
+    public static BookingChangedEvent purged(List<Booking> bookings) {
+        return new BookingChangedEvent(bookings.stream()
+                .map(booking -> new Change(booking, State.of(booking), null))
+                .toList(), true);
+    }
+
+    /**
+     * One booking's change; {@code before} is null for a new booking and {@code after} for a
+     * deleted one.
+     */
+    @Value
+    public static class Change {
+        Booking booking;
+        State before;
+        State after;
+    }
+
+    /**
+     * The parts of a booking that derived data depends on and that change after it is created.
+     */
+    @Value
+    public static class State {
+        Booking.BookingStatus status;
+        Double refundAmount;
+        int seatCount;
+
+        public static State of(Booking booking) {
+            return new State(booking.getStatus(), booking.getRefundAmount(),
+                    booking.getSeats() != null ? booking.getSeats().size() : 0);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.revticket.repository;
+
+import com.revticket.entity.Booking;
+import com.revticket.entity.BookingDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BookingDailyRollupRepository extends JpaRepository<BookingDailyRollup, BookingDailyRollup.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO booking_daily_rollups (booking_date, theater_id, movie_id, status, booking_count, seat_count, revenue, refunds) " +
+           "VALUES (:date, :theaterId, :movieId, :status, :bookings, :seats, :revenue, :refunds) " +
+           "ON DUPLICATE KEY UPDATE booking_count = booking_count + VALUES(booking_count), " +
+           "seat_count = seat_count + VALUES(seat_count), revenue = revenue + VALUES(revenue), refunds = refunds + VALUES(refunds)",
+           nativeQuery = true)
+    int addDelta(@Param("date") LocalDate date,
+                 @Param("theaterId") String theaterId,
+                 @Param("movieId") String movieId,
+                 @Param("status") String status,
+                 @Param("bookings") long bookings,
+                 @Param("seats") long seats,
+                 @Param("revenue") double revenue,
+                 @Param("refunds") double refunds);
+
+    @Modifying
+    @Query("DELETE FROM BookingDailyRollup r WHERE r.id.bookingDate = :date")
+    int deleteByDate(@Param("date") LocalDate date);
+
+    /**
+     * Recomputes the rollup rows of one period straight from the bookings table.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO booking_daily_rollups (booking_date, theater_id, movie_id, status, booking_count, seat_count, revenue, refunds) " +
+           "SELECT DATE(x.booking_date), x.theater_id, x.movie_id, x.status, COUNT(*), SUM(x.seats), SUM(x.total_amount), SUM(x.refund) " +
+           "FROM (SELECT b.booking_date, COALESCE(s.theater_id, '') AS theater_id, COALESCE(s.movie_id, '') AS movie_id, b.status, " +
+           "(SELECT COUNT(*) FROM booking_seats bs WHERE bs.booking_id = b.id) AS seats, " +
+           "COALESCE(b.total_amount, 0) AS total_amount, COALESCE(b.refund_amount, 0) AS refund " +
+           "FROM bookings b JOIN showtimes s ON s.id = b.showtime_id " +
+           "WHERE b.booking_date >= :from AND b.booking_date < :to) x " +
+           "GROUP BY DATE(x.booking_date), x.theater_id, x.movie_id, x.status",
+           nativeQuery = true)
+    int rebuild(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.id.status AS status, SUM(r.bookingCount) AS bookings, SUM(r.seatCount) AS seats, " +
+           "SUM(r.revenue) AS revenue, SUM(r.refunds) AS refunds " +
+           "FROM BookingDailyRollup r WHERE r.id.bookingDate BETWEEN :from AND :to GROUP BY r.id.status")
+    List<StatusTotals> sumByStatus(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.id.bookingDate AS date, SUM(r.bookingCount) AS bookings, " +
+           "SUM(CASE WHEN r.id.status = com.revticket.entity.Booking$BookingStatus.CONFIRMED THEN r.revenue ELSE 0.0 END) AS revenue " +
+           "FROM BookingDailyRollup r WHERE r.id.bookingDate BETWEEN :from AND :to " +
+           "GROUP BY r.id.bookingDate ORDER BY r.id.bookingDate")
+    List<DailyTotals> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    interface StatusTotals {
+        Booking.BookingStatus getStatus();
+        Long getBookings();
+        Long getSeats();
+        Double getRevenue();
+        Double getRefunds();
+    }
+
+    interface DailyTotals {
+        LocalDate getDate();
+        Long getBookings();
+        Double getRevenue();
+    }
+}
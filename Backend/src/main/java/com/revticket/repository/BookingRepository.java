@@ -1,10 +1,12 @@
 package com.revticket.repository;
 
 import com.revticket.entity.Booking;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,27 +14,91 @@ import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, String> {
     
-    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user"})
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
     List<Booking> findByUserId(String userId);
+
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
+    List<Booking> findByUserIdOrderByBookingDateDesc(String userId);
+
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId " +
+           "AND (:upcomingAfter IS NULL OR b.showtime.showDateTime >= :upcomingAfter) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findUserBookingsFirstPage(@Param("userId") String userId,
+                                            @Param("upcomingAfter") LocalDateTime upcomingAfter,
+                                            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId " +
+           "AND (b.bookingDate < :cursorDate OR (b.bookingDate = :cursorDate AND b.id < :cursorId)) " +
+           "AND (:upcomingAfter IS NULL OR b.showtime.showDateTime >= :upcomingAfter) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findUserBookingsAfter(@Param("userId") String userId,
+                                        @Param("cursorDate") LocalDateTime cursorDate,
+                                        @Param("cursorId") String cursorId,
+                                        @Param("upcomingAfter") LocalDateTime upcomingAfter,
+                                        Pageable pageable);
+
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
+    List<Booking> findByStatus(Booking.BookingStatus status);
+
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
+    @Query(value = "SELECT b FROM Booking b WHERE b.status = :status ORDER BY b.cancellationRequestedAt ASC, b.id ASC",
+           countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.status = :status")
+    Page<Booking> findQueueByStatus(@Param("status") Booking.BookingStatus status, Pageable pageable);
+
+    /**
+     * Locks the given bookings that are still in the given status, so concurrent bulk actions
+     * cannot process the same booking twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+    List<Booking> lockByIdInAndStatus(@Param("ids") Collection<String> ids, @Param("status") Booking.BookingStatus status);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CANCELLED', b.refundAmount = b.totalAmount * :refundRate, " +
+           "b.refundDate = :now, b.cancellationReason = COALESCE(:reason, b.cancellationReason) WHERE b.id IN :ids")
+    int approveCancellations(@Param("ids") Collection<String> ids,
+                             @Param("refundRate") double refundRate,
+                             @Param("reason") String reason,
+                             @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CONFIRMED' WHERE b.id IN :ids")
+    int rejectCancellations(@Param("ids") Collection<String> ids);
     
-    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user"})
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
     List<Booking> findByShowtimeId(String showtimeId);
     
-    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user"})
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
     @Query("SELECT b FROM Booking b")
     @NonNull
     List<Booking> findAll();
     
-    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user"})
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
     @NonNull
     Optional<Booking> findById(@NonNull String id);
 
+    long countByStatus(Booking.BookingStatus status);
+
+    long countByShowtimeId(String showtimeId);
+
+    @Query("SELECT COALESCE(SUM(b.totalAmount), 0.0) FROM Booking b WHERE b.status = 'CONFIRMED'")
+    Double sumConfirmedRevenue();
+
+    @Query("SELECT MIN(b.bookingDate) FROM Booking b")
+    LocalDateTime findEarliestBookingDate();
+
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
+    List<Booking> findByIdIn(Collection<String> ids);
+
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.bookingDate BETWEEN :start AND :end")
     Long countByDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
@@ -45,28 +111,55 @@ public interface BookingRepository extends JpaRepository<Booking, String> {
     @Query("SELECT COALESCE(SUM(b.refundAmount), 0.0) FROM Booking b WHERE b.status = 'CANCELLED' AND b.bookingDate BETWEEN :start AND :end")
     Double sumRefundsByDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
-    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user"})
+    @EntityGraph(attributePaths = {"showtime", "showtime.movie", "showtime.theater", "user", "payment"})
     @Query("SELECT b FROM Booking b WHERE " +
            "(:fromDate IS NULL OR b.bookingDate >= :fromDate) AND " +
            "(:toDate IS NULL OR b.bookingDate <= :toDate) AND " +
            "(:theaterId IS NULL OR b.showtime.theater.id = :theaterId) AND " +
            "(:movieId IS NULL OR b.showtime.movie.id = :movieId) AND " +
-           "(:status IS NULL OR b.status = :status) AND " +
-           "(:search IS NULL OR LOWER(b.customerName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(b.customerEmail) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(b.id) LIKE LOWER(CONCAT('%', :search, '%')))")
+           "(:status IS NULL OR b.status = :status)")
     Page<Booking> findByFilters(
         @Param("fromDate") LocalDateTime fromDate,
         @Param("toDate") LocalDateTime toDate,
         @Param("theaterId") String theaterId,
         @Param("movieId") String movieId,
         @Param("status") Booking.BookingStatus status,
-        @Param("search") String search,
         Pageable pageable
     );
 
     @Modifying
     @Query("UPDATE Booking b SET b.status = :status, b.cancellationReason = :reason, b.cancellationRequestedAt = :timestamp WHERE b.id = :id")
     int updateCancellationRequest(@Param("id") String id, @Param("status") Booking.BookingStatus status, @Param("reason") String reason, @Param("timestamp") LocalDateTime timestamp);
-}
 
+    @Query("SELECT b.id AS id, s.id AS showtimeId, s.movie.id AS movieId, s.showDateTime AS showDateTime FROM Booking b JOIN b.showtime s " +
+           "WHERE s.showDateTime < :cutoff ORDER BY s.showDateTime, b.id")
+    List<RetentionCandidate> findRetentionCandidates(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT b.id AS id, s.id AS showtimeId, s.movie.id AS movieId, s.showDateTime AS showDateTime FROM Booking b JOIN b.showtime s " +
+           "WHERE s.showDateTime < :cutoff " +
+           "AND (s.showDateTime > :afterTime OR (s.showDateTime = :afterTime AND b.id > :afterId)) " +
+           "ORDER BY s.showDateTime, b.id")
+    List<RetentionCandidate> findRetentionCandidatesAfter(@Param("cutoff") LocalDateTime cutoff,
+                                                          @Param("afterTime") LocalDateTime afterTime,
+                                                          @Param("afterId") String afterId,
+                                                          Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM booking_seats WHERE booking_id IN :ids", nativeQuery = true)
+    int deleteSeatIdsByBookingIds(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM booking_seat_labels WHERE booking_id IN :ids", nativeQuery = true)
+    int deleteSeatLabelsByBookingIds(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM bookings WHERE id IN :ids", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<String> ids);
+
+    interface RetentionCandidate {
+        String getId();
+        String getShowtimeId();
+        String getMovieId();
+        LocalDateTime getShowDateTime();
+    }
+}
@@ -0,0 +1,18 @@
+package com.revticket.repository;
+
+import com.revticket.entity.BookingSearchTerm;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface BookingSearchTermRepository extends JpaRepository<BookingSearchTerm, BookingSearchTerm.Key> {
+
+    @Modifying
+    @Query("DELETE FROM BookingSearchTerm t WHERE t.id.bookingId IN :bookingIds")
+    int deleteByBookingIds(@Param("bookingIds") Collection<String> bookingIds);
+}
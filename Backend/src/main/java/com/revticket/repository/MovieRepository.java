@@ -1,23 +1,39 @@
 package com.revticket.repository;
 
 import com.revticket.entity.Movie;
+import com.revticket.entity.MovieStatistics;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, String> {
     List<Movie> findByIsActiveTrue();
+
+    long countByIsActiveTrue();
     
     @Query("SELECT DISTINCT m FROM Movie m LEFT JOIN m.showtimes s LEFT JOIN s.theater t WHERE m.isActive = true AND (LOWER(t.location) = LOWER(:city) OR t.location IS NULL) AND (t.isActive = true OR t.isActive IS NULL)")
     List<Movie> findActiveMoviesByCity(String city);
     
-    @Query("SELECT COUNT(s) FROM Showtime s WHERE s.movie.id = :movieId")
-    Integer countShowtimesByMovieId(String movieId);
-    
-    @Query("SELECT COUNT(b) FROM Booking b WHERE b.showtime.movie.id = :movieId")
-    Integer countBookingsByMovieId(String movieId);
+    // Statistics rows are outer-joined so movies without one yet are still listed
+    @Query("SELECT m AS movie, st AS statistics FROM Movie m LEFT JOIN MovieStatistics st ON st.movieId = m.id")
+    List<MovieWithStatistics> findAllWithStatistics();
+
+    @Query("SELECT m AS movie, st AS statistics FROM Movie m LEFT JOIN MovieStatistics st ON st.movieId = m.id " +
+           "WHERE m.isActive = true")
+    List<MovieWithStatistics> findActiveWithStatistics();
+
+    @Query("SELECT m AS movie, st AS statistics FROM Movie m LEFT JOIN MovieStatistics st ON st.movieId = m.id " +
+           "WHERE m.id = :id")
+    Optional<MovieWithStatistics> findWithStatisticsById(@Param("id") String id);
+
+    interface MovieWithStatistics {
+        Movie getMovie();
+        MovieStatistics getStatistics();
+    }
 }
 
@@ -0,0 +1,76 @@
+package com.revticket.repository;
+
+import com.revticket.entity.MovieStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface MovieStatisticsRepository extends JpaRepository<MovieStatistics, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO movie_statistics (movie_id, rating_sum, rating_count, rating_1, rating_2, rating_3, rating_4, rating_5, " +
+           "show_count, booking_count, updated_at) " +
+           "VALUES (:movieId, :ratingSum, :ratingCount, :rating1, :rating2, :rating3, :rating4, :rating5, :shows, :bookings, :now) " +
+           "ON DUPLICATE KEY UPDATE rating_sum = rating_sum + VALUES(rating_sum), rating_count = rating_count + VALUES(rating_count), " +
+           "rating_1 = rating_1 + VALUES(rating_1), rating_2 = rating_2 + VALUES(rating_2), rating_3 = rating_3 + VALUES(rating_3), " +
+           "rating_4 = rating_4 + VALUES(rating_4), rating_5 = rating_5 + VALUES(rating_5), " +
+           "show_count = show_count + VALUES(show_count), booking_count = booking_count + VALUES(booking_count), " +
+           "updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int addDelta(@Param("movieId") String movieId,
+                 @Param("ratingSum") long ratingSum,
+                 @Param("ratingCount") long ratingCount,
+                 @Param("rating1") long rating1,
+                 @Param("rating2") long rating2,
+                 @Param("rating3") long rating3,
+                 @Param("rating4") long rating4,
+                 @Param("rating5") long rating5,
+                 @Param("shows") long shows,
+                 @Param("bookings") long bookings,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Recomputes show and booking counts of every movie straight from the showtimes and bookings
+     * tables, leaving the rating columns alone.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO movie_statistics (movie_id, rating_sum, rating_count, rating_1, rating_2, rating_3, rating_4, rating_5, " +
+           "show_count, booking_count, updated_at) " +
+           "SELECT m.id, 0, 0, 0, 0, 0, 0, 0, COALESCE(sc.shows, 0), COALESCE(bc.bookings, 0), :now FROM movies m " +
+           "LEFT JOIN (SELECT movie_id, COUNT(*) AS shows FROM showtimes GROUP BY movie_id) sc ON sc.movie_id = m.id " +
+           "LEFT JOIN (SELECT s.movie_id, COUNT(*) AS bookings FROM bookings b JOIN showtimes s ON s.id = b.showtime_id " +
+           "GROUP BY s.movie_id) bc ON bc.movie_id = m.id " +
+           "ON DUPLICATE KEY UPDATE show_count = VALUES(show_count), booking_count = VALUES(booking_count), " +
+           "updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int recountShowsAndBookings(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE movie_statistics SET rating_sum = 0, rating_count = 0, rating_1 = 0, rating_2 = 0, rating_3 = 0, " +
+           "rating_4 = 0, rating_5 = 0",
+           nativeQuery = true)
+    int clearRatings();
+
+    @Modifying
+    @Query(value = "INSERT INTO movie_statistics (movie_id, rating_sum, rating_count, rating_1, rating_2, rating_3, rating_4, rating_5, " +
+           "show_count, booking_count, updated_at) " +
+           "VALUES (:movieId, :ratingSum, :ratingCount, :rating1, :rating2, :rating3, :rating4, :rating5, 0, 0, :now) " +
+           "ON DUPLICATE KEY UPDATE rating_sum = VALUES(rating_sum), rating_count = VALUES(rating_count), " +
+           "rating_1 = VALUES(rating_1), rating_2 = VALUES(rating_2), rating_3 = VALUES(rating_3), " +
+           "rating_4 = VALUES(rating_4), rating_5 = VALUES(rating_5), updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int setRatings(@Param("movieId") String movieId,
+                   @Param("ratingSum") long ratingSum,
+                   @Param("ratingCount") long ratingCount,
+                   @Param("rating1") long rating1,
+                   @Param("rating2") long rating2,
+                   @Param("rating3") long rating3,
+                   @Param("rating4") long rating4,
+                   @Param("rating5") long rating5,
+                   @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,23 @@
+package com.revticket.repository;
+
+import com.revticket.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, String> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt ASC")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'SENT' AND e.processedAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
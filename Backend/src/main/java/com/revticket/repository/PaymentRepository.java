@@ -2,13 +2,20 @@ package com.revticket.repository;
 
 import com.revticket.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, String> {
     Optional<Payment> findByTransactionId(String transactionId);
     Optional<Payment> findByBookingId(String bookingId);
-}
 
+    @Modifying
+    @Query("DELETE FROM Payment p WHERE p.booking.id IN :bookingIds")
+    int deleteByBookingIds(@Param("bookingIds") Collection<String> bookingIds);
+}
@@ -2,8 +2,13 @@ package com.revticket.repository;
 
 import com.revticket.entity.Seat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,5 +16,78 @@ public interface SeatRepository extends JpaRepository<Seat, String> {
     List<Seat> findByShowtimeId(String showtimeId);
     List<Seat> findByShowtimeIdAndIsBookedFalse(String showtimeId);
     void deleteByShowtimeId(String showtimeId);
-}
+    long countByShowtimeIdAndIsBookedTrue(String showtimeId);
+    List<Seat> findByShowtimeIdIn(Collection<String> showtimeIds);
+
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.id IN :seatIds AND s.isBooked = false")
+    int deleteUnbooked(@Param("seatIds") Collection<String> seatIds);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.price = :price, s.type = :type, s.isDisabled = :disabled, s.version = s.version + 1 " +
+           "WHERE s.id IN :seatIds AND s.isBooked = false")
+    int recategorize(@Param("seatIds") Collection<String> seatIds,
+                     @Param("price") Double price,
+                     @Param("type") Seat.SeatType type,
+                     @Param("disabled") Boolean disabled);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.isHeld = true, s.sessionId = :sessionId, s.holdExpiry = :holdExpiry, " +
+           "s.version = s.version + 1 " +
+           "WHERE s.id IN :seatIds AND s.isBooked = false")
+    int markHeld(@Param("seatIds") Collection<String> seatIds,
+                 @Param("sessionId") String sessionId,
+                 @Param("holdExpiry") LocalDateTime holdExpiry);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.isHeld = false, s.sessionId = null, s.holdExpiry = null, s.version = s.version + 1 " +
+           "WHERE s.id IN :seatIds AND s.isBooked = false")
+    int clearHolds(@Param("seatIds") Collection<String> seatIds);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.isBooked = true, s.isHeld = false, s.sessionId = null, s.holdExpiry = null, " +
+           "s.version = s.version + 1 WHERE s.showtime.id = :showtimeId AND s.id IN :seatIds")
+    int markBooked(@Param("showtimeId") String showtimeId, @Param("seatIds") Collection<String> seatIds);
 
+    @Modifying
+    @Query("UPDATE Seat s SET s.isHeld = false, s.sessionId = null, s.holdExpiry = null, s.version = s.version + 1 " +
+           "WHERE s.isHeld = true AND s.isBooked = false AND s.holdExpiry < :now")
+    int releaseExpiredHolds(@Param("now") LocalDateTime now);
+
+    /**
+     * Books the given seats only if none of them is booked, disabled or held by another session.
+     * Returns the number of rows claimed; anything short of seatIds.size() means a conflict.
+     */
+    @Modifying
+    @Query("UPDATE Seat s SET s.isBooked = true, s.isHeld = false, s.sessionId = null, s.holdExpiry = null, " +
+           "s.version = s.version + 1 " +
+           "WHERE s.showtime.id = :showtimeId AND s.id IN :seatIds AND s.isBooked = false AND s.isDisabled = false " +
+           "AND (s.isHeld = false OR s.sessionId = :sessionId OR s.holdExpiry < :now)")
+    int claimSeats(@Param("showtimeId") String showtimeId,
+                   @Param("seatIds") Collection<String> seatIds,
+                   @Param("sessionId") String sessionId,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.isBooked = false, s.isHeld = false, s.sessionId = null, s.holdExpiry = null, " +
+           "s.version = s.version + 1 WHERE s.showtime.id = :showtimeId AND s.id IN :seatIds")
+    int markAvailable(@Param("showtimeId") String showtimeId, @Param("seatIds") Collection<String> seatIds);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.isBooked = false, s.isHeld = false, s.sessionId = null, s.holdExpiry = null, " +
+           "s.version = s.version + 1 WHERE s.id IN :seatIds")
+    int markAvailableByIds(@Param("seatIds") Collection<String> seatIds);
+
+    /**
+     * Deletes the rows of the given seats that are neither booked nor held, where their showtime
+     * is template-backed; the seat map takes those seats from the template again.
+     */
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.id IN :seatIds AND s.isBooked = false AND s.isHeld = false " +
+           "AND s.showtime.id IN (SELECT t.id FROM Showtime t WHERE t.templateSeats = true)")
+    int deleteFreeTemplateSeatRows(@Param("seatIds") Collection<String> seatIds);
+
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.showtime.id IN :showtimeIds")
+    int deleteByShowtimeIds(@Param("showtimeIds") Collection<String> showtimeIds);
+}
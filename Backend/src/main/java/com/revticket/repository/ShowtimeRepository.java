@@ -1,13 +1,16 @@
 package com.revticket.repository;
 
 import com.revticket.entity.Showtime;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,11 +33,12 @@ public interface ShowtimeRepository extends JpaRepository<Showtime, String> {
                                                    @Param("end") LocalDateTime end);
 
     @EntityGraph(attributePaths = {"movie", "theater"})
-    @Query("SELECT s FROM Showtime s WHERE s.movie.id = :movieId AND s.theater.location = :city")
+    // city is expected trimmed and lower-cased (see ShowtimeListingCache.normalizeCity)
+    @Query("SELECT s FROM Showtime s WHERE s.movie.id = :movieId AND LOWER(TRIM(s.theater.location)) = :city")
     List<Showtime> findByMovieIdAndCity(@Param("movieId") String movieId, @Param("city") String city);
 
     @EntityGraph(attributePaths = {"movie", "theater"})
-    @Query("SELECT s FROM Showtime s WHERE s.movie.id = :movieId AND s.theater.location = :city AND s.showDateTime BETWEEN :start AND :end")
+    @Query("SELECT s FROM Showtime s WHERE s.movie.id = :movieId AND LOWER(TRIM(s.theater.location)) = :city AND s.showDateTime BETWEEN :start AND :end")
     List<Showtime> findByMovieIdCityAndShowDateBetween(@Param("movieId") String movieId,
                                                         @Param("city") String city,
                                                         @Param("start") LocalDateTime start,
@@ -61,5 +65,77 @@ public interface ShowtimeRepository extends JpaRepository<Showtime, String> {
                                              @Param("end") LocalDateTime end);
 
     List<Showtime> findByScreen(String screen);
-}
 
+    @Query("SELECT s.id FROM Showtime s WHERE s.screen = :screen AND s.showDateTime > :after ORDER BY s.showDateTime ASC")
+    List<String> findIdsByScreenAndShowDateTimeAfter(@Param("screen") String screen, @Param("after") LocalDateTime after);
+
+    /**
+     * Recounts seat totals of showtimes with one row per seat: disabled seats do not count, and
+     * only unbooked seats are available.
+     */
+    @Modifying
+    @Query(value = "UPDATE showtimes s SET " +
+           "s.total_seats = (SELECT COUNT(*) FROM seats t WHERE t.showtime_id = s.id AND t.is_disabled = false), " +
+           "s.available_seats = (SELECT COUNT(*) FROM seats t WHERE t.showtime_id = s.id AND t.is_disabled = false AND t.is_booked = false), " +
+           "s.version = s.version + 1 WHERE s.id IN :ids", nativeQuery = true)
+    int recountSeatRows(@Param("ids") Collection<String> ids);
+
+    /**
+     * Recounts seat totals of template-backed showtimes, whose capacity is the template's.
+     */
+    @Modifying
+    @Query(value = "UPDATE showtimes s SET s.total_seats = :total, " +
+           "s.available_seats = GREATEST(:total - (SELECT COUNT(*) FROM seats t WHERE t.showtime_id = s.id AND t.is_booked = true), 0), " +
+           "s.version = s.version + 1 WHERE s.id IN :ids", nativeQuery = true)
+    int recountTemplateSeats(@Param("ids") Collection<String> ids, @Param("total") int total);
+
+    @Modifying
+    @Query("UPDATE Showtime s SET s.availableSeats = CASE WHEN s.availableSeats >= :count " +
+           "THEN s.availableSeats - :count ELSE 0 END, s.version = s.version + 1 WHERE s.id = :id")
+    int decrementAvailableSeats(@Param("id") String id, @Param("count") int count);
+
+    @Modifying
+    @Query("UPDATE Showtime s SET s.availableSeats = s.availableSeats + :count, s.version = s.version + 1 WHERE s.id = :id")
+    int incrementAvailableSeats(@Param("id") String id, @Param("count") int count);
+
+    @Query("SELECT s.id AS id, s.movie.id AS movieId, s.showDateTime AS showDateTime FROM Showtime s WHERE s.showDateTime < :cutoff " +
+           "AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.showtime = s) ORDER BY s.showDateTime, s.id")
+    List<RetentionCandidate> findRetentionCandidates(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT s.id AS id, s.movie.id AS movieId, s.showDateTime AS showDateTime FROM Showtime s WHERE s.showDateTime < :cutoff " +
+           "AND (s.showDateTime > :afterTime OR (s.showDateTime = :afterTime AND s.id > :afterId)) " +
+           "AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.showtime = s) ORDER BY s.showDateTime, s.id")
+    List<RetentionCandidate> findRetentionCandidatesAfter(@Param("cutoff") LocalDateTime cutoff,
+                                                          @Param("afterTime") LocalDateTime afterTime,
+                                                          @Param("afterId") String afterId,
+                                                          Pageable pageable);
+
+    @Query("SELECT s.movie.id AS movieId, COUNT(DISTINCT s.id) AS shows, COUNT(b.id) AS bookings " +
+           "FROM Showtime s LEFT JOIN s.bookings b WHERE s.theater.id = :theaterId GROUP BY s.movie.id")
+    List<MovieCounts> countByMovieForTheater(@Param("theaterId") String theaterId);
+
+    // Re-checks for bookings so a showtime booked after selection is kept
+    @Modifying
+    @Query("DELETE FROM Showtime s WHERE s.id IN :ids AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.showtime = s)")
+    int deleteUnbookedByIds(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT s.id AS id, s.availableSeats AS availableSeats FROM Showtime s WHERE s.id IN :ids")
+    List<AvailableSeats> findAvailableSeatsByIdIn(@Param("ids") Collection<String> ids);
+
+    interface RetentionCandidate {
+        String getId();
+        String getMovieId();
+        LocalDateTime getShowDateTime();
+    }
+
+    interface MovieCounts {
+        String getMovieId();
+        Long getShows();
+        Long getBookings();
+    }
+
+    interface AvailableSeats {
+        String getId();
+        Integer getAvailableSeats();
+    }
+}
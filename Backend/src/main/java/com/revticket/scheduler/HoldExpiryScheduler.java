@@ -0,0 +1,43 @@
+package com.revticket.scheduler;
+
+import com.revticket.repository.SeatRepository;
+import com.revticket.service.SeatInventoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Component
+public class HoldExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    // Expire holds tracked by the in-memory expiry wheel, well inside one second of their deadline
+    @Scheduled(fixedDelayString = "${app.seats.hold-sweep-interval-ms:250}")
+    public void expireDueHolds() {
+        int expired = seatInventoryService.expireDueHolds();
+        if (expired > 0) {
+            logger.debug("Expired {} seat holds", expired);
+        }
+    }
+
+    // Safety net for holds the wheel does not know about (e.g. written before a restart)
+    @Scheduled(fixedDelayString = "${app.seats.stale-hold-sweep-interval-ms:60000}")
+    @Transactional
+    public void releaseStaleHolds() {
+        int released = seatRepository.releaseExpiredHolds(LocalDateTime.now());
+        if (released > 0) {
+            logger.info("Released {} stale seat holds", released);
+        }
+    }
+}
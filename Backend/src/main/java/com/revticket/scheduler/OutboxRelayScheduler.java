@@ -0,0 +1,46 @@
+package com.revticket.scheduler;
+
+import com.revticket.entity.OutboxEvent;
+import com.revticket.service.OutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class OutboxRelayScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayScheduler.class);
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void relayDueEvents() {
+        List<OutboxEvent> due;
+        do {
+            due = outboxService.findDue(batchSize);
+            due.forEach(outboxService::relay);
+        } while (due.size() == batchSize);
+    }
+
+    // Run every day at 3 AM
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void purgeSentEvents() {
+        int purged = outboxService.purgeSent(LocalDateTime.now().minusDays(retentionDays));
+        if (purged > 0) {
+            logger.info("Purged {} delivered outbox events", purged);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.revticket.security;
+
+import com.revticket.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Restricts STOMP subscriptions under /topic/admin/ to admins. The client sends its JWT as an
+ * Authorization header on CONNECT; the role is remembered for the session.
+ *
+ * A non-admin subscription is dropped without an ERROR frame: an error would close the whole
+ * session, and the client would lose its public topics and reconnect in a loop.
+ */
+@Component
+public class StompAdminChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAdminChannelInterceptor.class);
+
+    private static final String ADMIN_TOPIC_PREFIX = "/topic/admin/";
+    private static final String ROLE_ATTRIBUTE = "role";
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        Map<String, Object> session = accessor.getSessionAttributes();
+
+        if (accessor.getCommand() == StompCommand.CONNECT && session != null) {
+            String role = resolveRole(accessor.getFirstNativeHeader("Authorization"));
+            if (role != null) {
+                session.put(ROLE_ATTRIBUTE, role);
+            }
+        } else if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            String destination = accessor.getDestination();
+            boolean admin = session != null && "ADMIN".equals(session.get(ROLE_ATTRIBUTE));
+            if (destination != null && destination.startsWith(ADMIN_TOPIC_PREFIX) && !admin) {
+                logger.debug("Ignoring subscription to {} from non-admin session {}", destination, accessor.getSessionId());
+                return null;
+            }
+        }
+        return message;
+    }
+
+    private String resolveRole(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        String token = authorizationHeader.substring(7);
+        try {
+            if (jwtUtil.extractExpiration(token).before(new Date())) {
+                return null;
+            }
+            return jwtUtil.extractClaim(token, claims -> claims.get("role", String.class));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -20,6 +20,9 @@ public class AdminUserService {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private DashboardService dashboardService;
+
     public List<UserDto> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(this::convertToDto)
@@ -59,6 +62,7 @@ public class AdminUserService {
         User user = userRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("User not found"));
         userRepository.delete(user);
+        dashboardService.userCountChanged(-1);
     }
 
     public List<Map<String, Object>> getUserBookings(String userId) {
@@ -40,6 +40,9 @@ public class AuthService {
     @Autowired(required = false)
     private SettingsService settingsService;
 
+    @Autowired
+    private DashboardService dashboardService;
+
     @org.springframework.beans.factory.annotation.Value("${app.frontend.url:http://localhost:4200}")
     private String frontendUrl;
 
@@ -100,6 +103,7 @@ public class AuthService {
         user.setRole(User.Role.USER);
 
         user = userRepository.save(user);
+        dashboardService.userCountChanged(1);
 
         if (emailService != null && settingsService != null && settingsService.areEmailNotificationsEnabled()) {
             try {
@@ -163,6 +167,7 @@ public class AuthService {
                     newUser.setName(request.getName());
                     newUser.setPassword(passwordEncoder.encode(UUID.randomUUID().toString()));
                     newUser.setRole(User.Role.USER);
+                    dashboardService.userCountChanged(1);
                     return userRepository.save(newUser);
                 });
 
@@ -0,0 +1,482 @@
+package com.revticket.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revticket.dto.ArchivedBooking;
+import com.revticket.dto.ArchivedShowtime;
+import com.revticket.dto.BookingReportFilter;
+import com.revticket.dto.BookingResponse;
+import com.revticket.entity.Booking;
+import com.revticket.util.TransactionCallbacks;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold archive for bookings and showtimes removed by retention.
+ *
+ * Rows are written as gzip-compressed NDJSON under {@code <dir>/<dataset>/date=YYYY-MM-DD/}.
+ * Bookings are partitioned by booking date, the date admin reports filter on; showtimes by show
+ * date. Every part file is written to a temporary name, synced, read back and compared with the
+ * rows it should hold, and only then renamed into place; the directory is synced after the rename. Archiving runs inside the retention
+ * transaction, before the deletes, and the files are removed again if that transaction rolls
+ * back. A booking archived twice by a retried chunk is read back once.
+ */
+@Service
+public class BookingArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingArchiveService.class);
+
+    private static final String BOOKINGS = "bookings";
+    private static final String SHOWTIMES = "showtimes";
+    private static final String PARTITION_PREFIX = "date=";
+    private static final String PART_SUFFIX = ".ndjson.gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final boolean WINDOWS = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.dir:archive}")
+    private String archiveDir;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Archives the given bookings with their seats, showtime and payments. Must run in the
+     * transaction that deletes them.
+     */
+    public int archiveBookings(Collection<String> bookingIds) {
+        List<ArchivedBooking> bookings = loadBookings(bookingIds);
+        Map<LocalDate, List<ArchivedBooking>> partitions = new TreeMap<>();
+        for (ArchivedBooking booking : bookings) {
+            partitions.computeIfAbsent(booking.getBookingDate().toLocalDate(), date -> new ArrayList<>()).add(booking);
+        }
+        writePartitions(BOOKINGS, partitions, ArchivedBooking::getId);
+        return bookings.size();
+    }
+
+    /**
+     * Archives the given showtimes that have no bookings left. Must run in the transaction that
+     * deletes them.
+     */
+    public int archiveShowtimes(Collection<String> showtimeIds) {
+        List<ArchivedShowtime> showtimes = jdbcTemplate.query(
+                "SELECT s.id, s.movie_id, m.title, s.theater_id, t.name, s.screen, s.show_date_time, s.ticket_price, " +
+                "s.total_seats, s.available_seats, s.status FROM showtimes s " +
+                "LEFT JOIN movies m ON m.id = s.movie_id LEFT JOIN theaters t ON t.id = s.theater_id " +
+                "WHERE s.id IN (:ids) AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.showtime_id = s.id)",
+                Map.of("ids", showtimeIds),
+                (rs, rowNum) -> ArchivedShowtime.builder()
+                        .id(rs.getString(1))
+                        .movieId(rs.getString(2))
+                        .movieTitle(rs.getString(3))
+                        .theaterId(rs.getString(4))
+                        .theaterName(rs.getString(5))
+                        .screen(rs.getString(6))
+                        .showDateTime(toLocalDateTime(rs.getTimestamp(7)))
+                        .ticketPrice(getDouble(rs, 8))
+                        .totalSeats(getInteger(rs, 9))
+                        .availableSeats(getInteger(rs, 10))
+                        .status(rs.getString(11))
+                        .build());
+        Map<LocalDate, List<ArchivedShowtime>> partitions = new TreeMap<>();
+        for (ArchivedShowtime showtime : showtimes) {
+            partitions.computeIfAbsent(showtime.getShowDateTime().toLocalDate(), date -> new ArrayList<>()).add(showtime);
+        }
+        writePartitions(SHOWTIMES, partitions, ArchivedShowtime::getId);
+        return showtimes.size();
+    }
+
+    /**
+     * Reads archived bookings for a booking date range, newest first, one day partition at a
+     * time so memory stays bounded by the largest day.
+     */
+    public Page<BookingResponse> findBookings(BookingReportFilter filter) {
+        if (filter.getFromDate() == null || filter.getToDate() == null) {
+            throw new RuntimeException("fromDate and toDate are required to read the archive");
+        }
+        Booking.BookingStatus status = parseStatus(filter.getStatus());
+        String search = filter.getSearchTerm() != null && !filter.getSearchTerm().isBlank()
+                ? filter.getSearchTerm().trim().toLowerCase(Locale.ROOT)
+                : null;
+
+        long offset = (long) filter.getPage() * filter.getSize();
+        long total = 0;
+        List<BookingResponse> content = new ArrayList<>();
+        for (LocalDate date : partitionDates(BOOKINGS, filter.getFromDate(), filter.getToDate())) {
+            Map<String, ArchivedBooking> byId = new LinkedHashMap<>();
+            for (ArchivedBooking booking : readPartition(BOOKINGS, date, ArchivedBooking.class)) {
+                byId.put(booking.getId(), booking);
+            }
+            List<ArchivedBooking> day = new ArrayList<>(byId.values());
+            day.sort(Comparator.comparing(ArchivedBooking::getBookingDate)
+                    .thenComparing(ArchivedBooking::getId)
+                    .reversed());
+            for (ArchivedBooking booking : day) {
+                if (!matches(booking, filter, status, search)) {
+                    continue;
+                }
+                if (total >= offset && content.size() < filter.getSize()) {
+                    content.add(toResponse(booking));
+                }
+                total++;
+            }
+        }
+        return new PageImpl<>(content, PageRequest.of(filter.getPage(), filter.getSize()), total);
+    }
+
+    private List<ArchivedBooking> loadBookings(Collection<String> bookingIds) {
+        Map<String, Object> params = Map.of("ids", bookingIds);
+        Map<String, List<String>> seats = loadCollection(
+                "SELECT booking_id, seat_id FROM booking_seats WHERE booking_id IN (:ids)", params);
+        Map<String, List<String>> seatLabels = loadCollection(
+                "SELECT booking_id, seat_label FROM booking_seat_labels WHERE booking_id IN (:ids)", params);
+        Map<String, List<ArchivedBooking.Payment>> payments = loadPayments(params);
+
+        return jdbcTemplate.query(
+                "SELECT b.id, b.user_id, b.ticket_number, b.qr_code, b.status, b.total_amount, " +
+                "COALESCE(b.ticket_price_snapshot, s.ticket_price), b.payment_method, b.payment_id, b.booking_date, " +
+                "b.customer_name, b.customer_email, b.customer_phone, b.refund_amount, b.refund_date, " +
+                "b.cancellation_reason, b.cancellation_requested_at, s.id, s.show_date_time, " +
+                "COALESCE(b.screen_name, s.screen), s.movie_id, m.title, s.theater_id, t.name, t.location " +
+                "FROM bookings b JOIN showtimes s ON s.id = b.showtime_id " +
+                "LEFT JOIN movies m ON m.id = s.movie_id LEFT JOIN theaters t ON t.id = s.theater_id " +
+                "WHERE b.id IN (:ids)",
+                params,
+                (rs, rowNum) -> {
+                    String id = rs.getString(1);
+                    return ArchivedBooking.builder()
+                            .id(id)
+                            .userId(rs.getString(2))
+                            .ticketNumber(rs.getString(3))
+                            .qrCode(rs.getString(4))
+                            .status(Booking.BookingStatus.valueOf(rs.getString(5)))
+                            .totalAmount(getDouble(rs, 6))
+                            .ticketPrice(getDouble(rs, 7))
+                            .paymentMethod(rs.getString(8))
+                            .paymentId(rs.getString(9))
+                            .bookingDate(toLocalDateTime(rs.getTimestamp(10)))
+                            .customerName(rs.getString(11))
+                            .customerEmail(rs.getString(12))
+                            .customerPhone(rs.getString(13))
+                            .refundAmount(getDouble(rs, 14))
+                            .refundDate(toLocalDateTime(rs.getTimestamp(15)))
+                            .cancellationReason(rs.getString(16))
+                            .cancellationRequestedAt(toLocalDateTime(rs.getTimestamp(17)))
+                            .seats(seats.getOrDefault(id, List.of()))
+                            .seatLabels(seatLabels.getOrDefault(id, List.of()))
+                            .showtimeId(rs.getString(18))
+                            .showDateTime(toLocalDateTime(rs.getTimestamp(19)))
+                            .screen(rs.getString(20))
+                            .movieId(rs.getString(21))
+                            .movieTitle(rs.getString(22))
+                            .theaterId(rs.getString(23))
+                            .theaterName(rs.getString(24))
+                            .theaterLocation(rs.getString(25))
+                            .payments(payments.getOrDefault(id, List.of()))
+                            .build();
+                });
+    }
+
+    // Every payment attempt of the bookings, failed ones included, oldest first
+    private Map<String, List<ArchivedBooking.Payment>> loadPayments(Map<String, Object> params) {
+        Map<String, List<ArchivedBooking.Payment>> payments = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT booking_id, id, amount, payment_method, status, transaction_id, razorpay_order_id, " +
+                "razorpay_payment_id, payment_date FROM payments WHERE booking_id IN (:ids) ORDER BY payment_date, id",
+                params,
+                rs -> {
+                    payments.computeIfAbsent(rs.getString(1), id -> new ArrayList<>()).add(ArchivedBooking.Payment.builder()
+                            .id(rs.getString(2))
+                            .amount(getDouble(rs, 3))
+                            .paymentMethod(rs.getString(4))
+                            .status(rs.getString(5))
+                            .transactionId(rs.getString(6))
+                            .razorpayOrderId(rs.getString(7))
+                            .razorpayPaymentId(rs.getString(8))
+                            .paymentDate(toLocalDateTime(rs.getTimestamp(9)))
+                            .build());
+                });
+        return payments;
+    }
+
+    private Map<String, List<String>> loadCollection(String sql, Map<String, Object> params) {
+        Map<String, List<String>> values = new HashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            values.computeIfAbsent(rs.getString(1), id -> new ArrayList<>()).add(rs.getString(2));
+        });
+        return values;
+    }
+
+    private <T> void writePartitions(String dataset, Map<LocalDate, List<T>> partitions, Function<T, String> idOf) {
+        List<Path> written = new ArrayList<>();
+        TransactionCallbacks.afterRollback(() -> written.forEach(this::deleteQuietly));
+        for (Map.Entry<LocalDate, List<T>> partition : partitions.entrySet()) {
+            written.add(writePart(dataset, partition.getKey(), partition.getValue(), idOf));
+        }
+        meterRegistry.counter("archive.records", "dataset", dataset)
+                .increment(partitions.values().stream().mapToInt(List::size).sum());
+        meterRegistry.counter("archive.files", "dataset", dataset).increment(written.size());
+    }
+
+    private <T> Path writePart(String dataset, LocalDate date, List<T> records, Function<T, String> idOf) {
+        Path dir = partitionDir(dataset, date);
+        String name = "part-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8) + PART_SUFFIX;
+        Path temp = dir.resolve(name + ".tmp");
+        Path target = dir.resolve(name);
+        try {
+            boolean newPartition = !Files.isDirectory(dir);
+            Files.createDirectories(dir);
+            if (newPartition) {
+                syncDirectory(dir.getParent());
+            }
+            try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+                GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(file, BUFFER_SIZE));
+                Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+                for (T record : records) {
+                    writer.write(objectMapper.writeValueAsString(record));
+                    writer.write('\n');
+                }
+                writer.flush();
+                gzip.finish();
+                gzip.flush();
+                file.getFD().sync();
+                writer.close();
+            }
+            verify(temp, records.stream().map(idOf).toList());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            // The rename is only durable once the directory entry is, and the rows are deleted next
+            syncDirectory(dir);
+            return target;
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Failed to write archive file in " + dir, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    private void syncDirectory(Path dir) throws IOException {
+        // Windows cannot open a directory as a channel; the rename is left to the file system there
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    // Reads the file back; GZIPInputStream also checks the trailer CRC and length at end of stream
+    private void verify(Path file, List<String> expectedIds) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = openPart(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String id = objectMapper.readTree(line).path("id").asText(null);
+                if (count >= expectedIds.size() || !expectedIds.get(count).equals(id)) {
+                    throw new IOException("Archive file " + file + " does not match the rows written at line " + (count + 1));
+                }
+                count++;
+            }
+        }
+        if (count != expectedIds.size()) {
+            throw new IOException("Archive file " + file + " has " + count + " rows, expected " + expectedIds.size());
+        }
+    }
+
+    private <T> List<T> readPartition(String dataset, LocalDate date, Class<T> type) {
+        Path dir = partitionDir(dataset, date);
+        List<T> records = new ArrayList<>();
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(dir, "*" + PART_SUFFIX)) {
+            for (Path part : parts) {
+                try (BufferedReader reader = openPart(part)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        records.add(objectMapper.readValue(line, type));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive partition " + dir, e);
+        }
+        return records;
+    }
+
+    // Partition dates present on disk within the range, newest first
+    private List<LocalDate> partitionDates(String dataset, LocalDate from, LocalDate to) {
+        Path root = Paths.get(archiveDir, dataset);
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        List<LocalDate> dates = new ArrayList<>();
+        try (DirectoryStream<Path> partitions = Files.newDirectoryStream(root, PARTITION_PREFIX + "*")) {
+            for (Path partition : partitions) {
+                try {
+                    LocalDate date = LocalDate.parse(partition.getFileName().toString().substring(PARTITION_PREFIX.length()));
+                    if (!date.isBefore(from) && !date.isAfter(to)) {
+                        dates.add(date);
+                    }
+                } catch (DateTimeParseException e) {
+                    logger.warn("Ignoring unexpected archive directory {}", partition);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list archive partitions in " + root, e);
+        }
+        dates.sort(Comparator.reverseOrder());
+        return dates;
+    }
+
+    private Path partitionDir(String dataset, LocalDate date) {
+        return Paths.get(archiveDir, dataset, PARTITION_PREFIX + date);
+    }
+
+    private BufferedReader openPart(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private boolean matches(ArchivedBooking booking, BookingReportFilter filter, Booking.BookingStatus status, String search) {
+        if (filter.getTheaterId() != null && !filter.getTheaterId().isEmpty()
+                && !filter.getTheaterId().equals(booking.getTheaterId())) {
+            return false;
+        }
+        if (filter.getMovieId() != null && !filter.getMovieId().isEmpty()
+                && !filter.getMovieId().equals(booking.getMovieId())) {
+            return false;
+        }
+        if (status != null && status != booking.getStatus()) {
+            return false;
+        }
+        return search == null
+                || contains(booking.getId(), search)
+                || contains(booking.getTicketNumber(), search)
+                || contains(booking.getCustomerName(), search)
+                || contains(booking.getCustomerEmail(), search);
+    }
+
+    private boolean contains(String value, String search) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(search);
+    }
+
+    private BookingResponse toResponse(ArchivedBooking booking) {
+        return BookingResponse.builder()
+                .id(booking.getId())
+                .userId(Objects.requireNonNullElse(booking.getUserId(), ""))
+                .movieId(Objects.requireNonNullElse(booking.getMovieId(), ""))
+                .movieTitle(Objects.requireNonNullElse(booking.getMovieTitle(), ""))
+                .moviePosterUrl("")
+                .theaterId(Objects.requireNonNullElse(booking.getTheaterId(), ""))
+                .theaterName(Objects.requireNonNullElse(booking.getTheaterName(), ""))
+                .theaterLocation(Objects.requireNonNullElse(booking.getTheaterLocation(), ""))
+                .showtimeId(booking.getShowtimeId())
+                .showtime(booking.getShowDateTime())
+                .screen(Objects.requireNonNullElse(booking.getScreen(), ""))
+                .ticketPrice(booking.getTicketPrice())
+                .seats(booking.getSeats())
+                .seatLabels(booking.getSeatLabels())
+                .totalAmount(booking.getTotalAmount())
+                .bookingDate(booking.getBookingDate())
+                .status(booking.getStatus())
+                .customerName(booking.getCustomerName())
+                .customerEmail(booking.getCustomerEmail())
+                .customerPhone(booking.getCustomerPhone())
+                .paymentId(Objects.requireNonNullElse(booking.getPaymentId(), ""))
+                .qrCode(Objects.requireNonNullElse(booking.getQrCode(), ""))
+                .ticketNumber(Objects.requireNonNullElse(booking.getTicketNumber(), ""))
+                .refundAmount(booking.getRefundAmount())
+                .refundDate(booking.getRefundDate())
+                .cancellationReason(booking.getCancellationReason())
+                .build();
+    }
+
+    private Booking.BookingStatus parseStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        try {
+            return Booking.BookingStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private Double getDouble(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private Integer getInteger(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete archive file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.revticket.service;
+
+import com.revticket.dto.BookingReportFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the filtered booking report as CSV.
+ *
+ * Rows are read through a forward-only JDBC cursor (fetch size {@link Integer#MIN_VALUE} makes the
+ * MySQL driver stream rows instead of buffering the result) and written straight to the output,
+ * so memory use does not depend on the number of rows and there is no row cap.
+ */
+@Service
+public class BookingExportService {
+
+    private static final String HEADER =
+            "Booking ID,Customer Name,Email,Phone,Movie,Theater,Screen,Show Date,Seats,Amount,Status,Booking Date\n";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookingSearchService bookingSearchService;
+
+    public void writeCsv(BookingReportFilter filter, OutputStream outputStream, boolean gzip) throws IOException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT b.id, b.customer_name, b.customer_email, b.customer_phone, m.title, t.name, " +
+                "COALESCE(b.screen_name, s.screen) AS screen, s.show_date_time, " +
+                "(SELECT GROUP_CONCAT(bs.seat_id SEPARATOR '; ') FROM booking_seats bs WHERE bs.booking_id = b.id) AS seats, " +
+                "b.total_amount, b.status, b.booking_date " +
+                "FROM bookings b JOIN showtimes s ON s.id = b.showtime_id " +
+                "LEFT JOIN movies m ON m.id = s.movie_id LEFT JOIN theaters t ON t.id = s.theater_id WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        bookingSearchService.appendFilters(sql, params, filter, false);
+        sql.append(" ORDER BY b.booking_date DESC");
+
+        JdbcTemplate streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, WRITE_BUFFER_SIZE) : outputStream;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        StringBuilder line = new StringBuilder(256);
+        writer.write(HEADER);
+        try {
+            streamingTemplate.query(sql.toString(), resultSet -> {
+                writeRow(resultSet, line);
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, params.toArray());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+    }
+
+    private void writeRow(ResultSet rs, StringBuilder line) throws SQLException {
+        line.setLength(0);
+        appendQuoted(line, rs.getString(1)).append(',');
+        appendQuoted(line, rs.getString(2)).append(',');
+        appendQuoted(line, rs.getString(3)).append(',');
+        appendQuoted(line, rs.getString(4)).append(',');
+        appendQuoted(line, rs.getString(5)).append(',');
+        appendQuoted(line, rs.getString(6)).append(',');
+        appendQuoted(line, rs.getString(7)).append(',');
+        appendQuoted(line, formatTimestamp(rs.getTimestamp(8))).append(',');
+        appendQuoted(line, rs.getString(9)).append(',');
+        double amount = rs.getDouble(10);
+        line.append(BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).toPlainString()).append(',');
+        appendQuoted(line, rs.getString(11)).append(',');
+        appendQuoted(line, formatTimestamp(rs.getTimestamp(12))).append('\n');
+    }
+
+    private StringBuilder appendQuoted(StringBuilder line, String value) {
+        line.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+        }
+        return line.append('"');
+    }
+
+    private String formatTimestamp(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().format(DATE_FORMAT) : "";
+    }
+}
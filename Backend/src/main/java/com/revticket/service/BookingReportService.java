@@ -2,11 +2,15 @@ package com.revticket.service;
 
 import com.revticket.dto.*;
 import com.revticket.entity.Booking;
+import com.revticket.repository.BookingDailyRollupRepository;
 import com.revticket.repository.BookingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,7 +20,6 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class BookingReportService {
@@ -24,19 +27,32 @@ public class BookingReportService {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private BookingDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private BookingSearchService bookingSearchService;
+
     @Transactional(readOnly = true)
     public BookingReportSummary getSummary(LocalDate fromDate, LocalDate toDate) {
-        LocalDateTime start = fromDate.atStartOfDay();
-        LocalDateTime end = toDate.atTime(LocalTime.MAX);
-
-        Long totalBookings = bookingRepository.countByDateRange(start, end);
-        Double totalRevenue = bookingRepository.sumRevenueByDateRange(start, end);
-        Long cancelledBookings = bookingRepository.countCancelledByDateRange(start, end);
-        Double totalRefunds = bookingRepository.sumRefundsByDateRange(start, end);
+        long totalBookings = 0;
+        double totalRevenue = 0.0;
+        long cancelledBookings = 0;
+        double totalRefunds = 0.0;
+        for (BookingDailyRollupRepository.StatusTotals totals : rollupRepository.sumByStatus(fromDate, toDate)) {
+            totalBookings += totals.getBookings();
+            if (totals.getStatus() == Booking.BookingStatus.CONFIRMED) {
+                totalRevenue += totals.getRevenue();
+            } else if (totals.getStatus() == Booking.BookingStatus.CANCELLED) {
+                cancelledBookings += totals.getBookings();
+                totalRefunds += totals.getRefunds();
+            }
+        }
 
-        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-        LocalDateTime todayEnd = LocalDate.now().atTime(LocalTime.MAX);
-        Long todayBookings = bookingRepository.countByDateRange(todayStart, todayEnd);
+        LocalDate today = LocalDate.now();
+        long todayBookings = rollupRepository.sumByStatus(today, today).stream()
+                .mapToLong(BookingDailyRollupRepository.StatusTotals::getBookings)
+                .sum();
 
         Double avgTicketPrice = totalBookings > 0 ? totalRevenue / totalBookings : 0.0;
 
@@ -52,36 +68,45 @@ public class BookingReportService {
 
     @Transactional(readOnly = true)
     public List<RevenueTrendDTO> getRevenueTrend(LocalDate fromDate, LocalDate toDate) {
-        LocalDateTime start = fromDate.atStartOfDay();
-        LocalDateTime end = toDate.atTime(LocalTime.MAX);
-
-        List<Booking> bookings = bookingRepository.findAll().stream()
-                .filter(b -> b.getBookingDate().isAfter(start) && b.getBookingDate().isBefore(end))
-                .collect(Collectors.toList());
-
-        Map<String, RevenueTrendDTO> trendMap = new LinkedHashMap<>();
+        Map<LocalDate, RevenueTrendDTO> trendMap = new LinkedHashMap<>();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
         for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
-            trendMap.put(date.format(formatter), new RevenueTrendDTO(date.format(formatter), 0.0, 0L));
+            trendMap.put(date, new RevenueTrendDTO(date.format(formatter), 0.0, 0L));
         }
 
-        bookings.forEach(booking -> {
-            String dateKey = booking.getBookingDate().toLocalDate().format(formatter);
-            if (trendMap.containsKey(dateKey)) {
-                RevenueTrendDTO trend = trendMap.get(dateKey);
-                if (booking.getStatus() == Booking.BookingStatus.CONFIRMED) {
-                    trend.setRevenue(trend.getRevenue() + booking.getTotalAmount());
-                }
-                trend.setBookings(trend.getBookings() + 1);
+        for (BookingDailyRollupRepository.DailyTotals day : rollupRepository.sumByDay(fromDate, toDate)) {
+            RevenueTrendDTO trend = trendMap.get(day.getDate());
+            if (trend != null) {
+                trend.setRevenue(day.getRevenue());
+                trend.setBookings(day.getBookings());
             }
-        });
+        }
 
         return new ArrayList<>(trendMap.values());
     }
 
+    /**
+     * Searches bookings through the search index without counting the total; the slice only
+     * says whether a next page exists.
+     */
+    @Transactional(readOnly = true)
+    public Slice<BookingResponse> searchBookings(BookingReportFilter filter, boolean exact) {
+        BookingSearchService.SearchResult result =
+                bookingSearchService.search(filter, exact, filter.getPage(), filter.getSize(), false);
+        List<BookingResponse> content = result.bookings().stream().map(this::mapToResponse).toList();
+        return new SliceImpl<>(content, PageRequest.of(filter.getPage(), filter.getSize()), result.hasNext());
+    }
+
     @Transactional(readOnly = true)
     public Page<BookingResponse> getFilteredBookings(BookingReportFilter filter) {
+        if (filter.getSearchTerm() != null && !filter.getSearchTerm().isBlank()) {
+            BookingSearchService.SearchResult result =
+                    bookingSearchService.search(filter, false, filter.getPage(), filter.getSize(), true);
+            List<BookingResponse> content = result.bookings().stream().map(this::mapToResponse).toList();
+            return new PageImpl<>(content, PageRequest.of(filter.getPage(), filter.getSize()), result.total());
+        }
+
         LocalDateTime fromDate = filter.getFromDate() != null ? filter.getFromDate().atStartOfDay() : null;
         LocalDateTime toDate = filter.getToDate() != null ? filter.getToDate().atTime(LocalTime.MAX) : null;
 
@@ -105,7 +130,6 @@ public class BookingReportService {
                 filter.getTheaterId(),
                 filter.getMovieId(),
                 status,
-                filter.getSearchTerm(),
                 pageable);
 
         return bookings.map(this::mapToResponse);
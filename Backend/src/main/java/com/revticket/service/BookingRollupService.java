@@ -0,0 +1,194 @@
+package com.revticket.service;
+
+import com.revticket.entity.Booking;
+import com.revticket.entity.BookingDailyRollup;
+import com.revticket.entity.Showtime;
+import com.revticket.event.BookingChangedEvent;
+import com.revticket.repository.BookingDailyRollupRepository;
+import com.revticket.repository.BookingRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Maintains the daily booking rollup.
+ *
+ * Listens to {@link BookingChangedEvent}s, which booking code publishes in the transaction that
+ * changes the booking, so the rollup commits or rolls back with it. Deltas of one event for the
+ * same (day, theater, movie, status) are merged before writing, and each merged delta is a
+ * single upsert. {@link #rebuild} recomputes
+ * a date range from the bookings table, one day per transaction.
+ *
+ * Retention deletes bookings whose show is past the retention period, so the bookings table no
+ * longer holds the full history of older days. Rebuilds never go back further than
+ * {@link #earliestRebuildableDate()}; the rollup rows of older days are kept as they are.
+ */
+@Service
+public class BookingRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingRollupService.class);
+
+    @Autowired
+    private BookingDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.retention.booking-days:7}")
+    private int bookingRetentionDays;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-rollup-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener
+    @Transactional
+    public void onBookingChanged(BookingChangedEvent event) {
+        // The rollup keeps the history of purged bookings
+        if (event.isPurged()) {
+            return;
+        }
+        Changes changes = new Changes();
+        for (BookingChangedEvent.Change change : event.getChanges()) {
+            if (change.getBefore() != null && change.getBefore().equals(change.getAfter())) {
+                continue;
+            }
+            if (change.getBefore() != null) {
+                changes.accumulate(change.getBooking(), change.getBefore(), -1);
+            }
+            if (change.getAfter() != null) {
+                changes.accumulate(change.getBooking(), change.getAfter(), 1);
+            }
+        }
+        changes.deltas.forEach((key, delta) -> {
+            if (delta.isEmpty()) {
+                return;
+            }
+            rollupRepository.addDelta(key.getBookingDate(), key.getTheaterId(), key.getMovieId(), key.getStatus().name(),
+                    delta.bookings, delta.seats, delta.revenue, delta.refunds);
+        });
+    }
+
+    /**
+     * First day whose bookings retention cannot have purged: a booking is made before its show,
+     * so every booking of a later day has a show after the retention cutoff.
+     */
+    public LocalDate earliestRebuildableDate() {
+        return LocalDateTime.now().minusDays(bookingRetentionDays).toLocalDate().plusDays(1);
+    }
+
+    /**
+     * Recomputes the rollup for every day in the range from the bookings table. Days before
+     * {@link #earliestRebuildableDate()} are skipped.
+     */
+    public int rebuild(LocalDate fromDate, LocalDate toDate) {
+        LocalDate earliest = earliestRebuildableDate();
+        if (fromDate.isBefore(earliest)) {
+            logger.warn("Booking rollup rebuild from {} clamped to {}; older bookings may have been purged by retention",
+                    fromDate, earliest);
+            fromDate = earliest;
+        }
+        return rebuildDays(fromDate, toDate);
+    }
+
+    private int rebuildDays(LocalDate fromDate, LocalDate toDate) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int rows = 0;
+        for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+            LocalDate day = date;
+            Integer dayRows = transactionTemplate.execute(status -> {
+                rollupRepository.deleteByDate(day);
+                return rollupRepository.rebuild(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            });
+            rows += Objects.requireNonNullElse(dayRows, 0);
+        }
+        logger.info("Rebuilt booking rollup for {} to {}: {} rows", fromDate, toDate, rows);
+        return rows;
+    }
+
+    public void rebuildInBackground(LocalDate fromDate, LocalDate toDate) {
+        executor.submit(() -> {
+            try {
+                rebuild(fromDate, toDate);
+            } catch (Exception e) {
+                logger.error("Booking rollup rebuild for {} to {} failed", fromDate, toDate, e);
+            }
+        });
+    }
+
+    // Backfills the whole history the first time the rollup table is empty. Nothing can be lost
+    // by recomputing purged days here, so this is the one rebuild that goes past the retention cutoff.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime earliest = bookingRepository.findEarliestBookingDate();
+        if (earliest == null) {
+            return;
+        }
+        executor.submit(() -> {
+            try {
+                rebuildDays(earliest.toLocalDate(), LocalDate.now());
+            } catch (Exception e) {
+                logger.error("Booking rollup backfill from {} failed", earliest.toLocalDate(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Accumulates the rollup deltas of one event, merging deltas that hit the same row
+    private static final class Changes {
+        private final Map<BookingDailyRollup.Key, Delta> deltas = new LinkedHashMap<>();
+
+        private void accumulate(Booking booking, BookingChangedEvent.State state, int sign) {
+            Showtime showtime = booking.getShowtime();
+            LocalDate date = booking.getBookingDate() != null ? booking.getBookingDate().toLocalDate() : LocalDate.now();
+            String theaterId = showtime != null && showtime.getTheater() != null ? showtime.getTheater().getId() : "";
+            String movieId = showtime != null && showtime.getMovie() != null ? showtime.getMovie().getId() : "";
+
+            Delta delta = deltas.computeIfAbsent(new BookingDailyRollup.Key(date, theaterId, movieId, state.getStatus()),
+                    k -> new Delta());
+            delta.bookings += sign;
+            delta.seats += (long) sign * state.getSeatCount();
+            delta.revenue += sign * (booking.getTotalAmount() != null ? booking.getTotalAmount() : 0.0);
+            delta.refunds += sign * (state.getRefundAmount() != null ? state.getRefundAmount() : 0.0);
+        }
+    }
+
+    private static final class Delta {
+        private long bookings;
+        private long seats;
+        private double revenue;
+        private double refunds;
+
+        private boolean isEmpty() {
+            return bookings == 0 && seats == 0 && revenue == 0.0 && refunds == 0.0;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.revticket.service;
+
+import com.revticket.dto.BookingReportFilter;
+import com.revticket.entity.Booking;
+import com.revticket.event.BookingChangedEvent;
+import com.revticket.repository.BookingRepository;
+import com.revticket.repository.BookingSearchTermRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Inverted index for the admin booking search.
+ *
+ * Each booking is indexed under its id, ticket number, email (whole and local part), phone
+ * digits, and full name plus each name word, all lower-cased. A query is split into words and
+ * every word must match some term of the booking, either exactly or as a prefix. Every word is
+ * one range scan on the term primary key, so search cost follows the number of matches rather
+ * than the size of the bookings table.
+ *
+ * Bookings that existed before the index are indexed by a backfill that walks the bookings table
+ * in id order. The last indexed id is stored in the settings table with each chunk, so a restart
+ * resumes where the backfill stopped; once it reaches the end the setting is marked complete.
+ */
+@Service
+public class BookingSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingSearchService.class);
+
+    private static final int MAX_TERM_LENGTH = 128;
+    private static final int MAX_QUERY_WORDS = 5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int BACKFILL_CHUNK_SIZE = 1000;
+    private static final String BACKFILL_CURSOR_KEY = "bookingSearchBackfillCursor";
+    private static final String BACKFILL_COMPLETE = "complete";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingSearchTermRepository searchTermRepository;
+
+    @Autowired
+    private SettingsService settingsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-search-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Indexes a newly saved booking in the caller's transaction.
+     */
+    public void index(Booking booking) {
+        Set<String> terms = termsFor(booking.getId(), booking.getCustomerName(), booking.getCustomerEmail(),
+                booking.getCustomerPhone(), booking.getTicketNumber());
+        List<Object[]> rows = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            rows.add(new Object[]{term, booking.getId()});
+        }
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO booking_search_terms (term, booking_id) VALUES (?, ?)", rows);
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        List<String> removed = new ArrayList<>();
+        for (BookingChangedEvent.Change change : event.getChanges()) {
+            if (change.getBefore() == null) {
+                index(change.getBooking());
+            } else if (change.getAfter() == null) {
+                removed.add(change.getBooking().getId());
+            }
+        }
+        remove(removed);
+    }
+
+    @Transactional
+    public void remove(Collection<String> bookingIds) {
+        if (!bookingIds.isEmpty()) {
+            searchTermRepository.deleteByBookingIds(bookingIds);
+        }
+    }
+
+    /**
+     * Returns one slice of bookings matching the filter, newest first. Fetches one extra id to
+     * tell whether another slice follows; the total count is only computed when asked for.
+     */
+    @Transactional(readOnly = true)
+    public SearchResult search(BookingReportFilter filter, boolean exact, int page, int size, boolean withTotal) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        appendFilters(where, params, filter, exact);
+
+        String from = " FROM bookings b JOIN showtimes s ON s.id = b.showtime_id";
+        List<Object> pageParams = new ArrayList<>(params);
+        pageParams.add(size + 1);
+        pageParams.add((long) page * size);
+        List<String> ids = jdbcTemplate.queryForList(
+                "SELECT b.id" + from + where + " ORDER BY b.booking_date DESC, b.id DESC LIMIT ? OFFSET ?",
+                String.class, pageParams.toArray());
+
+        boolean hasNext = ids.size() > size;
+        List<String> pageIds = hasNext ? ids.subList(0, size) : ids;
+        Long total = withTotal
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*)" + from + where, Long.class, params.toArray())
+                : null;
+
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < pageIds.size(); i++) {
+            position.put(pageIds.get(i), i);
+        }
+        List<Booking> bookings = new ArrayList<>(pageIds.isEmpty() ? List.of() : bookingRepository.findByIdIn(pageIds));
+        bookings.sort(Comparator.comparingInt(booking -> position.get(booking.getId())));
+        return new SearchResult(bookings, hasNext, total);
+    }
+
+    /**
+     * Appends the report filter as SQL predicates over {@code bookings b} joined to
+     * {@code showtimes s}. The search term goes through the index instead of LIKE scans.
+     */
+    public void appendFilters(StringBuilder sql, List<Object> params, BookingReportFilter filter, boolean exact) {
+        if (filter.getFromDate() != null) {
+            sql.append(" AND b.booking_date >= ?");
+            params.add(Timestamp.valueOf(filter.getFromDate().atStartOfDay()));
+        }
+        if (filter.getToDate() != null) {
+            sql.append(" AND b.booking_date < ?");
+            params.add(Timestamp.valueOf(filter.getToDate().plusDays(1).atStartOfDay()));
+        }
+        if (filter.getTheaterId() != null && !filter.getTheaterId().isEmpty()) {
+            sql.append(" AND s.theater_id = ?");
+            params.add(filter.getTheaterId());
+        }
+        if (filter.getMovieId() != null && !filter.getMovieId().isEmpty()) {
+            sql.append(" AND s.movie_id = ?");
+            params.add(filter.getMovieId());
+        }
+        Booking.BookingStatus status = parseStatus(filter.getStatus());
+        if (status != null) {
+            sql.append(" AND b.status = ?");
+            params.add(status.name());
+        }
+        if (filter.getSearchTerm() != null && !filter.getSearchTerm().isBlank()) {
+            List<String> words = queryWords(filter.getSearchTerm(), exact);
+            if (words.isEmpty()) {
+                sql.append(" AND 1 = 0");
+            }
+            for (String word : words) {
+                if (exact) {
+                    sql.append(" AND b.id IN (SELECT t.booking_id FROM booking_search_terms t WHERE t.term = ?)");
+                    params.add(word);
+                } else {
+                    sql.append(" AND b.id IN (SELECT t.booking_id FROM booking_search_terms t WHERE t.term LIKE ? ESCAPE '!')");
+                    params.add(escapeLike(word) + "%");
+                }
+            }
+        }
+    }
+
+    // Starts the backfill on first start after upgrade, or resumes one a restart interrupted
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeBackfill() {
+        String cursor = settingsService.getSetting(BACKFILL_CURSOR_KEY);
+        if (BACKFILL_COMPLETE.equals(cursor)) {
+            return;
+        }
+        submitBackfill(cursor);
+    }
+
+    /**
+     * Walks every booking again and adds the terms missing from the index. Search keeps working
+     * on the existing terms while it runs.
+     */
+    public void rebuildInBackground() {
+        settingsService.saveSetting(BACKFILL_CURSOR_KEY, "");
+        submitBackfill("");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submitBackfill(String fromId) {
+        executor.submit(() -> {
+            try {
+                backfill(fromId);
+            } catch (Exception e) {
+                logger.error("Booking search backfill failed; it resumes on the next start", e);
+            }
+        });
+    }
+
+    private void backfill(String fromId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        String lastId = fromId;
+        int indexed = 0;
+        if (!fromId.isEmpty()) {
+            logger.info("Resuming booking search backfill after booking {}", fromId);
+        }
+        while (true) {
+            String afterId = lastId;
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, customer_name, customer_email, customer_phone, ticket_number FROM bookings " +
+                    "WHERE id > ? ORDER BY id LIMIT ?", afterId, BACKFILL_CHUNK_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> terms = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                String id = (String) row.get("id");
+                for (String term : termsFor(id, (String) row.get("customer_name"), (String) row.get("customer_email"),
+                        (String) row.get("customer_phone"), (String) row.get("ticket_number"))) {
+                    terms.add(new Object[]{term, id});
+                }
+            }
+            String chunkLastId = (String) rows.get(rows.size() - 1).get("id");
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("INSERT IGNORE INTO booking_search_terms (term, booking_id) VALUES (?, ?)", terms);
+                settingsService.saveSetting(BACKFILL_CURSOR_KEY, chunkLastId);
+            });
+            indexed += rows.size();
+            lastId = chunkLastId;
+        }
+        settingsService.saveSetting(BACKFILL_CURSOR_KEY, BACKFILL_COMPLETE);
+        logger.info("Indexed {} bookings for search", indexed);
+    }
+
+    private Set<String> termsFor(String id, String name, String email, String phone, String ticketNumber) {
+        Set<String> terms = new LinkedHashSet<>();
+        addTerm(terms, id);
+        addTerm(terms, ticketNumber);
+        if (name != null) {
+            String normalized = name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+            addTerm(terms, normalized);
+            for (String word : normalized.split(" ")) {
+                addTerm(terms, word);
+            }
+        }
+        if (email != null) {
+            String normalized = email.trim().toLowerCase(Locale.ROOT);
+            addTerm(terms, normalized);
+            int at = normalized.indexOf('@');
+            if (at > 0) {
+                addTerm(terms, normalized.substring(0, at));
+            }
+        }
+        if (phone != null) {
+            addTerm(terms, phone.replaceAll("\\D", ""));
+        }
+        return terms;
+    }
+
+    private void addTerm(Set<String> terms, String value) {
+        if (value == null) {
+            return;
+        }
+        String term = value.trim().toLowerCase(Locale.ROOT);
+        if (!term.isEmpty()) {
+            terms.add(term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term);
+        }
+    }
+
+    private List<String> queryWords(String query, boolean exact) {
+        List<String> words = new ArrayList<>();
+        for (String word : query.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            // Phone numbers are indexed as bare digits
+            if (word.matches("[0-9+()\\-]+")) {
+                word = word.replaceAll("\\D", "");
+            }
+            if (word.length() > MAX_TERM_LENGTH) {
+                word = word.substring(0, MAX_TERM_LENGTH);
+            }
+            if (word.isEmpty() || (!exact && word.length() < MIN_PREFIX_LENGTH)) {
+                continue;
+            }
+            words.add(word);
+            if (words.size() == MAX_QUERY_WORDS) {
+                break;
+            }
+        }
+        return words;
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private Booking.BookingStatus parseStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        try {
+            return Booking.BookingStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public record SearchResult(List<Booking> bookings, boolean hasNext, Long total) {
+    }
+}
@@ -1,31 +1,49 @@
 package com.revticket.service;
 
+import com.revticket.dto.BookingPage;
 import com.revticket.dto.BookingRequest;
 import com.revticket.dto.BookingResponse;
+import com.revticket.dto.BulkCancellationResult;
 import com.revticket.entity.Booking;
 import com.revticket.entity.Movie;
-import com.revticket.entity.Seat;
+import com.revticket.entity.OutboxEvent;
 import com.revticket.entity.Showtime;
 import com.revticket.entity.Theater;
 import com.revticket.entity.User;
+import com.revticket.event.BookingChangedEvent;
 import com.revticket.repository.BookingRepository;
 import com.revticket.repository.SeatRepository;
 import com.revticket.repository.ShowtimeRepository;
 import com.revticket.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class BookingService {
 
+    private static final int MAX_BOOKING_PAGE_SIZE = 100;
+    private static final double REFUND_RATE = 0.9;
+
     @Autowired
     private BookingRepository bookingRepository;
 
@@ -45,7 +63,19 @@ public class BookingService {
     private SettingsService settingsService;
 
     @Autowired
-    private EmailService emailService;
+    private OutboxService outboxService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatTemplateService seatTemplateService;
+
+    @Autowired
+    private ShowtimeAvailabilityService showtimeAvailabilityService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public BookingResponse createBooking(String userId, BookingRequest request) {
@@ -68,19 +98,8 @@ public class BookingService {
             throw new RuntimeException("Cannot book tickets for past showtimes");
         }
 
-        List<Seat> showtimeSeats = seatRepository.findByShowtimeId(showtime.getId());
-        
-        // Validate seats by ID
-        for (String seatId : request.getSeats()) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Seat not found: " + seatId));
-            
-            if (seat.getIsBooked() || seat.getIsHeld()) {
-                throw new RuntimeException("Seat is no longer available: " + seat.getRow() + seat.getNumber());
-            }
-        }
+        seatInventoryService.bookSeats(showtime.getId(), request.getSeats(), request.getSessionId());
+        claimSeats(showtime.getId(), request.getSeats(), request.getSessionId());
 
         Booking booking = new Booking();
         booking.setUser(user);
@@ -101,51 +120,45 @@ public class BookingService {
         booking.setQrCode("QR_" + UUID.randomUUID().toString());
 
         booking = bookingRepository.save(booking);
-
-        // Mark seats as booked
-        for (String seatId : request.getSeats()) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(true);
-                seat.setIsHeld(false);
-                seat.setHoldExpiry(null);
-                seat.setSessionId(null);
-                seatRepository.save(seat);
-            }
-        }
-
-        showtime.setAvailableSeats(Math.max(0, showtime.getAvailableSeats() - request.getSeats().size()));
-        showtimeRepository.save(showtime);
-
-        // Send email notification
-        boolean emailEnabled = settingsService.areEmailNotificationsEnabled();
-        System.out.println("Email notifications enabled: " + emailEnabled);
-        if (emailEnabled) {
-            try {
-                System.out.println("Sending booking confirmation to: " + booking.getCustomerEmail());
-                emailService.sendBookingConfirmation(booking);
-                System.out.println("✓ Booking confirmation email sent successfully");
-            } catch (Exception e) {
-                System.err.println("✗ Failed to send booking confirmation email: " + e.getMessage());
-                e.printStackTrace();
-            }
-        } else {
-            System.out.println("Email notifications are disabled in settings");
-        }
+        outboxService.publish(OutboxEvent.EventType.BOOKING_CONFIRMED, booking.getId(), null);
+        eventPublisher.publishEvent(BookingChangedEvent.created(booking));
 
         return mapToResponse(booking);
     }
 
     @Transactional(readOnly = true)
     public List<BookingResponse> getUserBookings(String userId) {
-        return bookingRepository.findByUserId(Objects.requireNonNullElse(userId, ""))
-                .stream()
-                .sorted((b1, b2) -> b2.getBookingDate().compareTo(b1.getBookingDate()))
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(bookingRepository.findByUserIdOrderByBookingDateDesc(Objects.requireNonNullElse(userId, "")));
+    }
+
+    /**
+     * Returns one page of the user's bookings, newest first. The cursor is the opaque
+     * {@code nextCursor} of the previous page; each page is an index range scan on
+     * (user_id, booking_date), however long the user's history is.
+     */
+    @Transactional(readOnly = true)
+    public BookingPage getUserBookingsPage(String userId, String cursor, int limit, boolean upcomingOnly) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_BOOKING_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        LocalDateTime upcomingAfter = upcomingOnly ? LocalDateTime.now() : null;
+        String user = Objects.requireNonNullElse(userId, "");
+
+        List<Booking> bookings;
+        if (cursor == null || cursor.isBlank()) {
+            bookings = bookingRepository.findUserBookingsFirstPage(user, upcomingAfter, pageable);
+        } else {
+            BookingCursor position = BookingCursor.decode(cursor);
+            bookings = bookingRepository.findUserBookingsAfter(user, position.bookingDate(), position.id(), upcomingAfter, pageable);
+        }
+
+        boolean hasMore = bookings.size() > pageSize;
+        List<Booking> page = hasMore ? bookings.subList(0, pageSize) : bookings;
+        Booking last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return BookingPage.builder()
+                .items(mapToResponses(page))
+                .nextCursor(hasMore ? new BookingCursor(last.getBookingDate(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -169,30 +182,100 @@ public class BookingService {
             throw new RuntimeException("Cancellation not allowed. Must cancel at least " + cancellationHours + " hours before showtime");
         }
 
+        BookingChangedEvent.State before = BookingChangedEvent.State.of(booking);
         booking.setStatus(Booking.BookingStatus.CANCELLATION_PENDING);
         booking.setCancellationReason(Objects.requireNonNullElse(reason, ""));
         booking.setCancellationRequestedAt(LocalDateTime.now());
         
         booking = bookingRepository.save(booking);
-
-        if (settingsService.areEmailNotificationsEnabled()) {
-            try {
-                emailService.sendAdminCancellationRequestNotification(booking, reason);
-            } catch (Exception e) {
-                System.err.println("Failed to send admin cancellation notification: " + e.getMessage());
-            }
-        }
+        outboxService.publish(OutboxEvent.EventType.CANCELLATION_REQUESTED, booking.getId(), reason);
+        eventPublisher.publishEvent(BookingChangedEvent.updated(booking, before));
 
         return mapToResponse(booking);
     }
 
     @Transactional(readOnly = true)
     public List<BookingResponse> getCancellationRequests() {
-        return bookingRepository.findAll()
-                .stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.CANCELLATION_PENDING)
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(bookingRepository.findByStatus(Booking.BookingStatus.CANCELLATION_PENDING));
+    }
+
+    /**
+     * Admin work queue of pending cancellation requests, oldest request first.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookingResponse> getCancellationQueue(int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_BOOKING_PAGE_SIZE)));
+        Page<Booking> bookings = bookingRepository.findQueueByStatus(Booking.BookingStatus.CANCELLATION_PENDING, pageable);
+        return new PageImpl<>(mapToResponses(bookings.getContent()), pageable, bookings.getTotalElements());
+    }
+
+    /**
+     * Approves many cancellation requests in one transaction. Bookings, seats and showtime
+     * counters are updated with set-based statements: one for the bookings, one for all their
+     * seats, and one per affected showtime. Bookings no longer pending are skipped.
+     */
+    @Transactional
+    public BulkCancellationResult approveCancellations(List<String> bookingIds, String reason) {
+        List<Booking> pending = bookingRepository.lockByIdInAndStatus(new HashSet<>(bookingIds), Booking.BookingStatus.CANCELLATION_PENDING);
+        List<String> ids = pending.stream().map(Booking::getId).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return bulkResult(bookingIds, ids, 0);
+        }
+
+        Map<String, List<String>> seatsByShowtime = new HashMap<>();
+        List<String> seatIds = new ArrayList<>();
+        List<BookingChangedEvent.Change> changes = new ArrayList<>();
+        for (Booking booking : pending) {
+            seatsByShowtime.computeIfAbsent(booking.getShowtime().getId(), k -> new ArrayList<>()).addAll(booking.getSeats());
+            seatIds.addAll(booking.getSeats());
+            BookingChangedEvent.State before = BookingChangedEvent.State.of(booking);
+            changes.add(new BookingChangedEvent.Change(booking, before,
+                    new BookingChangedEvent.State(Booking.BookingStatus.CANCELLED, calculateRefund(booking), before.getSeatCount())));
+        }
+
+        String cancellationReason = reason == null || reason.isBlank() ? null : reason;
+        bookingRepository.approveCancellations(ids, REFUND_RATE, cancellationReason, LocalDateTime.now());
+        if (!seatIds.isEmpty()) {
+            seatRepository.markAvailableByIds(seatIds);
+            seatTemplateService.deleteFreeSeatRows(seatIds);
+        }
+        seatsByShowtime.forEach((showtimeId, seats) -> {
+            showtimeAvailabilityService.increment(showtimeId, seats.size());
+            seatInventoryService.unbookSeats(showtimeId, seats);
+        });
+        ids.forEach(id -> outboxService.publish(OutboxEvent.EventType.BOOKING_CANCELLED, id, null));
+        eventPublisher.publishEvent(new BookingChangedEvent(changes));
+
+        return bulkResult(bookingIds, ids, seatIds.size());
+    }
+
+    /**
+     * Rejects many cancellation requests in one statement; the bookings return to CONFIRMED.
+     */
+    @Transactional
+    public BulkCancellationResult rejectCancellations(List<String> bookingIds) {
+        List<Booking> pending = bookingRepository.lockByIdInAndStatus(new HashSet<>(bookingIds), Booking.BookingStatus.CANCELLATION_PENDING);
+        List<String> ids = pending.stream().map(Booking::getId).collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            bookingRepository.rejectCancellations(ids);
+        }
+        List<BookingChangedEvent.Change> changes = new ArrayList<>();
+        for (Booking booking : pending) {
+            BookingChangedEvent.State before = BookingChangedEvent.State.of(booking);
+            changes.add(new BookingChangedEvent.Change(booking, before,
+                    new BookingChangedEvent.State(Booking.BookingStatus.CONFIRMED, before.getRefundAmount(), before.getSeatCount())));
+        }
+        eventPublisher.publishEvent(new BookingChangedEvent(changes));
+        return bulkResult(bookingIds, ids, 0);
+    }
+
+    private BulkCancellationResult bulkResult(List<String> requested, List<String> processed, int releasedSeats) {
+        Set<String> done = new HashSet<>(processed);
+        return BulkCancellationResult.builder()
+                .processed(processed.size())
+                .releasedSeats(releasedSeats)
+                .skippedBookingIds(requested.stream().filter(id -> !done.contains(id)).distinct().collect(Collectors.toList()))
+                .build();
     }
 
     @Transactional
@@ -204,54 +287,34 @@ public class BookingService {
             throw new RuntimeException("Booking is already cancelled");
         }
 
+        BookingChangedEvent.State before = BookingChangedEvent.State.of(booking);
         booking.setStatus(Booking.BookingStatus.CANCELLED);
         if (reason != null && !reason.isEmpty()) {
             booking.setCancellationReason(Objects.requireNonNullElse(reason, ""));
         }
 
-        List<Seat> showtimeSeats = seatRepository.findByShowtimeId(booking.getShowtime().getId());
-        for (String seatId : booking.getSeats()) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(false);
-                seat.setIsHeld(false);
-                seatRepository.save(seat);
-            }
-        }
-
-        Showtime showtime = booking.getShowtime();
-        showtime.setAvailableSeats(showtime.getAvailableSeats() + booking.getSeats().size());
-        showtimeRepository.save(showtime);
+        seatRepository.markAvailable(booking.getShowtime().getId(), booking.getSeats());
+        seatTemplateService.deleteFreeSeatRows(booking.getSeats());
+        seatInventoryService.unbookSeats(booking.getShowtime().getId(), booking.getSeats());
+        showtimeAvailabilityService.increment(booking.getShowtime().getId(), booking.getSeats().size());
 
         booking.setRefundAmount(calculateRefund(booking));
         booking.setRefundDate(LocalDateTime.now());
 
         Booking savedBooking = bookingRepository.save(booking);
-
-        if (settingsService.areEmailNotificationsEnabled()) {
-            try {
-                emailService.sendCancellationConfirmation(savedBooking);
-            } catch (Exception e) {
-                System.err.println("Failed to send cancellation email: " + e.getMessage());
-            }
-        }
+        outboxService.publish(OutboxEvent.EventType.BOOKING_CANCELLED, savedBooking.getId(), null);
+        eventPublisher.publishEvent(BookingChangedEvent.updated(savedBooking, before));
 
         return mapToResponse(savedBooking);
     }
 
     @Transactional(readOnly = true)
     public List<BookingResponse> getAllBookings() {
-        return bookingRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(bookingRepository.findAll());
     }
 
     private Double calculateRefund(Booking booking) {
-        return booking.getTotalAmount() * 0.9;
+        return booking.getTotalAmount() * REFUND_RATE;
     }
 
     @Transactional
@@ -259,24 +322,13 @@ public class BookingService {
         Booking booking = bookingRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-        List<Seat> showtimeSeats = seatRepository.findByShowtimeId(booking.getShowtime().getId());
-        for (String seatId : booking.getSeats()) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(false);
-                seat.setIsHeld(false);
-                seatRepository.save(seat);
-            }
-        }
-
-        Showtime showtime = booking.getShowtime();
-        showtime.setAvailableSeats(showtime.getAvailableSeats() + booking.getSeats().size());
-        showtimeRepository.save(showtime);
+        seatRepository.markAvailable(booking.getShowtime().getId(), booking.getSeats());
+        seatTemplateService.deleteFreeSeatRows(booking.getSeats());
+        seatInventoryService.unbookSeats(booking.getShowtime().getId(), booking.getSeats());
+        showtimeAvailabilityService.increment(booking.getShowtime().getId(), booking.getSeats().size());
 
         bookingRepository.delete(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.deleted(booking));
     }
 
     @Transactional
@@ -288,8 +340,11 @@ public class BookingService {
             throw new RuntimeException("Cannot scan cancelled booking");
         }
 
+        BookingChangedEvent.State before = BookingChangedEvent.State.of(booking);
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
-        return mapToResponse(bookingRepository.save(booking));
+        Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.updated(savedBooking, before));
+        return mapToResponse(savedBooking);
     }
 
     @Transactional
@@ -301,47 +356,46 @@ public class BookingService {
             throw new RuntimeException("Cannot reassign seats for cancelled booking");
         }
 
-        List<Seat> showtimeSeats = seatRepository.findByShowtimeId(booking.getShowtime().getId());
-        
-        for (String seatId : booking.getSeats()) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(false);
-                seatRepository.save(seat);
-            }
+        String showtimeId = booking.getShowtime().getId();
+        BookingChangedEvent.State before = BookingChangedEvent.State.of(booking);
+        List<String> previousSeats = List.copyOf(booking.getSeats());
+        List<String> addedSeats = newSeats.stream()
+                .filter(seatId -> !previousSeats.contains(seatId))
+                .toList();
+        if (!addedSeats.isEmpty()) {
+            seatInventoryService.bookSeats(showtimeId, addedSeats, null);
         }
 
-        for (String seatId : newSeats) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Seat not found: " + seatId));
-            if (seat.getIsBooked()) {
-                throw new RuntimeException("Seat " + seat.getRow() + seat.getNumber() + " is already booked");
-            }
+        seatRepository.markAvailable(showtimeId, previousSeats);
+        seatTemplateService.ensureSeatRows(showtimeId, newSeats);
+        seatRepository.markBooked(showtimeId, newSeats);
+        seatTemplateService.deleteFreeSeatRows(previousSeats);
+        int seatDifference = newSeats.size() - previousSeats.size();
+        if (seatDifference > 0) {
+            showtimeAvailabilityService.decrement(showtimeId, seatDifference);
+        } else if (seatDifference < 0) {
+            showtimeAvailabilityService.increment(showtimeId, -seatDifference);
         }
+        seatInventoryService.evict(showtimeId);
+        booking.setSeats(newSeats);
 
-        Showtime showtime = booking.getShowtime();
-        int seatDifference = newSeats.size() - booking.getSeats().size();
-        showtime.setAvailableSeats(showtime.getAvailableSeats() - seatDifference);
-        showtimeRepository.save(showtime);
+        Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.updated(savedBooking, before));
+        return mapToResponse(savedBooking);
+    }
 
-        booking.setSeats(newSeats);
-        for (String seatId : newSeats) {
-            Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setIsBooked(true);
-                seatRepository.save(seat);
-            }
+    /**
+     * Books the seats with one conditional UPDATE and decrements the showtime's availability in
+     * the same transaction. A short count means another buyer got there first, so the whole
+     * booking is rolled back.
+     */
+    private void claimSeats(String showtimeId, List<String> seatIds, String sessionId) {
+        seatTemplateService.ensureSeatRows(showtimeId, seatIds);
+        int claimed = seatRepository.claimSeats(showtimeId, seatIds, sessionId, LocalDateTime.now());
+        if (claimed != seatIds.size()) {
+            throw new RuntimeException("One or more selected seats are no longer available");
         }
-
-        return mapToResponse(bookingRepository.save(booking));
+        showtimeAvailabilityService.decrement(showtimeId, claimed);
     }
 
     private String getScreenName(String screenId) {
@@ -353,7 +407,54 @@ public class BookingService {
                 .orElse(screenId);
     }
 
+    // Resolves the names of screens missing from pre-snapshot bookings with one query for the whole list
+    private List<BookingResponse> mapToResponses(List<Booking> bookings) {
+        Set<String> unnamedScreens = bookings.stream()
+                .filter(booking -> booking.getScreenName() == null)
+                .map(booking -> booking.getShowtime().getScreen())
+                .filter(screenId -> screenId != null && !screenId.isEmpty())
+                .collect(Collectors.toSet());
+        Map<String, String> screenNames = new HashMap<>();
+        if (!unnamedScreens.isEmpty()) {
+            screenRepository.findAllById(unnamedScreens).forEach(screen -> screenNames.put(screen.getId(), screen.getName()));
+        }
+
+        return bookings.stream()
+                .map(booking -> {
+                    String screenName = booking.getScreenName();
+                    if (screenName == null) {
+                        String screenId = booking.getShowtime().getScreen();
+                        screenName = screenId == null || screenId.isEmpty() ? "Screen" : screenNames.getOrDefault(screenId, screenId);
+                    }
+                    return mapToResponse(booking, screenName);
+                })
+                .collect(Collectors.toList());
+    }
+
     private BookingResponse mapToResponse(Booking booking) {
+        String screenName = booking.getScreenName() != null ? booking.getScreenName() : getScreenName(booking.getShowtime().getScreen());
+        return mapToResponse(booking, screenName);
+    }
+
+    private record BookingCursor(LocalDateTime bookingDate, String id) {
+
+        private String encode() {
+            String raw = bookingDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static BookingCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new BookingCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid booking cursor");
+            }
+        }
+    }
+
+    private BookingResponse mapToResponse(Booking booking, String screenName) {
         Showtime showtime = booking.getShowtime();
         Movie movie = showtime.getMovie();
         Theater theater = showtime.getTheater();
@@ -369,7 +470,7 @@ public class BookingService {
                 .theaterLocation(theater != null ? Objects.requireNonNullElse(theater.getLocation(), "") : "")
                 .showtimeId(Objects.requireNonNullElse(showtime.getId(), ""))
                 .showtime(showtime.getShowDateTime())
-                .screen(getScreenName(showtime.getScreen()))
+                .screen(screenName)
                 .ticketPrice(showtime.getTicketPrice())
                 .seats(booking.getSeats())
                 .seatLabels(booking.getSeatLabels())
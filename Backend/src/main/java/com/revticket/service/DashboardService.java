@@ -2,10 +2,18 @@ package com.revticket.service;
 
 import com.revticket.dto.DashboardStatsDTO;
 import com.revticket.entity.Booking;
+import com.revticket.event.BookingChangedEvent;
 import com.revticket.repository.BookingRepository;
 import com.revticket.repository.MovieRepository;
 import com.revticket.repository.UserRepository;
+import com.revticket.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,9 +21,21 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
+/**
+ * Dashboard statistics kept as in-memory counters.
+ *
+ * Booking changes, retention purges included, arrive as {@link BookingChangedEvent}s; movie and
+ * user code reports its changes through the methods below. Each change is applied once its
+ * transaction commits, so reading the dashboard never touches the database. The counters are
+ * rebuilt from aggregate queries at startup and periodically, which corrects any drift from
+ * paths that do not report (manual SQL). Changes are pushed to /topic/admin/dashboard,
+ * coalesced to at most one message per push interval.
+ */
 @Service
 public class DashboardService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
     @Autowired
     private MovieRepository movieRepository;
 
@@ -25,29 +45,21 @@ public class DashboardService {
     @Autowired
     private UserRepository userRepository;
 
-    @Transactional(readOnly = true)
-    public DashboardStatsDTO getDashboardStats() {
-        Long totalMovies = movieRepository.count();
-        Long totalBookings = bookingRepository.count();
-        Long totalUsers = userRepository.count();
-
-        Double totalRevenue = bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.CONFIRMED)
-                .mapToDouble(Booking::getTotalAmount)
-                .sum();
-
-        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-        LocalDateTime todayEnd = LocalDate.now().atTime(LocalTime.MAX);
-        Long todayBookings = bookingRepository.countByDateRange(todayStart, todayEnd);
-
-        Long cancelledBookings = bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.CANCELLED)
-                .count();
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
 
-        Long activeMovies = movieRepository.findAll().stream()
-                .filter(m -> m.getIsActive() != null && m.getIsActive())
-                .count();
+    private long totalMovies;
+    private long activeMovies;
+    private long totalBookings;
+    private long cancelledBookings;
+    private double totalRevenue;
+    private long totalUsers;
+    private LocalDate today = LocalDate.now();
+    private long todayBookings;
+    private boolean changed;
 
+    public synchronized DashboardStatsDTO getDashboardStats() {
+        rollDay();
         return DashboardStatsDTO.builder()
                 .totalMovies(totalMovies)
                 .totalBookings(totalBookings)
@@ -58,4 +70,150 @@ public class DashboardService {
                 .activeMovies(activeMovies)
                 .build();
     }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        for (BookingChangedEvent.Change change : event.getChanges()) {
+            Booking booking = change.getBooking();
+            if (change.getBefore() == null) {
+                bookingCreated(change.getAfter().getStatus(), booking.getTotalAmount());
+            } else if (change.getAfter() == null) {
+                bookingDeleted(change.getBefore().getStatus(), booking.getTotalAmount(), booking.getBookingDate());
+            } else {
+                bookingStatusChanged(change.getBefore().getStatus(), change.getAfter().getStatus(), booking.getTotalAmount());
+            }
+        }
+    }
+
+    private void bookingCreated(Booking.BookingStatus status, Double amount) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                rollDay();
+                totalBookings++;
+                todayBookings++;
+                applyStatus(status, amount, 1);
+                changed = true;
+            }
+        });
+    }
+
+    private void bookingStatusChanged(Booking.BookingStatus from, Booking.BookingStatus to, Double amount) {
+        if (from == to) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                applyStatus(from, amount, -1);
+                applyStatus(to, amount, 1);
+                changed = true;
+            }
+        });
+    }
+
+    private void bookingDeleted(Booking.BookingStatus status, Double amount, LocalDateTime bookingDate) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                rollDay();
+                totalBookings--;
+                if (bookingDate != null && bookingDate.toLocalDate().equals(today)) {
+                    todayBookings--;
+                }
+                applyStatus(status, amount, -1);
+                changed = true;
+            }
+        });
+    }
+
+    public void movieCreated(boolean active) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                totalMovies++;
+                activeMovies += active ? 1 : 0;
+                changed = true;
+            }
+        });
+    }
+
+    public void movieActiveChanged(boolean wasActive, boolean active) {
+        if (wasActive == active) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                activeMovies += active ? 1 : -1;
+                changed = true;
+            }
+        });
+    }
+
+    public void userCountChanged(int delta) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                totalUsers += delta;
+                changed = true;
+            }
+        });
+    }
+
+    /**
+     * Rebuilds every counter from aggregate queries. An event that commits while the queries
+     * run may be counted twice or not at all until the next reconciliation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.dashboard.reconcile-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        LocalDate day = LocalDate.now();
+        long movies = movieRepository.count();
+        long active = movieRepository.countByIsActiveTrue();
+        long bookings = bookingRepository.count();
+        long cancelled = bookingRepository.countByStatus(Booking.BookingStatus.CANCELLED);
+        double revenue = bookingRepository.sumConfirmedRevenue();
+        long users = userRepository.count();
+        long todayCount = bookingRepository.countByDateRange(day.atStartOfDay(), day.atTime(LocalTime.MAX));
+
+        synchronized (this) {
+            totalMovies = movies;
+            activeMovies = active;
+            totalBookings = bookings;
+            cancelledBookings = cancelled;
+            totalRevenue = revenue;
+            totalUsers = users;
+            today = day;
+            todayBookings = todayCount;
+            changed = true;
+        }
+        logger.debug("Dashboard counters reconciled: {} bookings, {} users, {} movies", bookings, users, movies);
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.push-interval-ms:1000}")
+    public void pushIfChanged() {
+        DashboardStatsDTO stats;
+        synchronized (this) {
+            if (!changed) {
+                return;
+            }
+            changed = false;
+            stats = getDashboardStats();
+        }
+        messagingTemplate.convertAndSend("/topic/admin/dashboard", stats);
+    }
+
+    private void applyStatus(Booking.BookingStatus status, Double amount, int sign) {
+        if (status == Booking.BookingStatus.CONFIRMED) {
+            totalRevenue += sign * (amount != null ? amount : 0.0);
+        } else if (status == Booking.BookingStatus.CANCELLED) {
+            cancelledBookings += sign;
+        }
+    }
+
+    private void rollDay() {
+        LocalDate now = LocalDate.now();
+        if (!now.equals(today)) {
+            today = now;
+            todayBookings = 0;
+            changed = true;
+        }
+    }
 }
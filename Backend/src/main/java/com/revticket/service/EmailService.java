@@ -4,16 +4,16 @@ import com.revticket.entity.Booking;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private MailDispatcher mailDispatcher;
 
     @Value("${app.frontend.url:http://localhost:4200}")
     private String frontendUrl;
@@ -33,7 +33,7 @@ public class EmailService {
         message.setSubject("RevTicket - Password Reset Request");
         message.setText(buildResetEmailBody(resetUrl));
         
-        mailSender.send(message);
+        mailDispatcher.send(message);
     }
 
     private String buildResetEmailBody(String resetUrl) {
@@ -47,22 +47,22 @@ public class EmailService {
                "RevTicket Team";
     }
 
-    public void sendBookingConfirmation(Booking booking) {
+    public CompletableFuture<Void> sendBookingConfirmation(Booking booking) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(fromEmail);
         message.setTo(booking.getCustomerEmail());
         message.setSubject("Booking Confirmed - " + booking.getShowtime().getMovie().getTitle());
         message.setText(buildBookingConfirmationBody(booking));
-        mailSender.send(message);
+        return mailDispatcher.sendTracked(message);
     }
 
-    public void sendCancellationConfirmation(Booking booking) {
+    public CompletableFuture<Void> sendCancellationConfirmation(Booking booking) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(fromEmail);
         message.setTo(booking.getCustomerEmail());
         message.setSubject("Booking Cancelled - " + booking.getShowtime().getMovie().getTitle());
         message.setText(buildCancellationBody(booking));
-        mailSender.send(message);
+        return mailDispatcher.sendTracked(message);
     }
 
     private String buildBookingConfirmationBody(Booking booking) {
@@ -111,10 +111,10 @@ public class EmailService {
                        "Name: " + userName + "\n" +
                        "Email: " + userEmail + "\n\n" +
                        "Login to admin panel to view details.");
-        mailSender.send(message);
+        mailDispatcher.sendAdminNotification(message);
     }
 
-    public void sendAdminNewBookingNotification(Booking booking) {
+    public CompletableFuture<Void> sendAdminNewBookingNotification(Booking booking) {
         String adminEmail = settingsService.getSetting("siteEmail");
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
         String showtime = booking.getShowtime().getShowDateTime().format(formatter);
@@ -136,10 +136,10 @@ public class EmailService {
                        "Seats: " + seats + "\n" +
                        "Amount: ₹" + booking.getTotalAmount() + "\n\n" +
                        "Login to admin panel to view details.");
-        mailSender.send(message);
+        return mailDispatcher.sendAdminNotificationTracked(message);
     }
 
-    public void sendAdminCancellationRequestNotification(Booking booking, String reason) {
+    public CompletableFuture<Void> sendAdminCancellationRequestNotification(Booking booking, String reason) {
         String adminEmail = settingsService.getSetting("siteEmail");
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(fromEmail);
@@ -151,6 +151,6 @@ public class EmailService {
                        "Movie: " + booking.getShowtime().getMovie().getTitle() + "\n" +
                        "Reason: " + reason + "\n\n" +
                        "Login to admin panel to approve/reject.");
-        mailSender.send(message);
+        return mailDispatcher.sendAdminNotificationTracked(message);
     }
 }
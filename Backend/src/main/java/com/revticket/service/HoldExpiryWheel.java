@@ -0,0 +1,86 @@
+package com.revticket.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel of seat-hold deadlines.
+ *
+ * A deadline is filed under the slot of its tick; advancing the wheel only visits the slots that
+ * were passed since the previous call, so the sweeper never scans seats that are not due. Entries
+ * for a later revolution share a slot and are simply left in place until their tick comes round.
+ */
+public class HoldExpiryWheel {
+
+    private final long tickMillis;
+    private final List<Entry>[] slots;
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HoldExpiryWheel(long tickMillis, int slotCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new List[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new LinkedList<>();
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public synchronized void schedule(String showtimeId, String seatId, long deadline) {
+        long deadlineTick = Math.max((deadline + tickMillis - 1) / tickMillis, currentTick + 1);
+        slots[(int) (deadlineTick % slots.length)].add(new Entry(showtimeId, seatId, deadline, deadlineTick));
+    }
+
+    /**
+     * Moves the wheel up to now and returns every entry that fell due. Entries may be stale (the
+     * hold was released or extended since it was scheduled), so callers re-check the seat.
+     */
+    public synchronized List<Entry> advance(long now) {
+        List<Entry> due = new ArrayList<>();
+        long targetTick = now / tickMillis;
+        if (targetTick <= currentTick) {
+            return due;
+        }
+        long steps = Math.min(targetTick - currentTick, slots.length);
+        for (long step = 1; step <= steps; step++) {
+            Iterator<Entry> it = slots[(int) ((currentTick + step) % slots.length)].iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.deadlineTick <= targetTick) {
+                    due.add(entry);
+                    it.remove();
+                }
+            }
+        }
+        currentTick = targetTick;
+        return due;
+    }
+
+    public static final class Entry {
+        private final String showtimeId;
+        private final String seatId;
+        private final long deadline;
+        private final long deadlineTick;
+
+        private Entry(String showtimeId, String seatId, long deadline, long deadlineTick) {
+            this.showtimeId = showtimeId;
+            this.seatId = seatId;
+            this.deadline = deadline;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public String getShowtimeId() {
+            return showtimeId;
+        }
+
+        public String getSeatId() {
+            return seatId;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.revticket.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates retried requests that carry the same idempotency key.
+ *
+ * The first request for a key runs the action; concurrent duplicates wait for its result instead
+ * of running it again, and later duplicates get the stored result until it expires. Failures are
+ * not stored, so a request that failed can be retried with the same key.
+ */
+@Service
+public class IdempotencyService {
+
+    @Value("${app.idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the action once per (scope, key). The fingerprint identifies the request body; reusing
+     * a key for a different request is rejected.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String key, Object fingerprint, Supplier<T> action) {
+        String entryKey = scope + ":" + key;
+        int fingerprintHash = Objects.hashCode(fingerprint);
+        Entry entry = new Entry(fingerprintHash);
+        Entry existing = entries.putIfAbsent(entryKey, entry);
+
+        if (existing != null) {
+            if (existing.fingerprint != fingerprintHash) {
+                throw new RuntimeException("Idempotency-Key was already used for a different request");
+            }
+            return (T) await(existing);
+        }
+
+        if (entries.size() > maxEntries) {
+            trim();
+        }
+        try {
+            T result = action.get();
+            entry.completedAt = System.currentTimeMillis();
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(entryKey, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMinutes * 60_000L;
+        entries.values().removeIf(entry -> entry.completedAt != 0 && entry.completedAt < cutoff);
+    }
+
+    private Object await(Entry entry) {
+        try {
+            return entry.result.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a duplicate request");
+        }
+    }
+
+    // Drops expired entries, then the oldest completed ones, until the store is back under its cap.
+    private void trim() {
+        evictExpired();
+        int excess = entries.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        entries.entrySet().stream()
+                .filter(e -> e.getValue().completedAt != 0)
+                .sorted(Comparator.comparingLong(e -> e.getValue().completedAt))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(entries::remove);
+    }
+
+    private static final class Entry {
+        private final int fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private Entry(int fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
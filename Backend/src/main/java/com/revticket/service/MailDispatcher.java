@@ -0,0 +1,457 @@
+package com.revticket.service;
+
+import com.revticket.dto.MailDeadLetter;
+import com.revticket.dto.MailDispatchStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends outgoing mail in the background.
+ *
+ * Messages go into a bounded queue; a small pool of workers drains it in batches and hands each
+ * batch to {@link JavaMailSender#send(SimpleMailMessage...)}, which delivers the whole batch over
+ * one SMTP connection. Each recipient is limited to a number of messages per minute (excess
+ * messages are deferred, not dropped). Failed messages are retried with exponential backoff and
+ * dead-lettered after the last attempt. Admin notifications can be collected into a periodic
+ * digest instead of one message each.
+ *
+ * Tracked messages ({@link #sendTracked}) report their outcome through a future that completes
+ * once the SMTP server has accepted the message, or fails when the queue is full or the last
+ * attempt failed. They are not dead-lettered here: their owner (the outbox) keeps them durable,
+ * retries them and records permanent failures. Untracked messages live only in memory.
+ */
+@Service
+public class MailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private static final long RATE_WINDOW_MILLIS = 60_000;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.mail.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${app.mail.workers:2}")
+    private int workers;
+
+    @Value("${app.mail.batch-size:25}")
+    private int batchSize;
+
+    @Value("${app.mail.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${app.mail.retry-base-seconds:15}")
+    private long retryBaseSeconds;
+
+    @Value("${app.mail.rate-limit.per-recipient-per-minute:20}")
+    private int perRecipientPerMinute;
+
+    @Value("${app.mail.dead-letter-capacity:500}")
+    private int deadLetterCapacity;
+
+    @Value("${app.mail.admin-digest.enabled:false}")
+    private boolean adminDigestEnabled;
+
+    private BlockingQueue<OutgoingMail> queue;
+    private ExecutorService workerPool;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running = true;
+
+    private final Map<String, RecipientWindow> recipientWindows = new ConcurrentHashMap<>();
+    private final Deque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+    private final Queue<OutgoingMail> pendingDigest = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduledRetries = new AtomicInteger();
+
+    private Timer sendLatency;
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private Counter deadLetterCounter;
+    private Counter rateLimitedCounter;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        retryScheduler = new ScheduledThreadPoolExecutor(1, daemonThreads("mail-retry"));
+
+        Gauge.builder("mail.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("mail.retry.scheduled", scheduledRetries, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("mail.dead.letters", deadLetters, Deque::size).register(meterRegistry);
+        sendLatency = Timer.builder("mail.send.latency")
+                .description("Time to deliver one batch over a single SMTP connection")
+                .register(meterRegistry);
+        sentCounter = meterRegistry.counter("mail.sent");
+        failedCounter = meterRegistry.counter("mail.failed");
+        deadLetterCounter = meterRegistry.counter("mail.dead.lettered");
+        rateLimitedCounter = meterRegistry.counter("mail.rate.limited");
+
+        workerPool = Executors.newFixedThreadPool(workers, daemonThreads("mail-worker"));
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::drainQueue);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workerPool.shutdownNow();
+        retryScheduler.shutdownNow();
+        if (!queue.isEmpty()) {
+            // Tracked messages stay pending in the outbox and are sent again after the next start
+            logger.warn("Mail dispatcher stopped with {} queued messages", queue.size());
+        }
+    }
+
+    /**
+     * Queues a message for delivery. Throws if the queue is full so the caller can retry later.
+     */
+    public void send(SimpleMailMessage message) {
+        enqueue(new OutgoingMail(message, List.of()));
+    }
+
+    /**
+     * Queues a message and returns a future that completes once the SMTP server accepted it.
+     */
+    public CompletableFuture<Void> sendTracked(SimpleMailMessage message) {
+        CompletableFuture<Void> delivery = new CompletableFuture<>();
+        enqueue(new OutgoingMail(message, List.of(delivery)));
+        return delivery;
+    }
+
+    /**
+     * Queues a notification for the site admin, or holds it for the next digest when digests
+     * are enabled.
+     */
+    public void sendAdminNotification(SimpleMailMessage message) {
+        enqueueAdmin(new OutgoingMail(message, List.of()));
+    }
+
+    /**
+     * Like {@link #sendAdminNotification}; a digest completes the futures of all its notifications.
+     */
+    public CompletableFuture<Void> sendAdminNotificationTracked(SimpleMailMessage message) {
+        CompletableFuture<Void> delivery = new CompletableFuture<>();
+        enqueueAdmin(new OutgoingMail(message, List.of(delivery)));
+        return delivery;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.admin-digest.interval-ms:300000}")
+    public void flushAdminDigest() {
+        List<OutgoingMail> drained = new ArrayList<>();
+        OutgoingMail next;
+        while ((next = pendingDigest.poll()) != null) {
+            drained.add(next);
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        // Tracked and untracked notifications get separate digests, so a failed digest is either
+        // handed back to its owners or dead-lettered as a whole
+        Map<DigestKey, List<OutgoingMail>> byRecipient = new LinkedHashMap<>();
+        for (OutgoingMail mail : drained) {
+            DigestKey key = new DigestKey(recipientOf(mail.message), !mail.owners.isEmpty());
+            byRecipient.computeIfAbsent(key, k -> new ArrayList<>()).add(mail);
+        }
+        byRecipient.forEach((key, mails) -> {
+            try {
+                enqueue(mails.size() == 1 ? mails.get(0) : buildDigest(mails));
+            } catch (RuntimeException e) {
+                // Keep the notifications for the next flush rather than losing them
+                pendingDigest.addAll(mails);
+                logger.warn("Admin digest for {} deferred: {}", key.recipient(), e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelay = 300_000)
+    public void evictIdleRateWindows() {
+        long cutoff = System.currentTimeMillis() - RATE_WINDOW_MILLIS;
+        recipientWindows.values().removeIf(window -> window.startedAt < cutoff);
+    }
+
+    public MailDispatchStatus getStatus() {
+        return MailDispatchStatus.builder()
+                .queueDepth(queue.size())
+                .queueCapacity(queueCapacity)
+                .scheduledRetries(scheduledRetries.get())
+                .pendingDigestNotifications(pendingDigest.size())
+                .deadLetters(deadLetters.size())
+                .sent((long) sentCounter.count())
+                .failedAttempts((long) failedCounter.count())
+                .rateLimited((long) rateLimitedCounter.count())
+                .build();
+    }
+
+    public List<MailDeadLetter> getDeadLetters() {
+        List<MailDeadLetter> result = new ArrayList<>();
+        for (DeadLetter deadLetter : deadLetters) {
+            result.add(MailDeadLetter.builder()
+                    .recipient(recipientOf(deadLetter.mail.message))
+                    .subject(deadLetter.mail.message.getSubject())
+                    .attempts(deadLetter.mail.attempts)
+                    .error(deadLetter.error)
+                    .failedAt(deadLetter.failedAt)
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * Puts every dead-lettered message back on the queue with a fresh attempt budget.
+     */
+    public int retryDeadLetters() {
+        int requeued = 0;
+        DeadLetter deadLetter;
+        while ((deadLetter = deadLetters.poll()) != null) {
+            OutgoingMail mail = deadLetter.mail;
+            mail.attempts = 0;
+            if (!queue.offer(mail)) {
+                deadLetters.addFirst(deadLetter);
+                break;
+            }
+            requeued++;
+        }
+        return requeued;
+    }
+
+    private void enqueue(OutgoingMail mail) {
+        if (!queue.offer(mail)) {
+            throw new RuntimeException("Mail queue is full");
+        }
+    }
+
+    private void enqueueAdmin(OutgoingMail mail) {
+        if (adminDigestEnabled) {
+            pendingDigest.add(mail);
+        } else {
+            enqueue(mail);
+        }
+    }
+
+    private void drainQueue() {
+        List<OutgoingMail> batch = new ArrayList<>(batchSize);
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Mail worker failed on a batch of {} messages", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<OutgoingMail> batch) {
+        Map<SimpleMailMessage, OutgoingMail> sendable = new IdentityHashMap<>();
+        for (OutgoingMail mail : batch) {
+            long waitMillis = acquire(recipientOf(mail.message));
+            if (waitMillis > 0) {
+                rateLimitedCounter.increment();
+                schedule(mail, waitMillis);
+            } else {
+                sendable.put(mail.message, mail);
+            }
+        }
+        if (sendable.isEmpty()) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Set<Object> failed;
+        MailException failure = null;
+        try {
+            mailSender.send(sendable.keySet().toArray(new SimpleMailMessage[0]));
+            failed = Collections.emptySet();
+        } catch (MailSendException e) {
+            failure = e;
+            // Per-message failures are keyed by the original message; an empty map means nothing was sent
+            failed = e.getFailedMessages().isEmpty() ? Set.copyOf(sendable.keySet()) : e.getFailedMessages().keySet();
+        } catch (MailException e) {
+            failure = e;
+            failed = Set.copyOf(sendable.keySet());
+        } finally {
+            sample.stop(sendLatency);
+        }
+
+        for (Map.Entry<SimpleMailMessage, OutgoingMail> entry : sendable.entrySet()) {
+            if (failed.contains(entry.getKey())) {
+                retryOrDeadLetter(entry.getValue(), failure);
+            } else {
+                sentCounter.increment();
+                entry.getValue().owners.forEach(delivery -> delivery.complete(null));
+            }
+        }
+    }
+
+    private void retryOrDeadLetter(OutgoingMail mail, MailException failure) {
+        failedCounter.increment();
+        mail.attempts++;
+        String error = failure != null ? failure.getMessage() : "Unknown failure";
+        if (mail.attempts >= maxAttempts) {
+            giveUp(mail, error);
+            return;
+        }
+        long delaySeconds = retryBaseSeconds << Math.min(mail.attempts - 1, 10);
+        logger.warn("Mail to {} failed (attempt {}), retrying in {}s: {}",
+                recipientOf(mail.message), mail.attempts, delaySeconds, error);
+        schedule(mail, TimeUnit.SECONDS.toMillis(delaySeconds));
+    }
+
+    private void schedule(OutgoingMail mail, long delayMillis) {
+        scheduledRetries.incrementAndGet();
+        retryScheduler.schedule(() -> {
+            scheduledRetries.decrementAndGet();
+            if (!queue.offer(mail)) {
+                giveUp(mail, "Mail queue was full when the retry was due");
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void giveUp(OutgoingMail mail, String error) {
+        if (mail.owners.isEmpty()) {
+            deadLetter(mail, error);
+            return;
+        }
+        logger.error("Mail to {} ('{}') failed after {} attempts, returning it to its sender: {}",
+                recipientOf(mail.message), mail.message.getSubject(), mail.attempts, error);
+        MailSendException failure = new MailSendException(error);
+        mail.owners.forEach(delivery -> delivery.completeExceptionally(failure));
+    }
+
+    private void deadLetter(OutgoingMail mail, String error) {
+        deadLetterCounter.increment();
+        deadLetters.addLast(new DeadLetter(mail, error, LocalDateTime.now()));
+        while (deadLetters.size() > deadLetterCapacity) {
+            deadLetters.pollFirst();
+        }
+        logger.error("Mail to {} ('{}') dead-lettered after {} attempts: {}",
+                recipientOf(mail.message), mail.message.getSubject(), mail.attempts, error);
+    }
+
+    // Returns 0 if the recipient may be sent to now, otherwise how long to wait for the next window
+    private long acquire(String recipient) {
+        long now = System.currentTimeMillis();
+        RecipientWindow window = recipientWindows.computeIfAbsent(recipient, k -> new RecipientWindow(now));
+        synchronized (window) {
+            if (now - window.startedAt >= RATE_WINDOW_MILLIS) {
+                window.startedAt = now;
+                window.count = 0;
+            }
+            if (window.count < perRecipientPerMinute) {
+                window.count++;
+                return 0;
+            }
+            return window.startedAt + RATE_WINDOW_MILLIS - now;
+        }
+    }
+
+    private OutgoingMail buildDigest(List<OutgoingMail> mails) {
+        List<SimpleMailMessage> messages = new ArrayList<>(mails.size());
+        List<CompletableFuture<Void>> owners = new ArrayList<>();
+        for (OutgoingMail mail : mails) {
+            messages.add(mail.message);
+            owners.addAll(mail.owners);
+        }
+        StringBuilder text = new StringBuilder();
+        text.append(messages.size()).append(" notifications since the last digest:\n\n");
+        for (SimpleMailMessage message : messages) {
+            text.append("== ").append(message.getSubject()).append(" ==\n")
+                    .append(message.getText()).append("\n\n");
+        }
+        SimpleMailMessage digest = new SimpleMailMessage();
+        digest.setFrom(messages.get(0).getFrom());
+        digest.setTo(messages.get(0).getTo());
+        digest.setSubject("RevTicket Admin Digest - " + messages.size() + " notifications");
+        digest.setText(text.toString());
+        return new OutgoingMail(digest, owners);
+    }
+
+    private static String recipientOf(SimpleMailMessage message) {
+        String[] to = message.getTo();
+        return to == null || to.length == 0 ? "" : to[0].toLowerCase(Locale.ROOT);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class OutgoingMail {
+        private final SimpleMailMessage message;
+        // Completed when the message is accepted by the SMTP server; empty for untracked mail
+        private final List<CompletableFuture<Void>> owners;
+        private volatile int attempts;
+
+        private OutgoingMail(SimpleMailMessage message, List<CompletableFuture<Void>> owners) {
+            this.message = message;
+            this.owners = owners;
+        }
+    }
+
+    private record DigestKey(String recipient, boolean tracked) {
+    }
+
+    private record DeadLetter(OutgoingMail mail, String error, LocalDateTime failedAt) {
+    }
+
+    private static final class RecipientWindow {
+        private long startedAt;
+        private int count;
+
+        private RecipientWindow(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+}
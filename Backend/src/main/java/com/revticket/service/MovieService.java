@@ -3,8 +3,9 @@ package com.revticket.service;
 import com.revticket.dto.MovieDTO;
 import com.revticket.dto.MovieRequest;
 import com.revticket.entity.Movie;
+import com.revticket.entity.MovieStatistics;
 import com.revticket.repository.MovieRepository;
-import com.revticket.repository.MongoReviewRepository;
+import com.revticket.repository.MovieStatisticsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -20,7 +21,13 @@ public class MovieService {
     private MovieRepository movieRepository;
 
     @Autowired
-    private MongoReviewRepository reviewRepository;
+    private MovieStatisticsRepository movieStatisticsRepository;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ShowtimeListingCache showtimeListingCache;
 
     public List<Movie> getAllMovies() {
         return movieRepository.findByIsActiveTrue();
@@ -34,20 +41,20 @@ public class MovieService {
     }
 
     public List<MovieDTO> getAllMoviesForAdmin() {
-        return movieRepository.findAll().stream()
-                .map(this::convertToDTO)
+        return movieRepository.findAllWithStatistics().stream()
+                .map(row -> convertToDTO(row.getMovie(), row.getStatistics()))
                 .collect(Collectors.toList());
     }
 
     public List<MovieDTO> getActiveMovies() {
-        return movieRepository.findByIsActiveTrue().stream()
-                .map(this::convertToDTO)
+        return movieRepository.findActiveWithStatistics().stream()
+                .map(row -> convertToDTO(row.getMovie(), row.getStatistics()))
                 .collect(Collectors.toList());
     }
 
     public Optional<MovieDTO> getMovieById(String id) {
-        return movieRepository.findById(Objects.requireNonNullElse(id, ""))
-                .map(this::convertToDTO);
+        return movieRepository.findWithStatisticsById(Objects.requireNonNullElse(id, ""))
+                .map(row -> convertToDTO(row.getMovie(), row.getStatistics()));
     }
 
     public MovieDTO createMovie(MovieRequest request) {
@@ -64,7 +71,8 @@ public class MovieService {
         movie.setLanguage(request.getLanguage());
         movie.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
         Movie saved = movieRepository.save(movie);
-        return convertToDTO(saved);
+        dashboardService.movieCreated(Boolean.TRUE.equals(saved.getIsActive()));
+        return convertToDTO(saved, null);
     }
 
     public MovieDTO updateMovie(String id, MovieRequest request) {
@@ -82,26 +90,32 @@ public class MovieService {
         movie.setTrailerUrl(request.getTrailerUrl());
         movie.setLanguage(request.getLanguage());
         if (request.getIsActive() != null) {
+            dashboardService.movieActiveChanged(Boolean.TRUE.equals(movie.getIsActive()), request.getIsActive());
             movie.setIsActive(request.getIsActive());
         }
 
         Movie saved = movieRepository.save(movie);
-        return convertToDTO(saved);
+        showtimeListingCache.invalidateMovie(saved.getId());
+        return convertToDTO(saved, movieStatisticsRepository.findById(saved.getId()).orElse(null));
     }
 
     public MovieDTO toggleMovieStatus(String id) {
         Movie movie = movieRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Movie not found"));
+        dashboardService.movieActiveChanged(movie.getIsActive(), !movie.getIsActive());
         movie.setIsActive(!movie.getIsActive());
         Movie saved = movieRepository.save(movie);
-        return convertToDTO(saved);
+        showtimeListingCache.invalidateMovie(saved.getId());
+        return convertToDTO(saved, movieStatisticsRepository.findById(saved.getId()).orElse(null));
     }
 
     public void deleteMovie(String id) {
         Movie movie = movieRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Movie not found"));
+        dashboardService.movieActiveChanged(Boolean.TRUE.equals(movie.getIsActive()), false);
         movie.setIsActive(false);
         movieRepository.save(movie);
+        showtimeListingCache.invalidateMovie(movie.getId());
     }
 
     public List<String> getAllGenres() {
@@ -121,14 +135,14 @@ public class MovieService {
                 .collect(Collectors.toList());
     }
 
-    private MovieDTO convertToDTO(Movie movie) {
+    private MovieDTO convertToDTO(Movie movie, MovieStatistics statistics) {
         MovieDTO dto = new MovieDTO();
         dto.setId(movie.getId());
         dto.setTitle(movie.getTitle());
         dto.setDescription(movie.getDescription());
         dto.setGenre(movie.getGenre());
         dto.setDuration(movie.getDuration());
-        dto.setRating(calculateDynamicRating(movie.getId()));
+        dto.setRating(statistics != null ? statistics.getAverageRating() : null);
         dto.setDirector(movie.getDirector());
         dto.setCrew(movie.getCrew());
         dto.setReleaseDate(movie.getReleaseDate());
@@ -136,18 +150,8 @@ public class MovieService {
         dto.setTrailerUrl(movie.getTrailerUrl());
         dto.setLanguage(movie.getLanguage());
         dto.setIsActive(movie.getIsActive());
-        dto.setTotalShows(movieRepository.countShowtimesByMovieId(movie.getId()));
-        dto.setTotalBookings(movieRepository.countBookingsByMovieId(movie.getId()));
+        dto.setTotalShows(statistics != null ? Math.toIntExact(statistics.getShowCount()) : 0);
+        dto.setTotalBookings(statistics != null ? Math.toIntExact(statistics.getBookingCount()) : 0);
         return dto;
     }
-
-    private Double calculateDynamicRating(String movieId) {
-        var reviews = reviewRepository.findByMovieIdAndApprovedTrueOrderByCreatedAtDesc(movieId);
-        if (reviews.isEmpty()) return null;
-        return reviews.stream()
-                .mapToInt(review -> review.getRating())
-                .average()
-                .orElse(0.0);
-    }
 }
-
@@ -0,0 +1,214 @@
+package com.revticket.service;
+
+import com.revticket.entity.MongoReview;
+import com.revticket.event.BookingChangedEvent;
+import com.revticket.repository.MovieStatisticsRepository;
+import com.revticket.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Maintains the movie_statistics table: rating sum, count and 1-5 histogram of approved reviews,
+ * and the number of showtimes and bookings of each movie.
+ *
+ * Review, showtime and booking code reports each change through the methods below. Changes are
+ * merged per movie in memory once their transaction commits and written as one upsert per movie
+ * every flush interval, so busy movies do not serialize bookings on their statistics row. The
+ * table is rebuilt from MySQL and Mongo when it is empty at startup and nightly, which corrects
+ * changes lost in a crash and paths that do not report (manual SQL, cascades).
+ */
+@Service
+public class MovieStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieStatisticsService.class);
+
+    @Autowired
+    private MovieStatisticsRepository statisticsRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Guarded by this
+    private Map<String, Delta> pending = new HashMap<>();
+
+    // Serializes flushes with reconciles so a flushed batch never lands on top of a fresh recount
+    private final Object writeLock = new Object();
+
+    public void reviewApproved(String movieId, Integer rating) {
+        record(movieId, delta -> delta.addRating(rating, 1));
+    }
+
+    public void reviewRemoved(String movieId, Integer rating) {
+        record(movieId, delta -> delta.addRating(rating, -1));
+    }
+
+    public void showtimesAdded(String movieId, long count) {
+        record(movieId, delta -> delta.shows += count);
+    }
+
+    public void showtimesRemoved(String movieId, long count) {
+        record(movieId, delta -> delta.shows -= count);
+    }
+
+    public void bookingsAdded(String movieId, long count) {
+        record(movieId, delta -> delta.bookings += count);
+    }
+
+    public void bookingsRemoved(String movieId, long count) {
+        record(movieId, delta -> delta.bookings -= count);
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        for (BookingChangedEvent.Change change : event.getChanges()) {
+            String movieId = change.getBooking().getShowtime().getMovie().getId();
+            if (change.getBefore() == null) {
+                bookingsAdded(movieId, 1);
+            } else if (change.getAfter() == null) {
+                bookingsRemoved(movieId, 1);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.movie-stats.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (writeLock) {
+            Map<String, Delta> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new HashMap<>();
+            }
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                        batch.forEach((movieId, delta) -> statisticsRepository.addDelta(movieId,
+                                delta.ratingSum, delta.ratingCount, delta.histogram[0], delta.histogram[1],
+                                delta.histogram[2], delta.histogram[3], delta.histogram[4],
+                                delta.shows, delta.bookings, now)));
+            } catch (Exception e) {
+                logger.error("Failed to flush statistics of {} movies; retrying next interval", batch.size(), e);
+                synchronized (this) {
+                    batch.forEach((movieId, delta) -> pending.merge(movieId, delta, Delta::merge));
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes every movie's statistics from the showtimes and bookings tables and the approved
+     * reviews. Changes committed while it runs may be counted twice or missed until the next run.
+     */
+    @Scheduled(cron = "${app.movie-stats.reconcile-cron:0 30 4 * * ?}")
+    public void reconcile() {
+        synchronized (writeLock) {
+            synchronized (this) {
+                pending = new HashMap<>();
+            }
+            Map<String, Delta> ratings = loadApprovedRatings();
+            LocalDateTime now = LocalDateTime.now();
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                statisticsRepository.recountShowsAndBookings(now);
+                statisticsRepository.clearRatings();
+                ratings.forEach((movieId, delta) -> statisticsRepository.setRatings(movieId,
+                        delta.ratingSum, delta.ratingCount, delta.histogram[0], delta.histogram[1],
+                        delta.histogram[2], delta.histogram[3], delta.histogram[4], now));
+            });
+            logger.info("Reconciled movie statistics; {} movies have approved reviews", ratings.size());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (statisticsRepository.count() == 0) {
+            reconcile();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Map<String, Delta> loadApprovedRatings() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("approved").is(true)),
+                Aggregation.group("movieId", "rating").count().as("count"));
+        Map<String, Delta> ratings = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, MongoReview.class, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            String movieId = id.getString("movieId");
+            if (movieId == null) {
+                continue;
+            }
+            Integer rating = id.getInteger("rating");
+            long count = ((Number) row.get("count")).longValue();
+            ratings.computeIfAbsent(movieId, key -> new Delta()).addRating(rating, count);
+        }
+        return ratings;
+    }
+
+    private void record(String movieId, Consumer<Delta> change) {
+        if (movieId == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                change.accept(pending.computeIfAbsent(movieId, id -> new Delta()));
+            }
+        });
+    }
+
+    private static final class Delta {
+        private long ratingSum;
+        private long ratingCount;
+        private final long[] histogram = new long[5];
+        private long shows;
+        private long bookings;
+
+        // Ratings outside 1-5 count towards the average but have no histogram bucket
+        private void addRating(Integer rating, long count) {
+            if (rating == null) {
+                return;
+            }
+            ratingSum += rating * count;
+            ratingCount += count;
+            if (rating >= 1 && rating <= 5) {
+                histogram[rating - 1] += count;
+            }
+        }
+
+        private Delta merge(Delta other) {
+            ratingSum += other.ratingSum;
+            ratingCount += other.ratingCount;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            shows += other.shows;
+            bookings += other.bookings;
+            return this;
+        }
+    }
+}
@@ -24,7 +24,6 @@ public class NotificationService {
     @PostConstruct
     public void startChangeStreams() {
         CompletableFuture.runAsync(this::watchReviewChanges);
-        CompletableFuture.runAsync(this::watchBookingChanges);
     }
 
     private void watchReviewChanges() {
@@ -54,30 +53,6 @@ public class NotificationService {
         }
     }
 
-    private void watchBookingChanges() {
-        try {
-            MongoCollection<Document> collection = mongoTemplate.getCollection("bookings");
-            ChangeStreamIterable<Document> changeStream = collection.watch();
-            
-            for (ChangeStreamDocument<Document> change : changeStream) {
-                String operationType = change.getOperationType().getValue();
-                Document fullDocument = change.getFullDocument();
-                
-                if ("insert".equals(operationType) && fullDocument != null) {
-                    // New booking created
-                    messagingTemplate.convertAndSend("/topic/bookings", 
-                        "Seat availability updated");
-                } else if ("update".equals(operationType) && fullDocument != null) {
-                    // Booking status changed
-                    messagingTemplate.convertAndSend("/topic/bookings", 
-                        "Booking status updated");
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error in booking change stream: " + e.getMessage());
-        }
-    }
-
     public void notifyReviewSubmitted(String movieTitle) {
         messagingTemplate.convertAndSend("/topic/admin/reviews", 
             "New review submitted for: " + movieTitle);
@@ -0,0 +1,199 @@
+package com.revticket.service;
+
+import com.revticket.entity.Booking;
+import com.revticket.entity.OutboxEvent;
+import com.revticket.repository.BookingRepository;
+import com.revticket.repository.OutboxEventRepository;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Transactional outbox for booking side effects.
+ *
+ * Booking code calls {@link #publish} inside its own transaction, so an event exists exactly
+ * when the state change committed. The relay later hands each event to its consumers (email,
+ * WebSocket) outside any booking transaction and retries failures with exponential backoff.
+ * Delivery is at-least-once: a consumer may see an event again after a partial failure.
+ *
+ * An event is marked sent only once the SMTP server has accepted all of its mail. While the mail
+ * is queued the event stays pending under a lease (its next attempt is pushed out), so mail lost
+ * in a restart is sent again when the lease runs out.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private SettingsService settingsService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.backoff-base-seconds:5}")
+    private long backoffBaseSeconds;
+
+    @Value("${app.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${app.outbox.delivery-lease-seconds:900}")
+    private long deliveryLeaseSeconds;
+
+    @Transactional
+    public void publish(OutboxEvent.EventType eventType, String aggregateId, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        event.setPayload(payload);
+        event.setNextAttemptAt(LocalDateTime.now());
+        outboxEventRepository.save(event);
+    }
+
+    @Transactional(readOnly = true)
+    public List<OutboxEvent> findDue(int limit) {
+        return outboxEventRepository.findDue(LocalDateTime.now(), PageRequest.of(0, limit));
+    }
+
+    /**
+     * Delivers one event and records the outcome. Never throws; failures are rescheduled. When
+     * mail is still queued the event is leased, and the outcome is recorded once the mail is sent.
+     */
+    public void relay(OutboxEvent event) {
+        CompletableFuture<Void> delivery;
+        try {
+            delivery = dispatch(event);
+        } catch (Exception e) {
+            delivery = CompletableFuture.failedFuture(e);
+        }
+        if (delivery.isDone()) {
+            recordOutcome(event, delivery.handle((ignored, failure) -> failure).join());
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> outboxEventRepository.save(event));
+            return;
+        }
+
+        event.setNextAttemptAt(LocalDateTime.now().plusSeconds(deliveryLeaseSeconds));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> outboxEventRepository.save(event));
+        String eventId = event.getId();
+        delivery.whenComplete((ignored, failure) -> completeDelivery(eventId, failure));
+    }
+
+    @Transactional
+    public int purgeSent(LocalDateTime before) {
+        return outboxEventRepository.deleteSentBefore(before);
+    }
+
+    // Runs on a mail worker thread; skips events a later relay or purge already settled
+    private void completeDelivery(String eventId, Throwable failure) {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    outboxEventRepository.findById(eventId)
+                            .filter(event -> event.getStatus() == OutboxEvent.Status.PENDING)
+                            .ifPresent(event -> recordOutcome(event, failure)));
+        } catch (Exception e) {
+            logger.error("Failed to record delivery of outbox event {}; it is relayed again when its lease ends",
+                    eventId, e);
+        }
+    }
+
+    private void recordOutcome(OutboxEvent event, Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure == null) {
+            event.setStatus(OutboxEvent.Status.SENT);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLastError(null);
+            return;
+        }
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(failure.getMessage()));
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxEvent.Status.FAILED);
+            event.setProcessedAt(LocalDateTime.now());
+            logger.error("Outbox event {} ({}) failed permanently after {} attempts",
+                    event.getId(), event.getEventType(), attempts, failure);
+        } else {
+            long delay = Math.min(backoffBaseSeconds << Math.min(attempts - 1, 20), backoffMaxSeconds);
+            event.setNextAttemptAt(LocalDateTime.now().plusSeconds(delay));
+            logger.warn("Outbox event {} ({}) failed, retrying in {}s: {}",
+                    event.getId(), event.getEventType(), delay, failure.getMessage());
+        }
+    }
+
+    // Completes when every mail of the event has been accepted by the SMTP server
+    private CompletableFuture<Void> dispatch(OutboxEvent event) {
+        Booking booking = loadBooking(event.getAggregateId());
+        if (booking == null) {
+            logger.warn("Outbox event {} refers to missing booking {}", event.getId(), event.getAggregateId());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        messagingTemplate.convertAndSend("/topic/bookings", Map.of(
+                "type", event.getEventType().name(),
+                "bookingId", booking.getId(),
+                "showtimeId", booking.getShowtime().getId()));
+
+        if (!settingsService.areEmailNotificationsEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return switch (event.getEventType()) {
+            case BOOKING_CONFIRMED -> emailService.sendBookingConfirmation(booking);
+            case BOOKING_PAID -> CompletableFuture.allOf(
+                    emailService.sendBookingConfirmation(booking),
+                    emailService.sendAdminNewBookingNotification(booking));
+            case CANCELLATION_REQUESTED -> emailService.sendAdminCancellationRequestNotification(booking, event.getPayload());
+            case BOOKING_CANCELLED -> emailService.sendCancellationConfirmation(booking);
+        };
+    }
+
+    // Loads the booking with everything the consumers read, so no connection is held while they run
+    private Booking loadBooking(String bookingId) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> bookingRepository.findById(bookingId)
+                .map(booking -> {
+                    Hibernate.initialize(booking.getSeats());
+                    Hibernate.initialize(booking.getSeatLabels());
+                    return booking;
+                })
+                .orElse(null));
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -3,9 +3,11 @@ package com.revticket.service;
 import com.revticket.dto.PaymentRequest;
 import com.revticket.entity.Booking;
 import com.revticket.entity.Payment;
+import com.revticket.event.BookingChangedEvent;
 import com.revticket.repository.BookingRepository;
 import com.revticket.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +24,9 @@ public class PaymentService {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public Payment processPayment(PaymentRequest request) {
         Booking booking = bookingRepository.findById(Objects.requireNonNullElse(request.getBookingId(), ""))
@@ -37,9 +42,11 @@ public class PaymentService {
         payment = paymentRepository.save(payment);
 
         // Update booking status
+        BookingChangedEvent.State before = BookingChangedEvent.State.of(booking);
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
         booking.setPaymentId(payment.getId());
         bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.updated(booking, before));
 
         return payment;
     }
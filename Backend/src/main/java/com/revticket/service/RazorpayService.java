@@ -8,9 +8,11 @@ import com.revticket.dto.RazorpayOrderRequest;
 import com.revticket.dto.RazorpayOrderResponse;
 import com.revticket.dto.RazorpayVerificationRequest;
 import com.revticket.entity.Booking;
+import com.revticket.entity.OutboxEvent;
 import com.revticket.entity.Payment;
 import com.revticket.entity.Showtime;
 import com.revticket.entity.User;
+import com.revticket.event.BookingChangedEvent;
 import com.revticket.repository.BookingRepository;
 import com.revticket.repository.PaymentRepository;
 import com.revticket.repository.ShowtimeRepository;
@@ -18,10 +20,13 @@ import com.revticket.repository.UserRepository;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 
 @Service
 public class RazorpayService {
@@ -48,13 +53,22 @@ public class RazorpayService {
     private com.revticket.repository.SeatRepository seatRepository;
 
     @Autowired
-    private SettingsService settingsService;
+    private OutboxService outboxService;
 
     @Autowired
-    private EmailService emailService;
+    private com.revticket.repository.ScreenRepository screenRepository;
 
     @Autowired
-    private com.revticket.repository.ScreenRepository screenRepository;
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatTemplateService seatTemplateService;
+
+    @Autowired
+    private ShowtimeAvailabilityService showtimeAvailabilityService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public RazorpayOrderResponse createOrder(RazorpayOrderRequest request) throws RazorpayException {
         RazorpayClient razorpayClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
@@ -87,6 +101,16 @@ public class RazorpayService {
             throw new RuntimeException("Invalid payment signature");
         }
 
+        // A retry of an already recorded payment returns the booking it created
+        Optional<Payment> existingPayment = paymentRepository.findByTransactionId(request.getRazorpayPaymentId());
+        if (existingPayment.isPresent()) {
+            Booking existing = existingPayment.get().getBooking();
+            if (!existing.getUser().getId().equals(userId)) {
+                throw new RuntimeException("Payment already used for another booking");
+            }
+            return existing;
+        }
+
         // Get user and showtime
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -95,26 +119,14 @@ public class RazorpayService {
                 .orElseThrow(() -> new RuntimeException("Showtime not found"));
 
         // Book seats
-        List<com.revticket.entity.Seat> showtimeSeats = seatRepository.findByShowtimeId(request.getShowtimeId());
-        for (String seatId : request.getSeats()) {
-            com.revticket.entity.Seat seat = showtimeSeats.stream()
-                    .filter(s -> seatId.equals(s.getId()))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Seat not found: " + seatId));
-
-            if (seat.getIsBooked()) {
-                throw new RuntimeException("Seat is already booked");
-            }
-
-            seat.setIsBooked(true);
-            seat.setIsHeld(false);
-            seat.setHoldExpiry(null);
-            seat.setSessionId(null);
-            seatRepository.save(seat);
+        seatInventoryService.bookSeats(showtime.getId(), request.getSeats(), request.getSessionId());
+        seatTemplateService.ensureSeatRows(showtime.getId(), request.getSeats());
+        int claimed = seatRepository.claimSeats(
+                showtime.getId(), request.getSeats(), request.getSessionId(), LocalDateTime.now());
+        if (claimed != request.getSeats().size()) {
+            throw new RuntimeException("Seat is already booked");
         }
-
-        showtime.setAvailableSeats(Math.max(0, showtime.getAvailableSeats() - request.getSeats().size()));
-        showtimeRepository.save(showtime);
+        showtimeAvailabilityService.decrement(showtime.getId(), claimed);
 
         // Create booking
         Booking booking = new Booking();
@@ -146,20 +158,8 @@ public class RazorpayService {
 
         paymentRepository.save(payment);
 
-        // Send email notifications
-        if (settingsService.areEmailNotificationsEnabled()) {
-            try {
-                System.out.println("Sending booking confirmation to: " + booking.getCustomerEmail());
-                emailService.sendBookingConfirmation(booking);
-                System.out.println("✓ Booking confirmation email sent successfully");
-                
-                emailService.sendAdminNewBookingNotification(booking);
-                System.out.println("✓ Admin notification email sent successfully");
-            } catch (Exception e) {
-                System.err.println("✗ Failed to send email notifications: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }
+        outboxService.publish(OutboxEvent.EventType.BOOKING_PAID, booking.getId(), null);
+        eventPublisher.publishEvent(BookingChangedEvent.created(booking));
 
         return booking;
     }
@@ -184,6 +184,7 @@ public class RazorpayService {
                 booking.setPaymentMethod("RAZORPAY");
 
                 booking = bookingRepository.save(booking);
+                eventPublisher.publishEvent(BookingChangedEvent.created(booking));
 
                 Payment payment = new Payment();
                 payment.setBooking(booking);
@@ -0,0 +1,323 @@
+package com.revticket.service;
+
+import com.revticket.dto.RetentionJobStatus;
+import com.revticket.event.BookingChangedEvent;
+import com.revticket.repository.BookingRepository;
+import com.revticket.repository.PaymentRepository;
+import com.revticket.repository.SeatRepository;
+import com.revticket.repository.ShowtimeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Retention jobs for past bookings and showtimes.
+ *
+ * Candidates are selected by show time through an index, a bounded chunk at a time, and each
+ * chunk is archived (see {@link BookingArchiveService}) and then removed with set-based DELETEs
+ * in its own transaction. Deleted bookings are published as a purge {@link BookingChangedEvent},
+ * so the search index, statistics and dashboard follow while the rollup keeps them. A run that
+ * fails or hits its time budget keeps everything committed so far; the next run starts again from
+ * the oldest rows still left, so the jobs resume where they stopped.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+
+    public static final String BOOKINGS_JOB = "bookings";
+    public static final String SHOWTIMES_JOB = "showtimes";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingArchiveService bookingArchiveService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ShowtimeListingCache showtimeListingCache;
+
+    @Autowired
+    private ShowtimeAvailabilityService showtimeAvailabilityService;
+
+    @Autowired
+    private MovieStatisticsService movieStatisticsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.retention.booking-days:7}")
+    private int bookingRetentionDays;
+
+    @Value("${app.retention.showtime-days:7}")
+    private int showtimeRetentionDays;
+
+    @Value("${app.retention.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.retention.max-run-minutes:30}")
+    private long maxRunMinutes;
+
+    private final JobProgress bookingsJob = new JobProgress(BOOKINGS_JOB);
+    private final JobProgress showtimesJob = new JobProgress(SHOWTIMES_JOB);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "retention");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void registerMetrics() {
+        for (JobProgress job : List.of(bookingsJob, showtimesJob)) {
+            job.deletedCounter = meterRegistry.counter("retention.rows.deleted", "job", job.name);
+            job.chunkCounter = meterRegistry.counter("retention.chunks", "job", job.name);
+            job.failureCounter = meterRegistry.counter("retention.failures", "job", job.name);
+            job.runTimer = Timer.builder("retention.run").tag("job", job.name).register(meterRegistry);
+            Gauge.builder("retention.running", job.running, running -> running.get() ? 1 : 0)
+                    .tag("job", job.name)
+                    .register(meterRegistry);
+            Gauge.builder("retention.run.deleted", job, progress -> progress.deleted)
+                    .tag("job", job.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Archives and deletes bookings whose show ended more than the retention period ago, together
+     * with their seat lists, payments and search terms, and the seat rows of their showtimes.
+     */
+    public long purgeBookings() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(bookingRetentionDays);
+        return run(bookingsJob, cutoff, () -> purgeBookingChunk(cutoff));
+    }
+
+    /**
+     * Archives and deletes past showtimes that no longer have bookings, with their seat rows.
+     */
+    public long purgeShowtimes() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(showtimeRetentionDays);
+        return run(showtimesJob, cutoff, () -> purgeShowtimeChunk(cutoff));
+    }
+
+    public void runInBackground(String job) {
+        Runnable task = switch (job) {
+            case BOOKINGS_JOB -> this::purgeBookings;
+            case SHOWTIMES_JOB -> this::purgeShowtimes;
+            default -> throw new RuntimeException("Unknown retention job: " + job);
+        };
+        executor.submit(task);
+    }
+
+    public List<RetentionJobStatus> getStatus() {
+        return List.of(bookingsJob.toStatus(), showtimesJob.toStatus());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private long run(JobProgress job, LocalDateTime cutoff, BooleanSupplier chunk) {
+        if (!job.running.compareAndSet(false, true)) {
+            logger.info("Retention job {} is already running", job.name);
+            return 0;
+        }
+        job.begin(cutoff);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(maxRunMinutes);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            boolean more = true;
+            while (more && System.nanoTime() < deadline) {
+                more = chunk.getAsBoolean();
+            }
+            job.complete = !more;
+            if (more) {
+                logger.info("Retention job {} reached its time budget after {} rows; the next run resumes",
+                        job.name, job.deleted);
+            } else {
+                logger.info("Retention job {} deleted {} rows in {} chunks", job.name, job.deleted, job.chunks);
+            }
+        } catch (Exception e) {
+            job.lastError = e.getMessage();
+            job.failureCounter.increment();
+            logger.error("Retention job {} failed after {} rows", job.name, job.deleted, e);
+        } finally {
+            sample.stop(job.runTimer);
+            job.finishedAt = LocalDateTime.now();
+            job.running.set(false);
+        }
+        return job.deleted;
+    }
+
+    private boolean purgeBookingChunk(LocalDateTime cutoff) {
+        PageRequest limit = PageRequest.of(0, chunkSize);
+        List<BookingRepository.RetentionCandidate> candidates = bookingsJob.cursorTime == null
+                ? bookingRepository.findRetentionCandidates(cutoff, limit)
+                : bookingRepository.findRetentionCandidatesAfter(cutoff, bookingsJob.cursorTime, bookingsJob.cursorId, limit);
+        if (candidates.isEmpty()) {
+            return false;
+        }
+
+        List<String> bookingIds = candidates.stream().map(BookingRepository.RetentionCandidate::getId).toList();
+        Set<String> showtimeIds = candidates.stream()
+                .map(BookingRepository.RetentionCandidate::getShowtimeId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Integer deleted = new TransactionTemplate(transactionManager).execute(status -> {
+            // Built before the deletes, while the seat collections can still load
+            BookingChangedEvent purged = BookingChangedEvent.purged(bookingRepository.findByIdIn(bookingIds));
+            if (bookingArchiveService.isEnabled()) {
+                bookingArchiveService.archiveBookings(bookingIds);
+            }
+            paymentRepository.deleteByBookingIds(bookingIds);
+            bookingRepository.deleteSeatIdsByBookingIds(bookingIds);
+            bookingRepository.deleteSeatLabelsByBookingIds(bookingIds);
+            int rows = bookingRepository.deleteByIds(bookingIds);
+            seatRepository.deleteByShowtimeIds(showtimeIds);
+            showtimeIds.forEach(seatInventoryService::evict);
+            eventPublisher.publishEvent(purged);
+            return rows;
+        });
+
+        BookingRepository.RetentionCandidate last = candidates.get(candidates.size() - 1);
+        bookingsJob.chunkDone(deleted != null ? deleted : 0, last.getShowDateTime(), last.getId());
+        return candidates.size() == chunkSize;
+    }
+
+    private boolean purgeShowtimeChunk(LocalDateTime cutoff) {
+        PageRequest limit = PageRequest.of(0, chunkSize);
+        List<ShowtimeRepository.RetentionCandidate> candidates = showtimesJob.cursorTime == null
+                ? showtimeRepository.findRetentionCandidates(cutoff, limit)
+                : showtimeRepository.findRetentionCandidatesAfter(cutoff, showtimesJob.cursorTime, showtimesJob.cursorId, limit);
+        if (candidates.isEmpty()) {
+            return false;
+        }
+
+        List<String> showtimeIds = candidates.stream().map(ShowtimeRepository.RetentionCandidate::getId).toList();
+        Integer deleted = new TransactionTemplate(transactionManager).execute(status -> {
+            if (bookingArchiveService.isEnabled()) {
+                bookingArchiveService.archiveShowtimes(showtimeIds);
+            }
+            seatRepository.deleteByShowtimeIds(showtimeIds);
+            int rows = showtimeRepository.deleteUnbookedByIds(showtimeIds);
+            // A showtime booked after selection is kept, so the counts are off by those until the reconcile
+            countByMovie(candidates.stream().map(ShowtimeRepository.RetentionCandidate::getMovieId).toList())
+                    .forEach(movieStatisticsService::showtimesRemoved);
+            showtimeIds.forEach(seatInventoryService::evict);
+            showtimeAvailabilityService.evict(showtimeIds);
+            showtimeListingCache.invalidateAll();
+            return rows;
+        });
+
+        ShowtimeRepository.RetentionCandidate last = candidates.get(candidates.size() - 1);
+        showtimesJob.chunkDone(deleted != null ? deleted : 0, last.getShowDateTime(), last.getId());
+        return candidates.size() == chunkSize;
+    }
+
+    private static Map<String, Long> countByMovie(List<String> movieIds) {
+        return movieIds.stream().collect(Collectors.groupingBy(movieId -> movieId, Collectors.counting()));
+    }
+
+    // Progress of the current or last run of one job; written by the running thread only
+    private static final class JobProgress {
+        private final String name;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile LocalDateTime cutoff;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile LocalDateTime cursorTime;
+        private volatile String cursorId;
+        private volatile long deleted;
+        private volatile long chunks;
+        private volatile boolean complete;
+        private volatile String lastError;
+        private Counter deletedCounter;
+        private Counter chunkCounter;
+        private Counter failureCounter;
+        private Timer runTimer;
+
+        private JobProgress(String name) {
+            this.name = name;
+        }
+
+        private void begin(LocalDateTime cutoff) {
+            this.cutoff = cutoff;
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            cursorTime = null;
+            cursorId = null;
+            deleted = 0;
+            chunks = 0;
+            complete = false;
+            lastError = null;
+        }
+
+        private void chunkDone(int rows, LocalDateTime lastTime, String lastId) {
+            deleted += rows;
+            chunks++;
+            cursorTime = lastTime;
+            cursorId = lastId;
+            deletedCounter.increment(rows);
+            chunkCounter.increment();
+        }
+
+        private RetentionJobStatus toStatus() {
+            return RetentionJobStatus.builder()
+                    .job(name)
+                    .running(running.get())
+                    .cutoff(cutoff)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .cursorShowDateTime(cursorTime)
+                    .cursorId(cursorId)
+                    .deleted(deleted)
+                    .chunks(chunks)
+                    .complete(complete)
+                    .lastError(lastError)
+                    .totalDeleted((long) deletedCounter.count())
+                    .build();
+        }
+    }
+}
@@ -35,6 +35,9 @@ public class ReviewService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private MovieStatisticsService movieStatisticsService;
+
     public ReviewResponse addReview(String userId, ReviewRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -138,8 +141,12 @@ public class ReviewService {
     public ReviewResponse approveReview(String reviewId) {
         MongoReview review = mongoReviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
+        boolean wasApproved = review.isApproved();
         review.setApproved(true);
         review = mongoReviewRepository.save(review);
+        if (!wasApproved) {
+            movieStatisticsService.reviewApproved(review.getMovieId(), review.getRating());
+        }
         return new ReviewResponse(
                 review.getId(),
                 review.getUserName(),
@@ -153,7 +160,12 @@ public class ReviewService {
     }
 
     public void deleteReview(String reviewId) {
-        mongoReviewRepository.deleteById(reviewId);
+        mongoReviewRepository.findById(reviewId).ifPresent(review -> {
+            mongoReviewRepository.deleteById(reviewId);
+            if (review.isApproved()) {
+                movieStatisticsService.reviewRemoved(review.getMovieId(), review.getRating());
+            }
+        });
     }
 
     public List<ReviewResponse> getAllReviews() {
@@ -0,0 +1,190 @@
+package com.revticket.service;
+
+import com.revticket.entity.Seat;
+import com.revticket.entity.Showtime;
+import com.revticket.repository.SeatRepository;
+import com.revticket.repository.ShowtimeRepository;
+import com.revticket.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Applies a changed screen layout to the screen's future showtimes.
+ *
+ * Showtimes are processed in chunks, one transaction per chunk. For each chunk the existing seat
+ * rows are diffed against the new template by label and only the differences are written:
+ * unbooked seats that left the layout are deleted, unbooked seats whose category changed are
+ * updated in place, and seats new to the layout are inserted. Booked seats are never touched,
+ * so seat ids referenced by bookings stay valid.
+ */
+@Service
+public class ScreenLayoutPropagationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenLayoutPropagationService.class);
+
+    private static final int SHOWTIME_CHUNK_SIZE = 50;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private SeatTemplateService seatTemplateService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ShowtimeListingCache showtimeListingCache;
+
+    @Autowired
+    private ShowtimeAvailabilityService showtimeAvailabilityService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "screen-layout-propagation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Schedules propagation for the screen once the surrounding transaction (if any) commits,
+     * so the job reads the new layout.
+     */
+    public void propagate(String screenId) {
+        TransactionCallbacks.afterCommit(() -> executor.submit(() -> run(screenId)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(String screenId) {
+        try {
+            seatTemplateService.evictTemplate(screenId);
+            ScreenSeatTemplate template = seatTemplateService.getTemplate(screenId);
+            List<String> showtimeIds = showtimeRepository.findIdsByScreenAndShowDateTimeAfter(screenId, LocalDateTime.now());
+
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            LayoutChanges total = new LayoutChanges();
+            for (int from = 0; from < showtimeIds.size(); from += SHOWTIME_CHUNK_SIZE) {
+                List<String> chunk = showtimeIds.subList(from, Math.min(from + SHOWTIME_CHUNK_SIZE, showtimeIds.size()));
+                LayoutChanges changes = transactionTemplate.execute(status -> applyChunk(chunk, template));
+                total.add(Objects.requireNonNull(changes));
+            }
+            logger.info("Propagated layout of screen {} to {} showtimes: {} added, {} removed, {} recategorized",
+                    screenId, showtimeIds.size(), total.added, total.removed, total.recategorized);
+        } catch (Exception e) {
+            logger.error("Layout propagation for screen {} failed", screenId, e);
+        }
+    }
+
+    private LayoutChanges applyChunk(List<String> showtimeIds, ScreenSeatTemplate template) {
+        Map<String, ScreenSeatTemplate.TemplateSeat> templateByLabel = new LinkedHashMap<>();
+        for (ScreenSeatTemplate.TemplateSeat templateSeat : template.getSeats()) {
+            templateByLabel.put(templateSeat.label(), templateSeat);
+        }
+
+        List<Showtime> showtimes = showtimeRepository.findAllById(showtimeIds);
+        Map<String, List<Seat>> rowsByShowtime = new HashMap<>();
+        for (Seat seat : seatRepository.findByShowtimeIdIn(showtimeIds)) {
+            rowsByShowtime.computeIfAbsent(seat.getShowtime().getId(), k -> new ArrayList<>()).add(seat);
+        }
+
+        List<String> removed = new ArrayList<>();
+        Map<SeatCategory, List<String>> recategorized = new LinkedHashMap<>();
+        Map<String, List<ScreenSeatTemplate.TemplateSeat>> added = new LinkedHashMap<>();
+        List<String> denseIds = new ArrayList<>();
+        List<String> templateIds = new ArrayList<>();
+
+        for (Showtime showtime : showtimes) {
+            boolean templateBacked = Boolean.TRUE.equals(showtime.getTemplateSeats());
+            (templateBacked ? templateIds : denseIds).add(showtime.getId());
+
+            Map<String, ScreenSeatTemplate.TemplateSeat> missing = templateBacked ? Map.of() : new LinkedHashMap<>(templateByLabel);
+            for (Seat seat : rowsByShowtime.getOrDefault(showtime.getId(), List.of())) {
+                String label = seat.getRow() + seat.getNumber();
+                ScreenSeatTemplate.TemplateSeat target = templateByLabel.get(label);
+                if (!templateBacked) {
+                    missing.remove(label);
+                }
+                if (Boolean.TRUE.equals(seat.getIsBooked())) {
+                    continue;
+                }
+                if (target == null) {
+                    removed.add(seat.getId());
+                } else if (!sameCategory(seat, target)) {
+                    SeatCategory category = new SeatCategory(target.price(), target.type(), target.disabled());
+                    recategorized.computeIfAbsent(category, k -> new ArrayList<>()).add(seat.getId());
+                }
+            }
+            if (!missing.isEmpty()) {
+                added.put(showtime.getId(), new ArrayList<>(missing.values()));
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            seatRepository.deleteUnbooked(removed);
+        }
+        recategorized.forEach((category, seatIds) ->
+                seatRepository.recategorize(seatIds, category.price(), category.type(), category.disabled()));
+        int addedCount = seatTemplateService.insertSeatRows(added);
+
+        if (!denseIds.isEmpty()) {
+            showtimeRepository.recountSeatRows(denseIds);
+        }
+        if (!templateIds.isEmpty()) {
+            showtimeRepository.recountTemplateSeats(templateIds, template.getEnabledCount());
+        }
+        showtimeIds.forEach(seatInventoryService::evict);
+        showtimes.forEach(showtimeListingCache::invalidate);
+        showtimeAvailabilityService.evict(showtimeIds);
+
+        LayoutChanges changes = new LayoutChanges();
+        changes.added = addedCount;
+        changes.removed = removed.size();
+        changes.recategorized = recategorized.values().stream().mapToInt(List::size).sum();
+        return changes;
+    }
+
+    private boolean sameCategory(Seat seat, ScreenSeatTemplate.TemplateSeat target) {
+        return Objects.equals(seat.getPrice(), target.price())
+                && seat.getType() == target.type()
+                && Boolean.TRUE.equals(seat.getIsDisabled()) == target.disabled();
+    }
+
+    private record SeatCategory(double price, Seat.SeatType type, boolean disabled) {
+    }
+
+    private static final class LayoutChanges {
+        private int added;
+        private int removed;
+        private int recategorized;
+
+        private void add(LayoutChanges other) {
+            added += other.added;
+            removed += other.removed;
+            recategorized += other.recategorized;
+        }
+    }
+}
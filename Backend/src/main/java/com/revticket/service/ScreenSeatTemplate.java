@@ -0,0 +1,57 @@
+package com.revticket.service;
+
+import com.revticket.entity.Seat;
+import com.revticket.entity.Showtime;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable seat layout of a screen, shared by every showtime on that screen.
+ *
+ * Seats of a template-backed showtime get deterministic ids derived from the showtime and the
+ * seat label, so a seat can be referenced before (or without) having a row in the seats table.
+ */
+public class ScreenSeatTemplate {
+
+    private final List<TemplateSeat> seats;
+    private final int enabledCount;
+
+    public ScreenSeatTemplate(List<TemplateSeat> seats) {
+        this.seats = List.copyOf(seats);
+        this.enabledCount = (int) seats.stream().filter(seat -> !seat.disabled()).count();
+    }
+
+    public List<TemplateSeat> getSeats() {
+        return seats;
+    }
+
+    public int getEnabledCount() {
+        return enabledCount;
+    }
+
+    public static String seatId(String showtimeId, String row, int number) {
+        return UUID.nameUUIDFromBytes((showtimeId + "/" + row + number).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    public record TemplateSeat(String row, int number, double price, Seat.SeatType type, boolean disabled) {
+
+        public String label() {
+            return row + number;
+        }
+
+        public Seat toSeat(Showtime showtime) {
+            Seat seat = new Seat();
+            seat.setShowtime(showtime);
+            seat.setRow(row);
+            seat.setNumber(number);
+            seat.setIsBooked(false);
+            seat.setIsHeld(false);
+            seat.setIsDisabled(disabled);
+            seat.setPrice(price);
+            seat.setType(type);
+            return seat;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.revticket.service;
+
+import com.revticket.dto.SeatDeltaEvent;
+import com.revticket.dto.SeatMapDeltaDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Pushes seat state changes to /topic/seats/{showtimeId}.
+ *
+ * A change only marks its showtime dirty; the frame is built on a short interval from the
+ * inventory's change log, so a burst of holds on one showtime goes out as a single frame and
+ * every seat in it carries the state it has at the frame's version, whatever order the changes
+ * were reported in.
+ */
+@Service
+public class SeatEventPublisher {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, PendingFrame> pending = new ConcurrentHashMap<>();
+
+    public void seatsChanged(ShowtimeSeatInventory inventory) {
+        update(inventory.getShowtimeId(), frame -> frame.inventory = inventory);
+    }
+
+    public void seatMapRebuilt(String showtimeId, long version) {
+        update(showtimeId, frame -> frame.markResync(version));
+    }
+
+    @Scheduled(fixedDelayString = "${app.seats.events.flush-interval-ms:100}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (String showtimeId : new ArrayList<>(pending.keySet())) {
+            PendingFrame frame = pending.remove(showtimeId);
+            SeatDeltaEvent event = frame != null ? frame.toEvent(showtimeId, now) : null;
+            if (event != null) {
+                messagingTemplate.convertAndSend("/topic/seats/" + showtimeId, event);
+            }
+        }
+    }
+
+    // Frames are only changed inside compute, which is atomic with flush's remove of the same key,
+    // so a change lands either in the frame being sent or in a fresh one, never in neither
+    private void update(String showtimeId, Consumer<PendingFrame> change) {
+        pending.compute(showtimeId, (id, frame) -> {
+            PendingFrame target = frame != null ? frame : new PendingFrame();
+            change.accept(target);
+            return target;
+        });
+    }
+
+    private static final class PendingFrame {
+        private ShowtimeSeatInventory inventory;
+        private boolean resync;
+        private long version;
+
+        void markResync(long newVersion) {
+            // The inventory was replaced; clients refetch the seat map instead
+            resync = true;
+            inventory = null;
+            version = Math.max(version, newVersion);
+        }
+
+        // Returns null when there is nothing to send
+        SeatDeltaEvent toEvent(String showtimeId, long now) {
+            List<SeatDeltaEvent.SeatChange> changes = List.of();
+            if (inventory != null) {
+                SeatMapDeltaDTO delta = inventory.takeUnpublishedChanges(now);
+                if (delta == null) {
+                    // More changes than the log keeps since the last frame
+                    resync = true;
+                    version = Math.max(version, inventory.getVersion());
+                } else {
+                    changes = delta.getChanges();
+                    version = Math.max(version, delta.getVersion());
+                }
+            }
+            if (!resync && changes.isEmpty()) {
+                return null;
+            }
+            return SeatDeltaEvent.builder()
+                    .showtimeId(showtimeId)
+                    .version(version)
+                    .resync(resync)
+                    .changes(resync ? List.of() : changes)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.revticket.service;
+
+import com.revticket.dto.SeatHoldResult;
+import com.revticket.entity.Seat;
+import com.revticket.repository.SeatRepository;
+import com.revticket.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Keeps the seat state of hot showtimes in memory so holds and booking claims are decided
+ * without a database round trip per seat.
+ *
+ * Holds are written behind: each change is queued and a scheduled flush coalesces the queue
+ * into a handful of bulk UPDATE statements; the writes of a flush that rolls back are queued
+ * again for the next one. Bookings are claimed here first and persisted by the caller inside
+ * its own transaction; if that transaction rolls back the claim is undone.
+ * Every state change is also handed to {@link SeatEventPublisher} for the live seat map.
+ */
+@Service
+public class SeatInventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatInventoryService.class);
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private SeatEventPublisher seatEventPublisher;
+
+    @Autowired
+    private SeatTemplateService seatTemplateService;
+
+    @Value("${app.seats.hold-minutes:10}")
+    private long holdMinutes;
+
+    @Value("${app.seats.inventory.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final Map<String, ShowtimeSeatInventory> inventories = new ConcurrentHashMap<>();
+
+    // Last version of evicted inventories, so a reload never hands out a lower version.
+    private final Map<String, Long> retiredVersions = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedDeque<PendingHoldWrite> pendingWrites = new ConcurrentLinkedDeque<>();
+
+    private final HoldExpiryWheel expiryWheel = new HoldExpiryWheel(250, 1024, System.currentTimeMillis());
+
+    /**
+     * Inventory of the showtime, loaded on first use. Throws ResourceNotFoundException, and caches
+     * nothing, when the showtime does not exist.
+     */
+    public ShowtimeSeatInventory getInventory(String showtimeId) {
+        String safeShowtimeId = Objects.requireNonNullElse(showtimeId, "");
+        return inventories.computeIfAbsent(safeShowtimeId, this::load);
+    }
+
+    public void holdSeats(String showtimeId, List<String> seatIds, String sessionId) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + holdMinutes * 60_000L;
+        ShowtimeSeatInventory inventory = getInventory(showtimeId);
+        inventory.hold(seatIds, sessionId, expiresAt, now);
+        recordHolds(showtimeId, List.copyOf(seatIds), sessionId, expiresAt);
+        seatEventPublisher.seatsChanged(inventory);
+    }
+
+    public SeatHoldResult holdEach(String showtimeId, List<String> seatIds, String sessionId) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + holdMinutes * 60_000L;
+        ShowtimeSeatInventory inventory = getInventory(showtimeId);
+        Map<String, SeatHoldResult.Outcome> outcomes = inventory.holdEach(seatIds, sessionId, expiresAt, now);
+        List<String> heldIds = idsWithOutcome(outcomes, SeatHoldResult.Outcome.HELD);
+        if (!heldIds.isEmpty()) {
+            recordHolds(showtimeId, heldIds, sessionId, expiresAt);
+            seatEventPublisher.seatsChanged(inventory);
+        }
+        return buildResult(showtimeId, sessionId, expiresAt, outcomes);
+    }
+
+    /**
+     * Holds the best block of count adjacent seats for the session in a single step.
+     */
+    public SeatHoldResult holdBestAvailable(String showtimeId, int count, Seat.SeatType preferredType, String sessionId) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + holdMinutes * 60_000L;
+        ShowtimeSeatInventory inventory = getInventory(showtimeId);
+        List<String> heldIds = inventory.holdBestAvailable(count, preferredType, sessionId, expiresAt, now);
+        if (heldIds.isEmpty()) {
+            throw new RuntimeException("No " + count + " adjacent seats are available");
+        }
+        recordHolds(showtimeId, heldIds, sessionId, expiresAt);
+        seatEventPublisher.seatsChanged(inventory);
+        Map<String, SeatHoldResult.Outcome> outcomes = new LinkedHashMap<>();
+        heldIds.forEach(seatId -> outcomes.put(seatId, SeatHoldResult.Outcome.HELD));
+        return buildResult(showtimeId, sessionId, expiresAt, outcomes);
+    }
+
+    public SeatHoldResult releaseEach(String showtimeId, List<String> seatIds, String sessionId) {
+        ShowtimeSeatInventory inventory = getInventory(showtimeId);
+        Map<String, SeatHoldResult.Outcome> outcomes =
+                inventory.releaseEach(seatIds, sessionId, System.currentTimeMillis());
+        List<String> releasedIds = idsWithOutcome(outcomes, SeatHoldResult.Outcome.RELEASED);
+        if (!releasedIds.isEmpty()) {
+            pendingWrites.add(new PendingHoldWrite(showtimeId, releasedIds, false, null, 0L));
+            seatEventPublisher.seatsChanged(inventory);
+        }
+        return buildResult(showtimeId, sessionId, null, outcomes);
+    }
+
+    /**
+     * Heartbeat for a seat-selection session: every live hold of the session gets a fresh expiry,
+     * persisted by the next flush as a single UPDATE.
+     */
+    public SeatHoldResult extendHolds(String showtimeId, String sessionId) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + holdMinutes * 60_000L;
+        List<String> extended = getInventory(showtimeId).extendHolds(sessionId, expiresAt, now);
+        if (!extended.isEmpty()) {
+            recordHolds(showtimeId, extended, sessionId, expiresAt);
+        }
+        Map<String, SeatHoldResult.Outcome> outcomes = new LinkedHashMap<>();
+        extended.forEach(seatId -> outcomes.put(seatId, SeatHoldResult.Outcome.HELD));
+        return buildResult(showtimeId, sessionId, expiresAt, outcomes);
+    }
+
+    public void releaseSeats(String showtimeId, List<String> seatIds) {
+        ShowtimeSeatInventory inventory = getInventory(showtimeId);
+        List<String> released = inventory.release(seatIds, System.currentTimeMillis());
+        if (!released.isEmpty()) {
+            pendingWrites.add(new PendingHoldWrite(showtimeId, released, false, null, 0L));
+            seatEventPublisher.seatsChanged(inventory);
+        }
+    }
+
+    /**
+     * Claims the seats for a booking in memory. Must be called inside the transaction that
+     * persists the booking; the claim is reverted if that transaction does not commit.
+     */
+    public void bookSeats(String showtimeId, List<String> seatIds, String sessionId) {
+        ShowtimeSeatInventory inventory = getInventory(showtimeId);
+        inventory.book(seatIds, sessionId, System.currentTimeMillis());
+        TransactionCallbacks.afterRollback(() -> inventory.unbook(seatIds, System.currentTimeMillis()));
+        TransactionCallbacks.afterCommit(() -> seatEventPublisher.seatsChanged(inventory));
+    }
+
+    /**
+     * Returns booked seats to the pool once the surrounding transaction commits.
+     */
+    public void unbookSeats(String showtimeId, List<String> seatIds) {
+        ShowtimeSeatInventory inventory = getInventory(showtimeId);
+        TransactionCallbacks.afterCommit(() -> {
+            inventory.unbook(seatIds, System.currentTimeMillis());
+            seatEventPublisher.seatsChanged(inventory);
+        });
+    }
+
+    /**
+     * Drops the cached state of a showtime whose seat rows were rebuilt or removed. The entry is
+     * dropped again after commit so a concurrent reload cannot pin the pre-commit rows.
+     */
+    public void evict(String showtimeId) {
+        if (showtimeId == null) {
+            return;
+        }
+        retire(inventories.remove(showtimeId));
+        TransactionCallbacks.afterCommit(() -> {
+            retire(inventories.remove(showtimeId));
+            seatEventPublisher.seatMapRebuilt(showtimeId, nextVersion(showtimeId));
+        });
+    }
+
+    /**
+     * Releases every hold whose deadline has passed, using the expiry wheel so only due seats are
+     * touched. The releases go through the write-behind queue like any other release.
+     */
+    public int expireDueHolds() {
+        long now = System.currentTimeMillis();
+        Map<String, List<String>> dueByShowtime = new LinkedHashMap<>();
+        for (HoldExpiryWheel.Entry entry : expiryWheel.advance(now)) {
+            dueByShowtime.computeIfAbsent(entry.getShowtimeId(), k -> new ArrayList<>()).add(entry.getSeatId());
+        }
+
+        int expiredCount = 0;
+        for (Map.Entry<String, List<String>> due : dueByShowtime.entrySet()) {
+            ShowtimeSeatInventory inventory = inventories.get(due.getKey());
+            if (inventory == null) {
+                continue;
+            }
+            List<String> expired = inventory.expireHolds(due.getValue(), now);
+            if (!expired.isEmpty()) {
+                pendingWrites.add(new PendingHoldWrite(due.getKey(), expired, false, null, 0L));
+                seatEventPublisher.seatsChanged(inventory);
+                expiredCount += expired.size();
+            }
+        }
+        return expiredCount;
+    }
+
+    @Scheduled(fixedDelayString = "${app.seats.inventory.flush-interval-ms:200}")
+    @Transactional
+    public void flushPendingWrites() {
+        List<PendingHoldWrite> drained = new ArrayList<>();
+        PendingHoldWrite write;
+        while ((write = pendingWrites.pollFirst()) != null) {
+            drained.add(write);
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterRollback(() -> requeue(drained));
+
+        Map<String, PendingHoldWrite> latestBySeat = new LinkedHashMap<>();
+        for (PendingHoldWrite pending : drained) {
+            for (String seatId : pending.seatIds()) {
+                latestBySeat.put(seatId, pending);
+            }
+        }
+
+        Map<HoldTarget, List<String>> holds = new LinkedHashMap<>();
+        List<String> releases = new ArrayList<>();
+        latestBySeat.forEach((seatId, pending) -> {
+            if (pending.held()) {
+                holds.computeIfAbsent(new HoldTarget(pending.showtimeId(), pending.sessionId(), pending.expiresAt()),
+                        k -> new ArrayList<>()).add(seatId);
+            } else {
+                releases.add(seatId);
+            }
+        });
+
+        holds.forEach((target, seatIds) -> {
+            seatTemplateService.ensureSeatRows(target.showtimeId(), seatIds);
+            seatRepository.markHeld(seatIds, target.sessionId(), ShowtimeSeatInventory.toLocalDateTime(target.expiresAt()));
+        });
+        if (!releases.isEmpty()) {
+            seatRepository.clearHolds(releases);
+            seatTemplateService.deleteFreeSeatRows(releases);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleInventories() {
+        long now = System.currentTimeMillis();
+        long cutoff = now - idleMinutes * 60_000L;
+        inventories.values().removeIf(inventory -> {
+            if (inventory.getLastAccess() >= cutoff) {
+                return false;
+            }
+            retire(inventory);
+            return true;
+        });
+        // Reloads start at the wall clock, so only versions ahead of it still need remembering.
+        retiredVersions.values().removeIf(version -> version < now);
+    }
+
+    /**
+     * Puts the writes of a flush that did not commit back at the head of the queue, ahead of
+     * anything queued since, so the next flush retries them without overriding newer writes.
+     */
+    private void requeue(List<PendingHoldWrite> writes) {
+        for (int i = writes.size() - 1; i >= 0; i--) {
+            pendingWrites.addFirst(writes.get(i));
+        }
+        logger.warn("Seat hold flush did not commit; {} queued writes will be retried", writes.size());
+    }
+
+    private void recordHolds(String showtimeId, List<String> seatIds, String sessionId, long expiresAt) {
+        pendingWrites.add(new PendingHoldWrite(showtimeId, seatIds, true, sessionId, expiresAt));
+        for (String seatId : seatIds) {
+            expiryWheel.schedule(showtimeId, seatId, expiresAt);
+        }
+    }
+
+    private List<String> idsWithOutcome(Map<String, SeatHoldResult.Outcome> outcomes, SeatHoldResult.Outcome outcome) {
+        List<String> ids = new ArrayList<>();
+        outcomes.forEach((seatId, value) -> {
+            if (value == outcome) {
+                ids.add(seatId);
+            }
+        });
+        return ids;
+    }
+
+    private SeatHoldResult buildResult(String showtimeId, String sessionId, Long expiresAt,
+                                       Map<String, SeatHoldResult.Outcome> outcomes) {
+        return SeatHoldResult.builder()
+                .showtimeId(showtimeId)
+                .sessionId(sessionId)
+                .holdExpiry(expiresAt != null ? ShowtimeSeatInventory.toLocalDateTime(expiresAt) : null)
+                .outcomes(outcomes)
+                .build();
+    }
+
+    private ShowtimeSeatInventory load(String showtimeId) {
+        List<Seat> seats = seatTemplateService.loadSeatMap(showtimeId);
+        logger.debug("Loaded seat inventory for showtime {} ({} seats)", showtimeId, seats.size());
+        ShowtimeSeatInventory inventory = new ShowtimeSeatInventory(showtimeId, seats, nextVersion(showtimeId));
+        retiredVersions.remove(showtimeId);
+        inventory.forEachHold((seatId, expiresAt) -> expiryWheel.schedule(showtimeId, seatId, expiresAt));
+        return inventory;
+    }
+
+    private void retire(ShowtimeSeatInventory inventory) {
+        if (inventory != null) {
+            retiredVersions.merge(inventory.getShowtimeId(), inventory.getVersion(), Math::max);
+        }
+    }
+
+    /**
+     * Versions of a freshly loaded inventory start at the wall clock, or just past the version of
+     * the inventory it replaces, so subscribers see them keep increasing across reloads and restarts.
+     */
+    private long nextVersion(String showtimeId) {
+        Long retired = retiredVersions.get(showtimeId);
+        return Math.max(System.currentTimeMillis(), retired != null ? retired + 1 : 0L);
+    }
+
+    private record PendingHoldWrite(String showtimeId, List<String> seatIds, boolean held, String sessionId,
+                                    long expiresAt) {
+    }
+
+    private record HoldTarget(String showtimeId, String sessionId, long expiresAt) {
+    }
+}
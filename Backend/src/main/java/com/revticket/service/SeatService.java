@@ -1,5 +1,9 @@
 package com.revticket.service;
 
+import com.revticket.dto.SeatHoldResult;
+import com.revticket.dto.SeatMapDeltaDTO;
+import com.revticket.dto.SeatMapLayoutDTO;
+import com.revticket.dto.SeatMapStatusDTO;
 import com.revticket.entity.Seat;
 import com.revticket.entity.Showtime;
 import com.revticket.repository.SeatRepository;
@@ -8,7 +12,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -23,37 +26,57 @@ public class SeatService {
     private ShowtimeRepository showtimeRepository;
 
     @Autowired
-    private com.revticket.repository.SeatDataRepository seatDataRepository;
+    private SeatInventoryService seatInventoryService;
 
     @Autowired
-    private com.revticket.repository.SeatCategoryRepository seatCategoryRepository;
+    private SeatTemplateService seatTemplateService;
 
-    @Transactional
-    public List<Seat> getSeatsByShowtime(String showtimeId) {
-        List<Seat> seats = seatRepository.findByShowtimeId(showtimeId);
-        if (seats.isEmpty()) {
-            initializeSeatsForShowtime(showtimeId);
-            seats = seatRepository.findByShowtimeId(showtimeId);
-        }
+    @Autowired
+    private ScreenLayoutPropagationService screenLayoutPropagationService;
 
-        LocalDateTime now = LocalDateTime.now();
-        List<Seat> expiredHolds = new ArrayList<>();
-        for (Seat seat : seats) {
-            if (Boolean.TRUE.equals(seat.getIsHeld()) &&
-                seat.getHoldExpiry() != null &&
-                seat.getHoldExpiry().isBefore(now)) {
-                seat.setIsHeld(false);
-                seat.setHoldExpiry(null);
-                seat.setSessionId(null);
-                expiredHolds.add(seat);
-            }
-        }
+    @Autowired
+    private SettingsService settingsService;
 
-        if (!expiredHolds.isEmpty()) {
-            seatRepository.saveAll(expiredHolds);
-        }
+    @Autowired
+    private ShowtimeListingCache showtimeListingCache;
+
+    @Autowired
+    private ShowtimeAvailabilityService showtimeAvailabilityService;
+
+    /**
+     * Seats of the showtime and the version they reflect, both from the in-memory inventory.
+     * Lapsed holds read as free even before the stale-hold sweep clears their rows.
+     */
+    public ShowtimeSeatInventory.SeatSnapshot getSeatsByShowtime(String showtimeId) {
+        return seatInventoryService.getInventory(showtimeId).toSeats(System.currentTimeMillis());
+    }
+
+    public SeatMapLayoutDTO getSeatMapLayout(String showtimeId) {
+        return seatInventoryService.getInventory(showtimeId).toLayout();
+    }
+
+    public SeatMapStatusDTO getSeatMapStatus(String showtimeId) {
+        return seatInventoryService.getInventory(showtimeId).toStatus(System.currentTimeMillis());
+    }
 
-        return seats;
+    public long getSeatMapVersion(String showtimeId) {
+        return seatInventoryService.getInventory(showtimeId).getVersion();
+    }
+
+    public SeatMapDeltaDTO getSeatMapChanges(String showtimeId, long sinceVersion) {
+        ShowtimeSeatInventory inventory = seatInventoryService.getInventory(showtimeId);
+        long now = System.currentTimeMillis();
+        SeatMapDeltaDTO delta = inventory.changesSince(sinceVersion, now);
+        if (delta != null) {
+            return delta;
+        }
+        SeatMapStatusDTO snapshot = inventory.toStatus(now);
+        return SeatMapDeltaDTO.builder()
+                .showtimeId(showtimeId)
+                .fromVersion(sinceVersion)
+                .version(snapshot.getVersion())
+                .snapshot(snapshot)
+                .build();
     }
 
     @Transactional
@@ -63,163 +86,36 @@ public class SeatService {
 
     @Transactional
     public void initializeSeatsForShowtime(String showtimeId, boolean force) {
-        List<Seat> existingSeats = seatRepository.findByShowtimeId(showtimeId);
-        if (!existingSeats.isEmpty() && !force) {
-            return;
-        }
-
         Showtime showtime = showtimeRepository.findById(Objects.requireNonNullElse(showtimeId, ""))
                 .orElseThrow(() -> new RuntimeException("Showtime not found"));
-
-        String screenId = showtime.getScreen();
-        
-        // Load seat configuration from screen
-        List<com.revticket.entity.SeatData> seatDataList = seatDataRepository.findByScreenId(screenId);
-        List<com.revticket.entity.SeatCategory> categories = seatCategoryRepository.findByScreenId(screenId);
-        
-        if (seatDataList.isEmpty() || categories.isEmpty()) {
-            // Fallback: use screen's basic layout info
-            initializeSeatsFromScreenLayout(showtime, screenId);
+        if (!force && (Boolean.TRUE.equals(showtime.getTemplateSeats())
+                || !seatRepository.findByShowtimeId(showtimeId).isEmpty())) {
             return;
         }
-        
-        // Create a map of category ID to price
-        java.util.Map<String, Double> categoryPriceMap = new java.util.HashMap<>();
-        for (com.revticket.entity.SeatCategory category : categories) {
-            categoryPriceMap.put(category.getId(), category.getPrice());
-        }
-        
-        List<Seat> seatsToSave = new ArrayList<>();
-        int enabledSeats = 0;
-        
-        for (com.revticket.entity.SeatData seatData : seatDataList) {
-            Seat seat = new Seat();
-            seat.setShowtime(showtime);
-            seat.setRow(getRowLabel(seatData.getRow()));
-            seat.setNumber(seatData.getCol() + 1);
-            seat.setIsBooked(false);
-            seat.setIsHeld(false);
-            
-            // Handle disabled seats - they exist but are marked as disabled
-            if ("disabled".equals(seatData.getStatus())) {
-                seat.setIsDisabled(true);
-                seat.setPrice(0.0);
-                seat.setType(Seat.SeatType.REGULAR);
-            } else {
-                seat.setIsDisabled(false);
-                // Get price from category
-                Double price = categoryPriceMap.get(seatData.getCategoryId());
-                seat.setPrice(price != null ? price : 100.0);
-                
-                // Determine seat type based on price
-                if (price != null) {
-                    if (price >= 250) {
-                        seat.setType(Seat.SeatType.VIP);
-                    } else if (price >= 150) {
-                        seat.setType(Seat.SeatType.PREMIUM);
-                    } else {
-                        seat.setType(Seat.SeatType.REGULAR);
-                    }
-                } else {
-                    seat.setType(Seat.SeatType.REGULAR);
-                }
-                enabledSeats++;
-            }
-            
-            seatsToSave.add(seat);
-        }
-        
-        seatRepository.saveAll(seatsToSave);
-        showtime.setTotalSeats(enabledSeats);
-        showtime.setAvailableSeats(enabledSeats);
-        showtimeRepository.save(showtime);
-    }
-    
-    private String getRowLabel(int rowIndex) {
-        return String.valueOf((char) ('A' + rowIndex));
-    }
-    
-    @Autowired
-    private com.revticket.repository.ScreenRepository screenRepository;
-    
-    private void initializeSeatsFromScreenLayout(Showtime showtime, String screenId) {
-        com.revticket.entity.Screen screen = screenRepository.findById(screenId).orElse(null);
-        
-        if (screen == null || screen.getRows() == null || screen.getSeatsPerRow() == null) {
-            initializeDefaultSeats(showtime);
+        seatInventoryService.evict(showtimeId);
+
+        ScreenSeatTemplate template = seatTemplateService.getTemplate(showtime.getScreen());
+        if (seatTemplateService.isSparseMode() || Boolean.TRUE.equals(showtime.getTemplateSeats())) {
+            // Template-backed: no seat rows until a seat is held or booked
+            int booked = (int) seatRepository.countByShowtimeIdAndIsBookedTrue(showtimeId);
+            showtime.setTemplateSeats(true);
+            showtime.setTotalSeats(template.getEnabledCount());
+            showtime.setAvailableSeats(Math.max(template.getEnabledCount() - booked, 0));
+            showtimeRepository.save(showtime);
+            seatTotalsChanged(showtime);
             return;
         }
-        
-        int rows = screen.getRows();
-        int seatsPerRow = screen.getSeatsPerRow();
-        List<Seat> seatsToSave = new ArrayList<>();
 
-        for (int r = 0; r < rows; r++) {
-            String rowLabel = getRowLabel(r);
-            for (int i = 1; i <= seatsPerRow; i++) {
-                Seat seat = new Seat();
-                seat.setShowtime(showtime);
-                seat.setRow(rowLabel);
-                seat.setNumber(i);
-                seat.setIsBooked(false);
-                seat.setIsHeld(false);
-                seat.setIsDisabled(false);
-
-                // Simple pricing based on row position
-                if (r < rows / 3) {
-                    seat.setPrice(150.0);
-                    seat.setType(Seat.SeatType.REGULAR);
-                } else if (r < (rows * 2) / 3) {
-                    seat.setPrice(200.0);
-                    seat.setType(Seat.SeatType.PREMIUM);
-                } else {
-                    seat.setPrice(300.0);
-                    seat.setType(Seat.SeatType.VIP);
-                }
-                seatsToSave.add(seat);
-            }
+        List<Seat> seatsToSave = new ArrayList<>(template.getSeats().size());
+        for (ScreenSeatTemplate.TemplateSeat templateSeat : template.getSeats()) {
+            seatsToSave.add(templateSeat.toSeat(showtime));
         }
 
         seatRepository.saveAll(seatsToSave);
-        int totalSeats = seatsToSave.size();
-        showtime.setTotalSeats(totalSeats);
-        showtime.setAvailableSeats(totalSeats);
-        showtimeRepository.save(showtime);
-    }
-    
-    private void initializeDefaultSeats(Showtime showtime) {
-        String[] rows = { "A", "B", "C", "D", "E", "F", "G", "H" };
-        List<Seat> seatsToSave = new ArrayList<>();
-
-        for (String row : rows) {
-            for (int i = 1; i <= 12; i++) {
-                Seat seat = new Seat();
-                seat.setShowtime(showtime);
-                seat.setRow(row);
-                seat.setNumber(i);
-                seat.setIsBooked(false);
-                seat.setIsHeld(false);
-                seat.setIsDisabled(false);
-
-                if ("A".equals(row) || "B".equals(row)) {
-                    seat.setPrice(150.0);
-                    seat.setType(Seat.SeatType.REGULAR);
-                } else if ("C".equals(row) || "D".equals(row) || "E".equals(row)) {
-                    seat.setPrice(200.0);
-                    seat.setType(Seat.SeatType.PREMIUM);
-                } else {
-                    seat.setPrice(300.0);
-                    seat.setType(Seat.SeatType.VIP);
-                }
-                seatsToSave.add(seat);
-            }
-        }
-
-        seatRepository.saveAll(seatsToSave);
-        int totalSeats = seatsToSave.size();
-        showtime.setTotalSeats(totalSeats);
-        showtime.setAvailableSeats(totalSeats);
+        showtime.setTotalSeats(template.getEnabledCount());
+        showtime.setAvailableSeats(template.getEnabledCount());
         showtimeRepository.save(showtime);
+        seatTotalsChanged(showtime);
     }
 
     @Transactional
@@ -230,6 +126,7 @@ public class SeatService {
 
         Showtime showtime = showtimeRepository.findById(Objects.requireNonNullElse(showtimeId, ""))
                 .orElseThrow(() -> new RuntimeException("Showtime not found"));
+        seatInventoryService.evict(showtimeId);
 
         List<Seat> seatsToSave = new ArrayList<>();
 
@@ -258,70 +155,46 @@ public class SeatService {
         showtime.setTotalSeats(totalSeats);
         showtime.setAvailableSeats(totalSeats);
         showtimeRepository.save(showtime);
+        seatTotalsChanged(showtime);
     }
 
-    @Transactional
     public void holdSeats(String showtimeId, List<String> seatIds, String sessionId) {
-        for (String seatId : seatIds) {
-            String safeSeatId = Objects.requireNonNullElse(seatId, "");
-            Seat seat = seatRepository.findById(safeSeatId)
-                    .orElseThrow(() -> new RuntimeException("Seat not found: " + seatId));
+        seatInventoryService.holdSeats(showtimeId, seatIds, sessionId);
+    }
 
-            if (seat.getIsBooked()) {
-                throw new RuntimeException("Seat " + seatId + " is already booked");
-            }
+    public void releaseSeats(String showtimeId, List<String> seatIds) {
+        seatInventoryService.releaseSeats(showtimeId, seatIds);
+    }
 
-            seat.setIsHeld(true);
-            seat.setHoldExpiry(LocalDateTime.now().plusMinutes(10));
-            seat.setSessionId(sessionId);
-            seatRepository.save(seat);
-        }
+    public SeatHoldResult holdSeatsBatch(String showtimeId, List<String> seatIds, String sessionId) {
+        return seatInventoryService.holdEach(showtimeId, seatIds, sessionId);
     }
 
-    @Transactional
-    public void releaseSeats(String showtimeId, List<String> seatIds) {
-        for (String seatId : seatIds) {
-            String safeSeatId = Objects.requireNonNullElse(seatId, "");
-            Seat seat = seatRepository.findById(safeSeatId).orElse(null);
-            if (seat != null && !seat.getIsBooked()) {
-                seat.setIsHeld(false);
-                seat.setHoldExpiry(null);
-                seat.setSessionId(null);
-                seatRepository.save(seat);
-            }
+    public SeatHoldResult holdBestAvailable(String showtimeId, int count, Seat.SeatType seatType, String sessionId) {
+        int maxSeats = settingsService.getMaxSeatsPerBooking();
+        if (count > maxSeats) {
+            throw new RuntimeException("Maximum " + maxSeats + " seats can be booked at once");
         }
+        return seatInventoryService.holdBestAvailable(showtimeId, count, seatType, sessionId);
     }
 
-    @Transactional
+    public SeatHoldResult releaseSeatsBatch(String showtimeId, List<String> seatIds, String sessionId) {
+        return seatInventoryService.releaseEach(showtimeId, seatIds, sessionId);
+    }
+
+    public SeatHoldResult extendHolds(String showtimeId, String sessionId) {
+        return seatInventoryService.extendHolds(showtimeId, sessionId);
+    }
+
+    /**
+     * Applies the screen's current layout to its future showtimes in the background.
+     */
     public void refreshSeatsForScreen(String screenId) {
-        List<Showtime> showtimes = showtimeRepository.findByScreen(screenId);
-        for (Showtime showtime : showtimes) {
-            // Delete all existing seats (booked seats will be recreated with same status)
-            List<Seat> existingSeats = seatRepository.findByShowtimeId(showtime.getId());
-            
-            // Store booked seat information
-            java.util.Map<String, Boolean> bookedSeats = new java.util.HashMap<>();
-            for (Seat seat : existingSeats) {
-                if (seat.getIsBooked()) {
-                    bookedSeats.put(seat.getRow() + seat.getNumber(), true);
-                }
-            }
-            
-            // Delete all existing seats
-            seatRepository.deleteAll(existingSeats);
-            
-            // Force reinitialize seats with new configuration
-            initializeSeatsForShowtime(showtime.getId(), true);
-            
-            // Restore booked status for previously booked seats
-            List<Seat> newSeats = seatRepository.findByShowtimeId(showtime.getId());
-            for (Seat seat : newSeats) {
-                String seatKey = seat.getRow() + seat.getNumber();
-                if (bookedSeats.containsKey(seatKey)) {
-                    seat.setIsBooked(true);
-                    seatRepository.save(seat);
-                }
-            }
-        }
+        screenLayoutPropagationService.propagate(screenId);
+    }
+
+    private void seatTotalsChanged(Showtime showtime) {
+        showtimeListingCache.invalidate(showtime);
+        showtimeAvailabilityService.evict(List.of(showtime.getId()));
     }
 }
@@ -0,0 +1,271 @@
+package com.revticket.service;
+
+import com.revticket.entity.Screen;
+import com.revticket.entity.Seat;
+import com.revticket.entity.SeatCategory;
+import com.revticket.entity.SeatData;
+import com.revticket.entity.Showtime;
+import com.revticket.exception.ResourceNotFoundException;
+import com.revticket.repository.ScreenRepository;
+import com.revticket.repository.SeatCategoryRepository;
+import com.revticket.repository.SeatDataRepository;
+import com.revticket.repository.SeatRepository;
+import com.revticket.repository.ShowtimeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds and caches screen seat templates, and produces seat maps for template-backed showtimes
+ * by overlaying their few per-showtime seat rows (held, booked) on the template.
+ *
+ * With app.seats.storage-mode=sparse new showtimes are template-backed; rows are inserted on
+ * demand, just before the first hold or booking of a seat writes its state, and deleted again
+ * once the seat is released or its booking cancelled.
+ */
+@Service
+public class SeatTemplateService {
+
+    private static final String INSERT_SEAT_ROW =
+            "INSERT IGNORE INTO seats (id, showtime_id, `row`, number, is_booked, is_held, is_disabled, price, type, version) " +
+            "VALUES (?, ?, ?, ?, false, false, ?, ?, ?, 0)";
+
+    private static final String BULK_INSERT_SEAT_ROW =
+            "INSERT INTO seats (id, showtime_id, `row`, number, is_booked, is_held, is_disabled, price, type, version) " +
+            "VALUES (?, ?, ?, ?, false, false, ?, ?, ?, 0)";
+
+    private static final int SEAT_INSERT_BATCH_SIZE = 500;
+
+    @Autowired
+    private SeatDataRepository seatDataRepository;
+
+    @Autowired
+    private SeatCategoryRepository seatCategoryRepository;
+
+    @Autowired
+    private ScreenRepository screenRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.seats.storage-mode:dense}")
+    private String storageMode;
+
+    private final Map<String, ScreenSeatTemplate> templates = new ConcurrentHashMap<>();
+
+    public boolean isSparseMode() {
+        return "sparse".equalsIgnoreCase(storageMode);
+    }
+
+    public ScreenSeatTemplate getTemplate(String screenId) {
+        return templates.computeIfAbsent(Objects.requireNonNullElse(screenId, ""), this::buildTemplate);
+    }
+
+    public void evictTemplate(String screenId) {
+        if (screenId != null) {
+            templates.remove(screenId);
+        }
+    }
+
+    /**
+     * Seats of a showtime in the form the seat map and inventory expect. Template-backed showtimes
+     * get one transient seat per template position unless a seat row with that label exists.
+     * Throws ResourceNotFoundException for an unknown showtime.
+     */
+    @Transactional(readOnly = true)
+    public List<Seat> loadSeatMap(String showtimeId) {
+        Showtime showtime = showtimeRepository.findById(Objects.requireNonNullElse(showtimeId, ""))
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found: " + showtimeId));
+        List<Seat> rows = seatRepository.findByShowtimeId(showtimeId);
+        if (!Boolean.TRUE.equals(showtime.getTemplateSeats())) {
+            return rows;
+        }
+
+        Map<String, Seat> rowsByLabel = new LinkedHashMap<>();
+        for (Seat row : rows) {
+            rowsByLabel.put(row.getRow() + row.getNumber(), row);
+        }
+        ScreenSeatTemplate template = getTemplate(showtime.getScreen());
+        List<Seat> seats = new ArrayList<>(template.getSeats().size());
+        for (ScreenSeatTemplate.TemplateSeat templateSeat : template.getSeats()) {
+            Seat row = rowsByLabel.remove(templateSeat.label());
+            if (row != null) {
+                seats.add(row);
+            } else {
+                Seat seat = templateSeat.toSeat(showtime);
+                seat.setId(ScreenSeatTemplate.seatId(showtimeId, templateSeat.row(), templateSeat.number()));
+                seats.add(seat);
+            }
+        }
+        // Booked seats stay on the map even if the layout no longer has them.
+        rowsByLabel.values().stream().filter(row -> Boolean.TRUE.equals(row.getIsBooked())).forEach(seats::add);
+        return seats;
+    }
+
+    /**
+     * Inserts the missing seat rows of a template-backed showtime so that conditional updates
+     * have a row to match. Does nothing for showtimes whose seats were fully materialized.
+     */
+    public void ensureSeatRows(String showtimeId, Collection<String> seatIds) {
+        if (seatIds.isEmpty()) {
+            return;
+        }
+        Showtime showtime = showtimeRepository.findById(Objects.requireNonNullElse(showtimeId, "")).orElse(null);
+        if (showtime == null || !Boolean.TRUE.equals(showtime.getTemplateSeats())) {
+            return;
+        }
+
+        Set<String> wanted = new HashSet<>(seatIds);
+        List<Object[]> batch = new ArrayList<>();
+        for (ScreenSeatTemplate.TemplateSeat templateSeat : getTemplate(showtime.getScreen()).getSeats()) {
+            String seatId = ScreenSeatTemplate.seatId(showtimeId, templateSeat.row(), templateSeat.number());
+            if (wanted.contains(seatId)) {
+                batch.add(new Object[] { seatId, showtimeId, templateSeat.row(), templateSeat.number(),
+                        templateSeat.disabled(), templateSeat.price(), templateSeat.type().name() });
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SEAT_ROW, batch);
+        }
+    }
+
+    /**
+     * Deletes the rows of the given seats that are free again in template-backed showtimes, so
+     * those showtimes only keep rows for held and booked seats. Other rows are left alone.
+     */
+    public void deleteFreeSeatRows(Collection<String> seatIds) {
+        if (!seatIds.isEmpty()) {
+            seatRepository.deleteFreeTemplateSeatRows(seatIds);
+        }
+    }
+
+    /**
+     * Writes one seat row per template seat for each showtime with JDBC batch inserts and ids
+     * generated up front. The showtimes must already be flushed. Returns the number of rows.
+     */
+    public int insertSeatRows(List<Showtime> showtimes) {
+        Map<String, List<ScreenSeatTemplate.TemplateSeat>> seatsByShowtime = new LinkedHashMap<>();
+        for (Showtime showtime : showtimes) {
+            seatsByShowtime.put(showtime.getId(), getTemplate(showtime.getScreen()).getSeats());
+        }
+        return insertSeatRows(seatsByShowtime);
+    }
+
+    public int insertSeatRows(Map<String, List<ScreenSeatTemplate.TemplateSeat>> seatsByShowtime) {
+        List<Object[]> rows = new ArrayList<>();
+        seatsByShowtime.forEach((showtimeId, seats) -> {
+            for (ScreenSeatTemplate.TemplateSeat templateSeat : seats) {
+                rows.add(new Object[] { UUID.randomUUID().toString(), showtimeId, templateSeat.row(),
+                        templateSeat.number(), templateSeat.disabled(), templateSeat.price(), templateSeat.type().name() });
+            }
+        });
+        for (int from = 0; from < rows.size(); from += SEAT_INSERT_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(BULK_INSERT_SEAT_ROW, rows.subList(from, Math.min(from + SEAT_INSERT_BATCH_SIZE, rows.size())));
+        }
+        return rows.size();
+    }
+
+    private ScreenSeatTemplate buildTemplate(String screenId) {
+        List<SeatData> seatDataList = seatDataRepository.findByScreenId(screenId);
+        List<SeatCategory> categories = seatCategoryRepository.findByScreenId(screenId);
+        if (seatDataList.isEmpty() || categories.isEmpty()) {
+            Screen screen = screenRepository.findById(screenId).orElse(null);
+            if (screen == null || screen.getRows() == null || screen.getSeatsPerRow() == null) {
+                return defaultTemplate();
+            }
+            return screenLayoutTemplate(screen.getRows(), screen.getSeatsPerRow());
+        }
+
+        Map<String, Double> categoryPriceMap = new HashMap<>();
+        for (SeatCategory category : categories) {
+            categoryPriceMap.put(category.getId(), category.getPrice());
+        }
+
+        List<ScreenSeatTemplate.TemplateSeat> seats = new ArrayList<>(seatDataList.size());
+        for (SeatData seatData : seatDataList) {
+            String row = getRowLabel(seatData.getRow());
+            int number = seatData.getCol() + 1;
+            // Disabled seats exist in the layout but can never be sold
+            if ("disabled".equals(seatData.getStatus())) {
+                seats.add(new ScreenSeatTemplate.TemplateSeat(row, number, 0.0, Seat.SeatType.REGULAR, true));
+                continue;
+            }
+            Double price = categoryPriceMap.get(seatData.getCategoryId());
+            seats.add(new ScreenSeatTemplate.TemplateSeat(
+                    row, number, price != null ? price : 100.0, seatTypeForPrice(price), false));
+        }
+        return new ScreenSeatTemplate(seats);
+    }
+
+    private ScreenSeatTemplate screenLayoutTemplate(int rows, int seatsPerRow) {
+        List<ScreenSeatTemplate.TemplateSeat> seats = new ArrayList<>(rows * seatsPerRow);
+        for (int r = 0; r < rows; r++) {
+            String rowLabel = getRowLabel(r);
+            for (int i = 1; i <= seatsPerRow; i++) {
+                // Simple pricing based on row position
+                if (r < rows / 3) {
+                    seats.add(new ScreenSeatTemplate.TemplateSeat(rowLabel, i, 150.0, Seat.SeatType.REGULAR, false));
+                } else if (r < (rows * 2) / 3) {
+                    seats.add(new ScreenSeatTemplate.TemplateSeat(rowLabel, i, 200.0, Seat.SeatType.PREMIUM, false));
+                } else {
+                    seats.add(new ScreenSeatTemplate.TemplateSeat(rowLabel, i, 300.0, Seat.SeatType.VIP, false));
+                }
+            }
+        }
+        return new ScreenSeatTemplate(seats);
+    }
+
+    private ScreenSeatTemplate defaultTemplate() {
+        String[] rows = { "A", "B", "C", "D", "E", "F", "G", "H" };
+        List<ScreenSeatTemplate.TemplateSeat> seats = new ArrayList<>(rows.length * 12);
+        for (String row : rows) {
+            for (int i = 1; i <= 12; i++) {
+                if ("A".equals(row) || "B".equals(row)) {
+                    seats.add(new ScreenSeatTemplate.TemplateSeat(row, i, 150.0, Seat.SeatType.REGULAR, false));
+                } else if ("C".equals(row) || "D".equals(row) || "E".equals(row)) {
+                    seats.add(new ScreenSeatTemplate.TemplateSeat(row, i, 200.0, Seat.SeatType.PREMIUM, false));
+                } else {
+                    seats.add(new ScreenSeatTemplate.TemplateSeat(row, i, 300.0, Seat.SeatType.VIP, false));
+                }
+            }
+        }
+        return new ScreenSeatTemplate(seats);
+    }
+
+    private Seat.SeatType seatTypeForPrice(Double price) {
+        if (price == null) {
+            return Seat.SeatType.REGULAR;
+        }
+        if (price >= 250) {
+            return Seat.SeatType.VIP;
+        }
+        if (price >= 150) {
+            return Seat.SeatType.PREMIUM;
+        }
+        return Seat.SeatType.REGULAR;
+    }
+
+    private String getRowLabel(int rowIndex) {
+        return String.valueOf((char) ('A' + rowIndex));
+    }
+}
@@ -0,0 +1,119 @@
+package com.revticket.service;
+
+import com.revticket.repository.ShowtimeRepository;
+import com.revticket.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Seats left per showtime, kept in memory so listings can show live availability without
+ * re-reading showtimes on every request.
+ *
+ * Seat sales and releases go through {@link #decrement} and {@link #increment}, which update the
+ * showtimes row and, after commit, the in-memory count. Counts are loaded from MySQL on first use
+ * and re-read once older than the TTL, which also bounds drift from a load racing a sale.
+ */
+@Service
+public class ShowtimeAvailabilityService {
+
+    private static final int STRIPES = 64;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Value("${app.showtimes.availability-ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.showtimes.availability-max-entries:50000}")
+    private int maxEntries;
+
+    private final Map<String, Count> counts = new ConcurrentHashMap<>();
+
+    // Bumped on every committed change; a load does not keep counts whose stripe moved meanwhile
+    private final AtomicLongArray changes = new AtomicLongArray(STRIPES);
+
+    public void decrement(String showtimeId, int count) {
+        showtimeRepository.decrementAvailableSeats(showtimeId, count);
+        TransactionCallbacks.afterCommit(() -> adjust(showtimeId, available -> Math.max(available - count, 0)));
+    }
+
+    public void increment(String showtimeId, int count) {
+        showtimeRepository.incrementAvailableSeats(showtimeId, count);
+        TransactionCallbacks.afterCommit(() -> adjust(showtimeId, available -> available + count));
+    }
+
+    /**
+     * Drops the counts of showtimes whose seat totals were rewritten, once the caller commits.
+     */
+    public void evict(Collection<String> showtimeIds) {
+        List<String> ids = List.copyOf(showtimeIds);
+        TransactionCallbacks.afterCommit(() -> ids.forEach(id -> {
+            changes.incrementAndGet(stripe(id));
+            counts.remove(id);
+        }));
+    }
+
+    public Map<String, Integer> getAvailableSeats(Collection<String> showtimeIds) {
+        long now = System.currentTimeMillis();
+        long maxAge = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        Map<String, Integer> available = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : showtimeIds) {
+            Count count = counts.get(id);
+            if (count != null && now - count.loadedAt() < maxAge) {
+                available.put(id, count.available());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return available;
+        }
+
+        Map<String, Long> seen = new HashMap<>();
+        for (String id : missing) {
+            seen.put(id, changes.get(stripe(id)));
+        }
+        if (counts.size() + missing.size() > maxEntries) {
+            counts.clear();
+        }
+        for (int from = 0; from < missing.size(); from += LOAD_BATCH_SIZE) {
+            List<String> batch = missing.subList(from, Math.min(from + LOAD_BATCH_SIZE, missing.size()));
+            for (ShowtimeRepository.AvailableSeats row : showtimeRepository.findAvailableSeatsByIdIn(batch)) {
+                String id = row.getId();
+                available.put(id, row.getAvailableSeats());
+                Count loaded = new Count(row.getAvailableSeats(), now);
+                counts.put(id, loaded);
+                if (changes.get(stripe(id)) != seen.get(id)) {
+                    counts.remove(id, loaded);
+                }
+            }
+        }
+        return available;
+    }
+
+    private void adjust(String showtimeId, IntUnaryOperator change) {
+        changes.incrementAndGet(stripe(showtimeId));
+        counts.computeIfPresent(showtimeId,
+                (id, count) -> new Count(change.applyAsInt(count.available()), count.loadedAt()));
+    }
+
+    private int stripe(String showtimeId) {
+        return Math.floorMod(showtimeId.hashCode(), STRIPES);
+    }
+
+    private record Count(int available, long loadedAt) {
+    }
+}
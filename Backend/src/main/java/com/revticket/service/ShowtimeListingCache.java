@@ -0,0 +1,115 @@
+package com.revticket.service;
+
+import com.revticket.dto.ShowtimeResponse;
+import com.revticket.entity.Showtime;
+import com.revticket.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache of public showtime listings keyed by (movieId, date, city, theaterId).
+ *
+ * Entries are immutable response lists. Writers invalidate, after commit, only the keys a changed
+ * showtime, movie or theater can appear under: a key matches when each dimension it sets equals
+ * the change. A load that overlaps an invalidation is returned but not kept, so a listing read
+ * before a commit cannot outlive it. Seat counts are not part of this; readers overlay them from
+ * {@link ShowtimeAvailabilityService} so seat sales never evict listings.
+ */
+@Service
+public class ShowtimeListingCache {
+
+    @Value("${app.showtimes.cache-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.showtimes.cache-max-entries:500}")
+    private int maxEntries;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Guarded by entries
+    private long generation;
+
+    public List<ShowtimeResponse> get(Key key, Supplier<List<ShowtimeResponse>> loader) {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.cachedAt() < TimeUnit.SECONDS.toMillis(ttlSeconds)) {
+                return entry.showtimes();
+            }
+            loadGeneration = generation;
+        }
+
+        List<ShowtimeResponse> showtimes = List.copyOf(loader.get());
+        synchronized (entries) {
+            if (generation == loadGeneration) {
+                entries.put(key, new Entry(showtimes, now));
+            }
+        }
+        return showtimes;
+    }
+
+    /**
+     * Invalidates the listings a showtime appears in. Call before and after changing a showtime
+     * so both its old and new placement are dropped.
+     */
+    public void invalidate(Showtime showtime) {
+        invalidate(showtime.getMovie().getId(), showtime.getTheater().getId(),
+                showtime.getTheater().getLocation(), showtime.getShowDateTime().toLocalDate());
+    }
+
+    public void invalidate(String movieId, String theaterId, String city, LocalDate date) {
+        String normalizedCity = normalizeCity(city);
+        TransactionCallbacks.afterCommit(() -> removeMatching(key -> (key.movieId() == null || key.movieId().equals(movieId))
+                && (key.theaterId() == null || key.theaterId().equals(theaterId))
+                && (key.city() == null || key.city().equals(normalizedCity))
+                && (key.date() == null || key.date().equals(date))));
+    }
+
+    public void invalidateMovie(String movieId) {
+        TransactionCallbacks.afterCommit(() -> removeMatching(key -> key.movieId() == null || key.movieId().equals(movieId)));
+    }
+
+    // City keys have no theater id, so they are dropped too when a theater moves
+    public void invalidateTheater(String theaterId) {
+        TransactionCallbacks.afterCommit(() -> removeMatching(key -> key.theaterId() == null || key.theaterId().equals(theaterId)));
+    }
+
+    public void invalidateAll() {
+        TransactionCallbacks.afterCommit(() -> removeMatching(key -> true));
+    }
+
+    private void removeMatching(Predicate<Key> matches) {
+        synchronized (entries) {
+            generation++;
+            entries.keySet().removeIf(matches);
+        }
+    }
+
+    static String normalizeCity(String city) {
+        return city != null ? city.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    public record Key(String movieId, LocalDate date, String city, String theaterId) {
+        public Key {
+            city = normalizeCity(city);
+        }
+    }
+
+    private record Entry(List<ShowtimeResponse> showtimes, long cachedAt) {
+    }
+}
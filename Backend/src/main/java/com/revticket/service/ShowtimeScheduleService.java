@@ -0,0 +1,234 @@
+package com.revticket.service;
+
+import com.revticket.dto.ShowtimeScheduleRequest;
+import com.revticket.dto.ShowtimeScheduleStatus;
+import com.revticket.entity.Movie;
+import com.revticket.entity.Showtime;
+import com.revticket.entity.Theater;
+import com.revticket.repository.MovieRepository;
+import com.revticket.repository.ShowtimeRepository;
+import com.revticket.repository.TheaterRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates recurring showtimes ("these screens, these slots, every day for N days") as a
+ * background job. Each day is one transaction: the day's showtimes are saved together and their
+ * seats written with JDBC batch inserts, so a schedule costs a few round trips per day instead
+ * of one per seat.
+ */
+@Service
+public class ShowtimeScheduleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShowtimeScheduleService.class);
+
+    // Same window as ShowtimeService.checkShowtimeConflict
+    private static final long CONFLICT_WINDOW_HOURS = 3;
+    private static final long FINISHED_JOB_RETENTION_MINUTES = 60;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private SeatTemplateService seatTemplateService;
+
+    @Autowired
+    private ShowtimeListingCache showtimeListingCache;
+
+    @Autowired
+    private MovieStatisticsService movieStatisticsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, ScheduleJob> jobs = new ConcurrentHashMap<>();
+
+    // One job at a time keeps bulk inserts from starving the small connection pool
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "showtime-schedule");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ShowtimeScheduleStatus submit(ShowtimeScheduleRequest request) {
+        if (!movieRepository.existsById(request.getMovieId())) {
+            throw new RuntimeException("Movie not found");
+        }
+        if (!theaterRepository.existsById(request.getTheaterId())) {
+            throw new RuntimeException("Theater not found");
+        }
+        pruneFinishedJobs();
+
+        ScheduleJob job = new ScheduleJob(UUID.randomUUID().toString(),
+                request.getScreens().size() * request.getTimeSlots().size() * request.getDays());
+        jobs.put(job.id, job);
+        executor.submit(() -> run(job, request));
+        return job.toStatus();
+    }
+
+    public ShowtimeScheduleStatus getStatus(String jobId) {
+        ScheduleJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Schedule job not found");
+        }
+        return job.toStatus();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ScheduleJob job, ShowtimeScheduleRequest request) {
+        job.state = ShowtimeScheduleStatus.State.RUNNING;
+        try {
+            LocalDate lastDate = request.getStartDate().plusDays(request.getDays() - 1L);
+            Map<String, List<LocalDateTime>> occupied = loadOccupiedSlots(request.getScreens(),
+                    request.getStartDate().atStartOfDay().minusHours(CONFLICT_WINDOW_HOURS),
+                    lastDate.atTime(LocalTime.MAX).plusHours(CONFLICT_WINDOW_HOURS));
+
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            for (LocalDate date = request.getStartDate(); !date.isAfter(lastDate); date = date.plusDays(1)) {
+                LocalDate day = date;
+                transactionTemplate.executeWithoutResult(status -> createDay(job, request, day, occupied));
+            }
+            job.state = ShowtimeScheduleStatus.State.COMPLETED;
+            logger.info("Schedule job {} created {} showtimes ({} skipped, {} seats)",
+                    job.id, job.created.get(), job.skipped.get(), job.seats.get());
+        } catch (Exception e) {
+            logger.error("Schedule job {} failed", job.id, e);
+            job.error = e.getMessage();
+            job.state = ShowtimeScheduleStatus.State.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void createDay(ScheduleJob job, ShowtimeScheduleRequest request, LocalDate day,
+                           Map<String, List<LocalDateTime>> occupied) {
+        Movie movie = movieRepository.getReferenceById(request.getMovieId());
+        Theater theater = theaterRepository.getReferenceById(request.getTheaterId());
+        boolean sparse = seatTemplateService.isSparseMode();
+
+        List<Showtime> showtimes = new ArrayList<>();
+        for (String screen : request.getScreens()) {
+            int seatCount = seatTemplateService.getTemplate(screen).getEnabledCount();
+            for (LocalTime slot : request.getTimeSlots()) {
+                LocalDateTime showDateTime = day.atTime(slot);
+                List<LocalDateTime> screenSlots = occupied.get(screen);
+                if (conflicts(screenSlots, showDateTime)) {
+                    job.skipped.incrementAndGet();
+                    continue;
+                }
+                screenSlots.add(showDateTime);
+
+                Showtime showtime = new Showtime();
+                showtime.setMovie(movie);
+                showtime.setTheater(theater);
+                showtime.setScreen(screen);
+                showtime.setShowDateTime(showDateTime);
+                showtime.setTicketPrice(request.getTicketPrice());
+                showtime.setTotalSeats(seatCount);
+                showtime.setAvailableSeats(seatCount);
+                showtime.setStatus(Showtime.ShowStatus.ACTIVE);
+                showtime.setTemplateSeats(sparse);
+                showtimes.add(showtime);
+            }
+        }
+        if (showtimes.isEmpty()) {
+            return;
+        }
+
+        showtimeRepository.saveAll(showtimes);
+        showtimeRepository.flush();
+        // Every showtime of the day shares the movie, theater and date
+        showtimeListingCache.invalidate(showtimes.get(0));
+        movieStatisticsService.showtimesAdded(showtimes.get(0).getMovie().getId(), showtimes.size());
+        if (!sparse) {
+            job.seats.addAndGet(seatTemplateService.insertSeatRows(showtimes));
+        }
+        job.created.addAndGet(showtimes.size());
+    }
+
+    private Map<String, List<LocalDateTime>> loadOccupiedSlots(List<String> screens, LocalDateTime from, LocalDateTime to) {
+        Map<String, List<LocalDateTime>> occupied = new HashMap<>();
+        for (String screen : screens) {
+            List<LocalDateTime> slots = new ArrayList<>();
+            showtimeRepository.findByScreenAndShowDateTimeBetween(screen, from, to)
+                    .forEach(showtime -> slots.add(showtime.getShowDateTime()));
+            occupied.put(screen, slots);
+        }
+        return occupied;
+    }
+
+    private boolean conflicts(List<LocalDateTime> screenSlots, LocalDateTime showDateTime) {
+        LocalDateTime startWindow = showDateTime.minusHours(CONFLICT_WINDOW_HOURS);
+        LocalDateTime endWindow = showDateTime.plusHours(CONFLICT_WINDOW_HOURS);
+        for (LocalDateTime existing : screenSlots) {
+            if (!existing.isBefore(startWindow) && !existing.isAfter(endWindow)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(FINISHED_JOB_RETENTION_MINUTES);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static final class ScheduleJob {
+        private final String id;
+        private final int total;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final AtomicInteger created = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger seats = new AtomicInteger();
+        private volatile ShowtimeScheduleStatus.State state = ShowtimeScheduleStatus.State.QUEUED;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private ScheduleJob(String id, int total) {
+            this.id = id;
+            this.total = total;
+        }
+
+        private ShowtimeScheduleStatus toStatus() {
+            return ShowtimeScheduleStatus.builder()
+                    .jobId(id)
+                    .state(state)
+                    .totalShowtimes(total)
+                    .createdShowtimes(created.get())
+                    .skippedShowtimes(skipped.get())
+                    .createdSeats(seats.get())
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,710 @@
+package com.revticket.service;
+
+import com.revticket.dto.SeatDeltaEvent;
+import com.revticket.dto.SeatHoldResult.Outcome;
+import com.revticket.dto.SeatMapDeltaDTO;
+import com.revticket.dto.SeatMapLayoutDTO;
+import com.revticket.dto.SeatMapStatusDTO;
+import com.revticket.entity.Seat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * In-memory seat state for a single showtime.
+ *
+ * Seats are addressed by a dense index; booked, held and disabled flags live in bitsets and
+ * hold ownership/expiry in parallel arrays. Every mutation takes the showtime's own lock, so
+ * contention is striped per showtime and a multi-seat claim is all-or-nothing.
+ */
+public class ShowtimeSeatInventory {
+
+    static final int CHANGE_LOG_SIZE = 1024;
+
+    // Best-available scoring: preferred depth as a fraction of the rows from the front, and
+    // penalties in units of "half a row width from the centre".
+    private static final double PREFERRED_ROW_DEPTH = 0.6;
+    private static final double SINGLE_GAP_PENALTY = 1.5;
+    private static final double CATEGORY_MISMATCH_PENALTY = 4.0;
+
+    private final String showtimeId;
+    private final String[] seatIds;
+    private final String[] labels;
+    private final String[] rowLabels;
+    private final int[] numbers;
+    private final double[] prices;
+    private final Seat.SeatType[] types;
+    private final Map<String, Integer> indexById;
+    // rowStarts[r] is the index of the first seat of row r; rowStarts[rowCount] == size
+    private final int[] rowStarts;
+
+    private final BitSet booked;
+    private final BitSet held;
+    private final BitSet disabled;
+    private final String[] holders;
+    private final long[] holdExpiry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long lastAccess = System.currentTimeMillis();
+    private volatile long version;
+    private final long initialVersion;
+    // Version up to which changes were handed to the live seat-map publisher
+    private long publishedVersion;
+
+    // Ring of (version, seat index) pairs for the most recent changes, used to answer delta polls.
+    private final long[] changeVersions = new long[CHANGE_LOG_SIZE];
+    private final int[] changeSeats = new int[CHANGE_LOG_SIZE];
+    private long changeCount;
+
+    ShowtimeSeatInventory(String showtimeId, List<Seat> unorderedSeats, long initialVersion) {
+        List<Seat> seats = new ArrayList<>(unorderedSeats);
+        seats.sort(Comparator.comparing((Seat seat) -> seat.getRow().length())
+                .thenComparing(Seat::getRow)
+                .thenComparing(Seat::getNumber));
+        int size = seats.size();
+        this.showtimeId = showtimeId;
+        this.version = initialVersion;
+        this.initialVersion = initialVersion;
+        this.publishedVersion = initialVersion;
+        this.seatIds = new String[size];
+        this.labels = new String[size];
+        this.rowLabels = new String[size];
+        this.numbers = new int[size];
+        this.prices = new double[size];
+        this.types = new Seat.SeatType[size];
+        this.indexById = new HashMap<>(size * 2);
+        this.booked = new BitSet(size);
+        this.held = new BitSet(size);
+        this.disabled = new BitSet(size);
+        this.holders = new String[size];
+        this.holdExpiry = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            Seat seat = seats.get(i);
+            seatIds[i] = seat.getId();
+            labels[i] = seat.getRow() + seat.getNumber();
+            rowLabels[i] = seat.getRow();
+            numbers[i] = seat.getNumber();
+            prices[i] = seat.getPrice() != null ? seat.getPrice() : 0.0;
+            types[i] = seat.getType() != null ? seat.getType() : Seat.SeatType.REGULAR;
+            indexById.put(seat.getId(), i);
+            if (Boolean.TRUE.equals(seat.getIsBooked())) {
+                booked.set(i);
+            }
+            if (Boolean.TRUE.equals(seat.getIsDisabled())) {
+                disabled.set(i);
+            }
+            if (Boolean.TRUE.equals(seat.getIsHeld()) && seat.getHoldExpiry() != null) {
+                held.set(i);
+                holders[i] = seat.getSessionId();
+                holdExpiry[i] = toEpochMillis(seat.getHoldExpiry());
+            }
+        }
+
+        int rowCount = 0;
+        int[] starts = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || !rowLabels[i].equals(rowLabels[i - 1])) {
+                starts[rowCount++] = i;
+            }
+        }
+        starts[rowCount] = size;
+        this.rowStarts = Arrays.copyOf(starts, rowCount + 1);
+    }
+
+    public String getShowtimeId() {
+        return showtimeId;
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Incremented on every change to the booked/held state of any seat.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Holds every requested seat for the session, or none of them.
+     */
+    public void hold(List<String> requestedIds, String sessionId, long expiresAt, long now) {
+        int[] indexes = resolve(requestedIds);
+        lock.lock();
+        try {
+            touch(now);
+            for (int idx : indexes) {
+                if (booked.get(idx) || disabled.get(idx)) {
+                    throw new RuntimeException("Seat " + seatIds[idx] + " is already booked");
+                }
+                if (isHeldByOther(idx, sessionId, now)) {
+                    throw new RuntimeException("Seat " + labels[idx] + " is held by another user");
+                }
+            }
+            for (int idx : indexes) {
+                held.set(idx);
+                holders[idx] = sessionId;
+                holdExpiry[idx] = expiresAt;
+                logChange(idx);
+            }
+            version++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds whichever requested seats are free and reports an outcome for every seat, so a
+     * client can reconcile its selection without refetching the seat map.
+     */
+    public Map<String, Outcome> holdEach(List<String> requestedIds, String sessionId, long expiresAt, long now) {
+        Map<String, Outcome> outcomes = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            touch(now);
+            for (String seatId : requestedIds) {
+                Integer idx = seatId != null ? indexById.get(seatId) : null;
+                if (idx == null) {
+                    outcomes.put(seatId, Outcome.NOT_FOUND);
+                } else if (booked.get(idx) || disabled.get(idx)) {
+                    outcomes.put(seatId, Outcome.ALREADY_BOOKED);
+                } else if (isHeldByOther(idx, sessionId, now)) {
+                    outcomes.put(seatId, Outcome.HELD_BY_OTHER);
+                } else {
+                    held.set(idx);
+                    holders[idx] = sessionId;
+                    holdExpiry[idx] = expiresAt;
+                    logChange(idx);
+                    outcomes.put(seatId, Outcome.HELD);
+                }
+            }
+            if (outcomes.containsValue(Outcome.HELD)) {
+                version++;
+            }
+            return outcomes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the requested seats that this session holds and reports an outcome for every seat.
+     */
+    public Map<String, Outcome> releaseEach(List<String> requestedIds, String sessionId, long now) {
+        Map<String, Outcome> outcomes = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            touch(now);
+            for (String seatId : requestedIds) {
+                Integer idx = seatId != null ? indexById.get(seatId) : null;
+                if (idx == null) {
+                    outcomes.put(seatId, Outcome.NOT_FOUND);
+                } else if (booked.get(idx)) {
+                    outcomes.put(seatId, Outcome.ALREADY_BOOKED);
+                } else if (isHeldByOther(idx, sessionId, now)) {
+                    outcomes.put(seatId, Outcome.HELD_BY_OTHER);
+                } else if (held.get(idx)) {
+                    clearHold(idx);
+                    logChange(idx);
+                    outcomes.put(seatId, Outcome.RELEASED);
+                } else {
+                    outcomes.put(seatId, Outcome.NOT_HELD);
+                }
+            }
+            if (outcomes.containsValue(Outcome.RELEASED)) {
+                version++;
+            }
+            return outcomes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pushes the expiry of every live hold owned by the session out to expiresAt.
+     * Returns the ids of the seats that were extended.
+     */
+    public List<String> extendHolds(String sessionId, long expiresAt, long now) {
+        List<String> extended = new ArrayList<>();
+        if (sessionId == null) {
+            return extended;
+        }
+        lock.lock();
+        try {
+            touch(now);
+            for (int idx = held.nextSetBit(0); idx >= 0; idx = held.nextSetBit(idx + 1)) {
+                if (holdExpiry[idx] > now && sessionId.equals(holders[idx])) {
+                    holdExpiry[idx] = expiresAt;
+                    extended.add(seatIds[idx]);
+                }
+            }
+            return extended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Clears holds on the requested seats; booked and unknown seats are ignored.
+     * Returns the ids whose hold was actually cleared.
+     */
+    public List<String> release(List<String> requestedIds, long now) {
+        lock.lock();
+        try {
+            touch(now);
+            List<String> released = new ArrayList<>();
+            for (String seatId : requestedIds) {
+                Integer idx = indexById.get(seatId);
+                if (idx != null && !booked.get(idx) && held.get(idx)) {
+                    clearHold(idx);
+                    logChange(idx);
+                    released.add(seatId);
+                }
+            }
+            if (!released.isEmpty()) {
+                version++;
+            }
+            return released;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks every requested seat as booked, or none of them. Seats held by the same session
+     * (or whose hold has lapsed) may be booked; seats held by anyone else may not.
+     */
+    public void book(List<String> requestedIds, String sessionId, long now) {
+        int[] indexes = resolve(requestedIds);
+        lock.lock();
+        try {
+            touch(now);
+            for (int idx : indexes) {
+                if (booked.get(idx) || disabled.get(idx) || isHeldByOther(idx, sessionId, now)) {
+                    throw new RuntimeException("Seat is no longer available: " + labels[idx]);
+                }
+            }
+            for (int idx : indexes) {
+                booked.set(idx);
+                clearHold(idx);
+                logChange(idx);
+            }
+            version++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Picks the best block of count adjacent free seats in one row and holds it for the session.
+     * Returns the held seat ids, or an empty list when no row has such a block.
+     *
+     * Blocks are scored by distance from the centre of their row, distance of the row from the
+     * preferred viewing depth, seats outside the preferred type, and whether they would strand a
+     * single free seat next to them; the lowest score wins. The scan only reads the bitsets and
+     * arrays, so apart from the result it allocates nothing.
+     */
+    public List<String> holdBestAvailable(int count, Seat.SeatType preferredType, String sessionId,
+                                          long expiresAt, long now) {
+        lock.lock();
+        try {
+            touch(now);
+            int start = findBestBlock(count, preferredType, sessionId, now);
+            if (start < 0) {
+                return List.of();
+            }
+            List<String> chosen = new ArrayList<>(count);
+            for (int idx = start; idx < start + count; idx++) {
+                held.set(idx);
+                holders[idx] = sessionId;
+                holdExpiry[idx] = expiresAt;
+                logChange(idx);
+                chosen.add(seatIds[idx]);
+            }
+            version++;
+            return chosen;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int findBestBlock(int count, Seat.SeatType preferredType, String sessionId, long now) {
+        int rowCount = rowStarts.length - 1;
+        if (count <= 0 || rowCount == 0) {
+            return -1;
+        }
+        double idealRow = (rowCount - 1) * PREFERRED_ROW_DEPTH;
+        double bestScore = Double.MAX_VALUE;
+        int bestStart = -1;
+
+        for (int row = 0; row < rowCount; row++) {
+            int rowStart = rowStarts[row];
+            int rowEnd = rowStarts[row + 1];
+            double rowCentre = (numbers[rowStart] + numbers[rowEnd - 1]) / 2.0;
+            double halfWidth = Math.max(1.0, (numbers[rowEnd - 1] - numbers[rowStart]) / 2.0);
+            double rowPenalty = Math.abs(row - idealRow) / Math.max(1, rowCount - 1);
+
+            int segmentStart = -1;
+            for (int idx = rowStart; idx <= rowEnd; idx++) {
+                boolean extendsSegment = idx < rowEnd && isFree(idx, sessionId, now)
+                        && (segmentStart < 0 || numbers[idx] == numbers[idx - 1] + 1);
+                if (extendsSegment) {
+                    if (segmentStart < 0) {
+                        segmentStart = idx;
+                    }
+                    continue;
+                }
+                // Segment [segmentStart, idx) of adjacent free seats has ended
+                if (segmentStart >= 0 && idx - segmentStart >= count) {
+                    for (int start = segmentStart; start + count <= idx; start++) {
+                        double blockCentre = (numbers[start] + numbers[start + count - 1]) / 2.0;
+                        double score = Math.abs(blockCentre - rowCentre) / halfWidth + rowPenalty;
+                        if (start - segmentStart == 1) {
+                            score += SINGLE_GAP_PENALTY;
+                        }
+                        if (idx - (start + count) == 1) {
+                            score += SINGLE_GAP_PENALTY;
+                        }
+                        if (preferredType != null) {
+                            for (int seat = start; seat < start + count; seat++) {
+                                if (types[seat] != preferredType) {
+                                    score += CATEGORY_MISMATCH_PENALTY / count;
+                                }
+                            }
+                        }
+                        if (score < bestScore) {
+                            bestScore = score;
+                            bestStart = start;
+                        }
+                    }
+                }
+                // A free seat that is not adjacent to the previous one opens a new segment
+                segmentStart = idx < rowEnd && isFree(idx, sessionId, now) ? idx : -1;
+            }
+        }
+        return bestStart;
+    }
+
+    private boolean isFree(int idx, String sessionId, long now) {
+        return !booked.get(idx) && !disabled.get(idx) && !isHeldByOther(idx, sessionId, now);
+    }
+
+    /**
+     * Clears the holds on the given seats whose deadline has passed. Seats that were extended,
+     * released or booked since the deadline was scheduled are left alone.
+     */
+    public List<String> expireHolds(List<String> candidateIds, long now) {
+        List<String> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            for (String seatId : candidateIds) {
+                Integer idx = indexById.get(seatId);
+                if (idx != null && held.get(idx) && holdExpiry[idx] <= now) {
+                    clearHold(idx);
+                    logChange(idx);
+                    expired.add(seatId);
+                }
+            }
+            if (!expired.isEmpty()) {
+                version++;
+            }
+            return expired;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Visits every hold in the snapshot with its seat id and expiry (epoch millis).
+     */
+    public void forEachHold(ObjLongConsumer<String> consumer) {
+        lock.lock();
+        try {
+            for (int idx = held.nextSetBit(0); idx >= 0; idx = held.nextSetBit(idx + 1)) {
+                consumer.accept(seatIds[idx], holdExpiry[idx]);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns booked seats to the available pool; unknown seats are ignored.
+     */
+    public void unbook(List<String> requestedIds, long now) {
+        lock.lock();
+        try {
+            touch(now);
+            for (String seatId : requestedIds) {
+                Integer idx = indexById.get(seatId);
+                if (idx != null) {
+                    booked.clear(idx);
+                    clearHold(idx);
+                    logChange(idx);
+                }
+            }
+            version++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(String seatId) {
+        return indexById.containsKey(seatId);
+    }
+
+    public int countAvailable() {
+        lock.lock();
+        try {
+            BitSet taken = (BitSet) booked.clone();
+            taken.or(disabled);
+            return seatIds.length - taken.cardinality();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SeatMapLayoutDTO toLayout() {
+        List<String> rows = new ArrayList<>();
+        Map<String, Integer> rowIndexByLabel = new HashMap<>();
+        List<SeatMapLayoutDTO.Category> categories = new ArrayList<>();
+        Map<String, Integer> categoryIndexByKey = new HashMap<>();
+        int[] rowIndex = new int[seatIds.length];
+        int[] category = new int[seatIds.length];
+        int columns = 0;
+
+        for (int i = 0; i < seatIds.length; i++) {
+            final int seat = i;
+            rowIndex[i] = rowIndexByLabel.computeIfAbsent(rowLabels[i], label -> {
+                rows.add(label);
+                return rows.size() - 1;
+            });
+            category[i] = categoryIndexByKey.computeIfAbsent(types[i] + ":" + prices[i], key -> {
+                categories.add(SeatMapLayoutDTO.Category.builder().type(types[seat].name()).price(prices[seat]).build());
+                return categories.size() - 1;
+            });
+            columns = Math.max(columns, numbers[i]);
+        }
+
+        return SeatMapLayoutDTO.builder()
+                .showtimeId(showtimeId)
+                .rows(rows)
+                .columns(columns)
+                .categories(categories)
+                .seatIds(List.of(seatIds))
+                .rowIndex(rowIndex)
+                .number(numbers.clone())
+                .category(category)
+                .build();
+    }
+
+    public SeatMapStatusDTO toStatus(long now) {
+        char[] states = new char[seatIds.length];
+        long snapshotVersion;
+        lock.lock();
+        try {
+            for (int i = 0; i < states.length; i++) {
+                states[i] = stateOf(i, now);
+            }
+            snapshotVersion = version;
+        } finally {
+            lock.unlock();
+        }
+        return SeatMapStatusDTO.builder()
+                .showtimeId(showtimeId)
+                .version(snapshotVersion)
+                .seatCount(states.length)
+                .status(runLengthEncode(states))
+                .build();
+    }
+
+    /**
+     * Every seat as a transient Seat, read under the lock together with the version it reflects,
+     * so a body cached under that version's ETag can never be older than the ETag.
+     */
+    public SeatSnapshot toSeats(long now) {
+        List<Seat> seats = new ArrayList<>(seatIds.length);
+        lock.lock();
+        try {
+            for (int i = 0; i < seatIds.length; i++) {
+                boolean isHeld = stateOf(i, now) == 'H';
+                Seat seat = new Seat();
+                seat.setId(seatIds[i]);
+                seat.setRow(rowLabels[i]);
+                seat.setNumber(numbers[i]);
+                seat.setPrice(prices[i]);
+                seat.setType(types[i]);
+                seat.setIsBooked(booked.get(i));
+                seat.setIsDisabled(disabled.get(i));
+                seat.setIsHeld(isHeld);
+                seat.setHoldExpiry(isHeld ? toLocalDateTime(holdExpiry[i]) : null);
+                seats.add(seat);
+            }
+            return new SeatSnapshot(version, seats);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current state of every seat changed after fromVersion, or null when the change
+     * log no longer reaches back that far and the caller needs a full snapshot instead.
+     */
+    public SeatMapDeltaDTO changesSince(long fromVersion, long now) {
+        lock.lock();
+        try {
+            if (fromVersion > version) {
+                return null;
+            }
+            long retained = Math.min(changeCount, CHANGE_LOG_SIZE);
+            long oldestComplete = changeCount > CHANGE_LOG_SIZE
+                    ? changeVersions[(int) (changeCount % CHANGE_LOG_SIZE)]
+                    : initialVersion;
+            if (fromVersion < oldestComplete) {
+                return null;
+            }
+            BitSet changed = new BitSet(seatIds.length);
+            for (long i = changeCount - 1; i >= changeCount - retained; i--) {
+                int slot = (int) (i % CHANGE_LOG_SIZE);
+                if (changeVersions[slot] <= fromVersion) {
+                    break;
+                }
+                changed.set(changeSeats[slot]);
+            }
+            List<SeatDeltaEvent.SeatChange> changes = new ArrayList<>(changed.cardinality());
+            for (int idx = changed.nextSetBit(0); idx >= 0; idx = changed.nextSetBit(idx + 1)) {
+                changes.add(new SeatDeltaEvent.SeatChange(seatIds[idx], toState(stateOf(idx, now))));
+            }
+            return SeatMapDeltaDTO.builder()
+                    .showtimeId(showtimeId)
+                    .fromVersion(fromVersion)
+                    .version(version)
+                    .changes(changes)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The changes since the previous call, read like {@link #changesSince} so the states and the
+     * version always agree, for the live seat-map frame. Returns null when the change log no
+     * longer reaches back to the previous call.
+     */
+    SeatMapDeltaDTO takeUnpublishedChanges(long now) {
+        lock.lock();
+        try {
+            SeatMapDeltaDTO delta = changesSince(publishedVersion, now);
+            publishedVersion = version;
+            return delta;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static SeatDeltaEvent.State toState(char state) {
+        switch (state) {
+            case 'B':
+                return SeatDeltaEvent.State.BOOKED;
+            case 'H':
+                return SeatDeltaEvent.State.HELD;
+            case 'D':
+                return SeatDeltaEvent.State.DISABLED;
+            default:
+                return SeatDeltaEvent.State.AVAILABLE;
+        }
+    }
+
+    private char stateOf(int idx, long now) {
+        if (disabled.get(idx)) {
+            return 'D';
+        }
+        if (booked.get(idx)) {
+            return 'B';
+        }
+        if (held.get(idx) && holdExpiry[idx] > now) {
+            return 'H';
+        }
+        return 'A';
+    }
+
+    private static String runLengthEncode(char[] states) {
+        StringBuilder encoded = new StringBuilder();
+        int i = 0;
+        while (i < states.length) {
+            int run = 1;
+            while (i + run < states.length && states[i + run] == states[i]) {
+                run++;
+            }
+            encoded.append(run).append(states[i]);
+            i += run;
+        }
+        return encoded.toString();
+    }
+
+    private int[] resolve(List<String> requestedIds) {
+        int[] indexes = new int[requestedIds.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            String seatId = requestedIds.get(i);
+            Integer idx = seatId != null ? indexById.get(seatId) : null;
+            if (idx == null) {
+                throw new RuntimeException("Seat not found: " + seatId);
+            }
+            indexes[i] = idx;
+        }
+        return indexes;
+    }
+
+    private boolean isHeldByOther(int idx, String sessionId, long now) {
+        if (!held.get(idx) || holdExpiry[idx] <= now) {
+            return false;
+        }
+        return sessionId == null || !sessionId.equals(holders[idx]);
+    }
+
+    private void clearHold(int idx) {
+        held.clear(idx);
+        holders[idx] = null;
+        holdExpiry[idx] = 0L;
+    }
+
+    // Called under the lock before the version bump of the same mutation.
+    private void logChange(int idx) {
+        int slot = (int) (changeCount % CHANGE_LOG_SIZE);
+        changeVersions[slot] = version + 1;
+        changeSeats[slot] = idx;
+        changeCount++;
+    }
+
+    private void touch(long now) {
+        lastAccess = now;
+    }
+
+    public record SeatSnapshot(long version, List<Seat> seats) {
+    }
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -5,19 +5,24 @@ import com.revticket.dto.ShowtimeResponse;
 import com.revticket.entity.Movie;
 import com.revticket.entity.Showtime;
 import com.revticket.entity.Theater;
+import com.revticket.repository.BookingRepository;
 import com.revticket.repository.MovieRepository;
 import com.revticket.repository.ShowtimeRepository;
 import com.revticket.repository.TheaterRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,56 +40,57 @@ public class ShowtimeService {
     @Autowired
     private SeatService seatService;
 
-    @Transactional(readOnly = true)
+    @Autowired
+    private ShowtimeListingCache showtimeListingCache;
+
+    @Autowired
+    private ShowtimeAvailabilityService showtimeAvailabilityService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private MovieStatisticsService movieStatisticsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     public List<ShowtimeResponse> getAllShowtimes() {
-        return showtimeRepository.findAllByOrderByShowDateTimeAsc()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return cachedListing(new ShowtimeListingCache.Key(null, null, null, null),
+                () -> showtimeRepository.findAllByOrderByShowDateTimeAsc());
     }
 
-    @Transactional(readOnly = true)
     public List<ShowtimeResponse> getShowtimesByMovie(String movieId) {
-        return showtimeRepository.findByMovieId(movieId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return cachedListing(new ShowtimeListingCache.Key(movieId, null, null, null),
+                () -> showtimeRepository.findByMovieId(movieId));
     }
 
-    @Transactional(readOnly = true)
     public List<ShowtimeResponse> getShowtimesByTheater(String theaterId) {
-        return showtimeRepository.findByTheaterId(theaterId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return cachedListing(new ShowtimeListingCache.Key(null, null, null, theaterId),
+                () -> showtimeRepository.findByTheaterId(theaterId));
     }
 
-    @Transactional(readOnly = true)
     public List<ShowtimeResponse> getShowtimesByMovieAndDate(String movieId, LocalDate date) {
         LocalDateTime start = date.atStartOfDay();
         LocalDateTime end = date.atTime(LocalTime.MAX);
-        return showtimeRepository.findByMovieIdAndShowDateBetween(movieId, start, end)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return cachedListing(new ShowtimeListingCache.Key(movieId, date, null, null),
+                () -> showtimeRepository.findByMovieIdAndShowDateBetween(movieId, start, end));
     }
 
-    @Transactional(readOnly = true)
+    // The cache key and the query use the same normalized city, so every spelling the key
+    // merges gets the same showtimes
     public List<ShowtimeResponse> getShowtimesByMovieAndCity(String movieId, String city) {
-        return showtimeRepository.findByMovieIdAndCity(movieId, city)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        String normalizedCity = ShowtimeListingCache.normalizeCity(city);
+        return cachedListing(new ShowtimeListingCache.Key(movieId, null, normalizedCity, null),
+                () -> showtimeRepository.findByMovieIdAndCity(movieId, normalizedCity));
     }
 
-    @Transactional(readOnly = true)
     public List<ShowtimeResponse> getShowtimesByMovieDateAndCity(String movieId, LocalDate date, String city) {
         LocalDateTime start = date.atStartOfDay();
         LocalDateTime end = date.atTime(LocalTime.MAX);
-        return showtimeRepository.findByMovieIdCityAndShowDateBetween(movieId, city, start, end)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        String normalizedCity = ShowtimeListingCache.normalizeCity(city);
+        return cachedListing(new ShowtimeListingCache.Key(movieId, date, normalizedCity, null),
+                () -> showtimeRepository.findByMovieIdCityAndShowDateBetween(movieId, normalizedCity, start, end));
     }
 
     @Transactional(readOnly = true)
@@ -138,6 +144,8 @@ public class ShowtimeService {
         Showtime showtime = new Showtime();
         applyRequest(showtime, request, movie, theater, true);
         Showtime saved = showtimeRepository.save(showtime);
+        showtimeListingCache.invalidate(saved);
+        movieStatisticsService.showtimesAdded(movie.getId(), 1);
         
         if (request.getSeatLayout() != null && !request.getSeatLayout().isEmpty()) {
             seatService.initializeSeatsWithLayout(saved.getId(), request.getSeatLayout());
@@ -158,15 +166,33 @@ public class ShowtimeService {
         Theater theater = theaterRepository.findById(Objects.requireNonNullElse(request.getTheaterId(), ""))
                 .orElseThrow(() -> new RuntimeException("Theater not found"));
 
+        showtimeListingCache.invalidate(showtime);
+        String previousMovieId = showtime.getMovie().getId();
         applyRequest(showtime, request, movie, theater, false);
-        return mapToResponse(showtimeRepository.save(showtime));
+        Showtime saved = showtimeRepository.save(showtime);
+        if (!previousMovieId.equals(movie.getId())) {
+            long bookings = bookingRepository.countByShowtimeId(saved.getId());
+            movieStatisticsService.showtimesRemoved(previousMovieId, 1);
+            movieStatisticsService.bookingsRemoved(previousMovieId, bookings);
+            movieStatisticsService.showtimesAdded(movie.getId(), 1);
+            movieStatisticsService.bookingsAdded(movie.getId(), bookings);
+        }
+        showtimeListingCache.invalidate(saved);
+        showtimeAvailabilityService.evict(List.of(saved.getId()));
+        return mapToResponse(saved);
     }
 
     @Transactional
     public void deleteShowtime(String id) {
         Showtime showtime = showtimeRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Showtime not found"));
+        // Bookings go with the showtime through the cascade
+        long bookings = bookingRepository.countByShowtimeId(showtime.getId());
         showtimeRepository.delete(showtime);
+        showtimeListingCache.invalidate(showtime);
+        movieStatisticsService.showtimesRemoved(showtime.getMovie().getId(), 1);
+        movieStatisticsService.bookingsRemoved(showtime.getMovie().getId(), bookings);
+        showtimeAvailabilityService.evict(List.of(showtime.getId()));
     }
 
     @Transactional
@@ -181,7 +207,9 @@ public class ShowtimeService {
             showtime.setStatus(Showtime.ShowStatus.ACTIVE);
         }
         
-        return mapToResponse(showtimeRepository.save(showtime));
+        Showtime saved = showtimeRepository.save(showtime);
+        showtimeListingCache.invalidate(saved);
+        return mapToResponse(saved);
     }
 
     private void applyRequest(Showtime showtime,
@@ -234,6 +262,28 @@ public class ShowtimeService {
         return !conflictingShows.isEmpty();
     }
 
+    // Listings come from the cache; seat counts are overlaid so seat sales never evict them
+    private List<ShowtimeResponse> cachedListing(ShowtimeListingCache.Key key, Supplier<List<Showtime>> query) {
+        List<ShowtimeResponse> showtimes = showtimeListingCache.get(key, () -> {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            return readOnly.execute(status -> query.get().stream().map(this::mapToResponse).toList());
+        });
+        if (showtimes.isEmpty()) {
+            return showtimes;
+        }
+        Map<String, Integer> available = showtimeAvailabilityService.getAvailableSeats(
+                showtimes.stream().map(ShowtimeResponse::getId).toList());
+        return showtimes.stream()
+                .map(showtime -> {
+                    Integer seats = available.get(showtime.getId());
+                    return seats == null || seats.equals(showtime.getAvailableSeats())
+                            ? showtime
+                            : showtime.toBuilder().availableSeats(seats).build();
+                })
+                .toList();
+    }
+
     private ShowtimeResponse mapToResponse(Showtime showtime) {
         Movie movie = showtime.getMovie();
         Theater theater = showtime.getTheater();
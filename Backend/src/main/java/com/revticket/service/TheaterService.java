@@ -3,6 +3,7 @@ package com.revticket.service;
 import com.revticket.dto.TheaterRequest;
 import com.revticket.dto.TheaterResponse;
 import com.revticket.entity.Theater;
+import com.revticket.repository.ShowtimeRepository;
 import com.revticket.repository.TheaterRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,15 @@ public class TheaterService {
     @Autowired
     private TheaterRepository theaterRepository;
 
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private ShowtimeListingCache showtimeListingCache;
+
+    @Autowired
+    private MovieStatisticsService movieStatisticsService;
+
     @Transactional(readOnly = true)
     public List<TheaterResponse> getAllTheaters(boolean activeOnly) {
         List<Theater> theaters = activeOnly
@@ -56,6 +66,7 @@ public class TheaterService {
         Theater theater = theaterRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Theater not found"));
         applyRequest(theater, request);
+        showtimeListingCache.invalidateTheater(theater.getId());
         return mapToResponse(theaterRepository.save(theater));
     }
 
@@ -64,6 +75,7 @@ public class TheaterService {
         Theater theater = theaterRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Theater not found"));
         theater.setIsActive(isActive);
+        showtimeListingCache.invalidateTheater(theater.getId());
         return mapToResponse(theaterRepository.save(theater));
     }
 
@@ -71,7 +83,14 @@ public class TheaterService {
     public void deleteTheater(String id) {
         Theater theater = theaterRepository.findById(Objects.requireNonNullElse(id, ""))
                 .orElseThrow(() -> new RuntimeException("Theater not found"));
+        // Showtimes and their bookings go with the theater through the cascade
+        List<ShowtimeRepository.MovieCounts> removed = showtimeRepository.countByMovieForTheater(theater.getId());
         theaterRepository.delete(theater);
+        removed.forEach(counts -> {
+            movieStatisticsService.showtimesRemoved(counts.getMovieId(), counts.getShows());
+            movieStatisticsService.bookingsRemoved(counts.getMovieId(), counts.getBookings());
+        });
+        showtimeListingCache.invalidateTheater(theater.getId());
     }
 
     private void applyRequest(Theater theater, TheaterRequest request) {
@@ -0,0 +1,252 @@
+package com.revticket.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revticket.dto.ArchivedBooking;
+import com.revticket.dto.BookingReportFilter;
+import com.revticket.dto.BookingResponse;
+import com.revticket.entity.Booking;
+import com.revticket.entity.Movie;
+import com.revticket.entity.Payment;
+import com.revticket.entity.Showtime;
+import com.revticket.entity.Theater;
+import com.revticket.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Archived bookings are written to day partitions, verified, and read back through the admin
+ * archive listing with every payment attempt they had.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Import({BookingArchiveService.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class BookingArchiveServiceTest {
+
+    @TempDir
+    Path archiveDir;
+
+    @Autowired
+    private BookingArchiveService archiveService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(archiveService, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(archiveService, "objectMapper", objectMapper);
+    }
+
+    @Test
+    void archivedBookingsReadBackWithEveryPaymentAttempt() throws IOException {
+        allowSeveralPaymentsPerBooking();
+        Showtime showtime = persistShowtime();
+        Booking paid = persistBooking(showtime, "Asha", Booking.BookingStatus.CONFIRMED);
+        persistPayment(paid, Payment.PaymentStatus.FAILED, "order-1");
+        persistPayment(paid, Payment.PaymentStatus.SUCCESS, "order-2");
+        Booking cancelled = persistBooking(showtime, "Ravi", Booking.BookingStatus.CANCELLED);
+        entityManager.flush();
+
+        int archived = archiveService.archiveBookings(List.of(paid.getId(), cancelled.getId()));
+
+        assertThat(archived).isEqualTo(2);
+        List<ArchivedBooking> lines = readArchivedLines();
+        assertThat(lines).extracting(ArchivedBooking::getId).containsExactlyInAnyOrder(paid.getId(), cancelled.getId());
+        ArchivedBooking paidLine = lines.stream().filter(line -> line.getId().equals(paid.getId())).findFirst().orElseThrow();
+        assertThat(paidLine.getPayments()).extracting(ArchivedBooking.Payment::getRazorpayOrderId)
+                .containsExactlyInAnyOrder("order-1", "order-2");
+        assertThat(paidLine.getSeats()).containsExactly("seat-1", "seat-2");
+
+        Page<BookingResponse> page = archiveService.findBookings(filter(null, null));
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(archiveService.findBookings(filter("ravi", null)).getContent())
+                .extracting(BookingResponse::getId).containsExactly(cancelled.getId());
+        assertThat(archiveService.findBookings(filter(null, "CONFIRMED")).getContent())
+                .extracting(BookingResponse::getId).containsExactly(paid.getId());
+    }
+
+    @Test
+    void linesWrittenWithASinglePaymentStillRead() throws IOException {
+        String line = "{\"id\":\"b1\",\"status\":\"CONFIRMED\",\"bookingDate\":\"2026-10-01T10:00:00\","
+                + "\"payment\":{\"id\":\"p1\",\"status\":\"SUCCESS\",\"amount\":400.0}}";
+
+        ArchivedBooking booking = objectMapper.readValue(line, ArchivedBooking.class);
+
+        assertThat(booking.getPayments()).extracting(ArchivedBooking.Payment::getId).containsExactly("p1");
+    }
+
+    @Test
+    void fileThatDoesNotReadBackIsDiscarded() throws IOException {
+        Booking booking = persistBooking(persistShowtime(), "Asha", Booking.BookingStatus.CONFIRMED);
+        entityManager.flush();
+        ObjectMapper misreading = spy(objectMapper);
+        doReturn(objectMapper.createObjectNode().put("id", "someone-else")).when(misreading).readTree(anyString());
+        ReflectionTestUtils.setField(archiveService, "objectMapper", misreading);
+
+        assertThatThrownBy(() -> archiveService.archiveBookings(List.of(booking.getId())))
+                .isInstanceOf(UncheckedIOException.class)
+                .rootCause().hasMessageContaining("does not match the rows written at line 1");
+
+        assertThat(archivedFiles()).isEmpty();
+    }
+
+    @Test
+    void rolledBackArchiveRemovesItsFiles() throws IOException {
+        Booking booking = persistBooking(persistShowtime(), "Asha", Booking.BookingStatus.CONFIRMED);
+        entityManager.flush();
+
+        archiveService.archiveBookings(List.of(booking.getId()));
+        assertThat(archivedFiles()).hasSize(1);
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        assertThat(archivedFiles()).isEmpty();
+    }
+
+    private List<Path> archivedFiles() throws IOException {
+        Path root = archiveDir.resolve("bookings");
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private BookingReportFilter filter(String search, String status) {
+        BookingReportFilter filter = new BookingReportFilter();
+        filter.setFromDate(LocalDate.now().minusDays(1));
+        filter.setToDate(LocalDate.now().plusDays(1));
+        filter.setSearchTerm(search);
+        filter.setStatus(status);
+        filter.setPage(0);
+        filter.setSize(10);
+        return filter;
+    }
+
+    private List<ArchivedBooking> readArchivedLines() throws IOException {
+        List<ArchivedBooking> lines = new ArrayList<>();
+        for (Path part : archivedFiles()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(part)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(objectMapper.readValue(line, ArchivedBooking.class));
+                }
+            }
+        }
+        return lines;
+    }
+
+    // The entity maps one payment per booking, but payments tables created before that
+    // constraint hold every attempt; the archive must keep them all. H2 keeps the unique index
+    // while the foreign key uses it, so both go.
+    private void allowSeveralPaymentsPerBooking() {
+        List<String> constraints = jdbcTemplate.queryForList(
+                "SELECT tc.CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc " +
+                "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE k ON k.CONSTRAINT_NAME = tc.CONSTRAINT_NAME " +
+                "WHERE tc.TABLE_NAME = 'PAYMENTS' AND k.COLUMN_NAME = 'BOOKING_ID' " +
+                "AND tc.CONSTRAINT_TYPE IN ('FOREIGN KEY', 'UNIQUE') ORDER BY tc.CONSTRAINT_TYPE",
+                String.class);
+        constraints.forEach(name -> jdbcTemplate.execute("ALTER TABLE payments DROP CONSTRAINT " + name));
+    }
+
+    private Showtime persistShowtime() {
+        Movie movie = new Movie();
+        movie.setTitle("Movie");
+        movie.setDuration(120);
+        movie.setReleaseDate(LocalDate.now());
+        entityManager.persist(movie);
+
+        Theater theater = new Theater();
+        theater.setName("Theater");
+        theater.setLocation("City");
+        theater.setAddress("Street");
+        entityManager.persist(theater);
+
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater(theater);
+        showtime.setScreen("screen-1");
+        showtime.setShowDateTime(LocalDateTime.now().minusDays(1));
+        showtime.setTicketPrice(200.0);
+        showtime.setTotalSeats(100);
+        showtime.setAvailableSeats(98);
+        entityManager.persist(showtime);
+        return showtime;
+    }
+
+    private Booking persistBooking(Showtime showtime, String customer, Booking.BookingStatus status) {
+        User user = new User();
+        user.setEmail(customer.toLowerCase() + "@example.com");
+        user.setName(customer);
+        user.setPassword("secret");
+        user.setRole(User.Role.USER);
+        entityManager.persist(user);
+
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setShowtime(showtime);
+        booking.setSeats(List.of("seat-1", "seat-2"));
+        booking.setSeatLabels(List.of("A1", "A2"));
+        booking.setTotalAmount(400.0);
+        booking.setStatus(status);
+        booking.setCustomerName(customer);
+        booking.setCustomerEmail(user.getEmail());
+        booking.setCustomerPhone("9999999999");
+        entityManager.persist(booking);
+        return booking;
+    }
+
+    private void persistPayment(Booking booking, Payment.PaymentStatus status, String orderId) {
+        Payment payment = new Payment();
+        payment.setBooking(booking);
+        payment.setAmount(400.0);
+        payment.setPaymentMethod(Payment.PaymentMethod.UPI);
+        payment.setStatus(status);
+        payment.setRazorpayOrderId(orderId);
+        entityManager.persist(payment);
+    }
+}
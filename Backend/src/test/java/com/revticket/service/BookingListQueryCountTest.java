@@ -0,0 +1,156 @@
+package com.revticket.service;
+
+import com.revticket.dto.BookingResponse;
+import com.revticket.entity.Booking;
+import com.revticket.entity.Movie;
+import com.revticket.entity.Screen;
+import com.revticket.entity.Showtime;
+import com.revticket.entity.Theater;
+import com.revticket.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Booking list endpoints must cost a fixed number of SQL statements, however many bookings they
+ * return. Every booking gets its own movie, theater and showtime so any per-row lazy load
+ * shows up as a growing count.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(BookingService.class)
+class BookingListQueryCountTest {
+
+    private static final int SMALL = 2;
+    private static final int LARGE = 20;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private SettingsService settingsService;
+    @MockBean
+    private OutboxService outboxService;
+    @MockBean
+    private SeatInventoryService seatInventoryService;
+    @MockBean
+    private SeatTemplateService seatTemplateService;
+    @MockBean
+    private ShowtimeAvailabilityService showtimeAvailabilityService;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"user", "all", "cancellations"})
+    void statementCountDoesNotGrowWithResultSize(String listing) {
+        User owner = persistUser("owner@example.com");
+        Supplier<List<BookingResponse>> query = switch (listing) {
+            case "user" -> () -> bookingService.getUserBookings(owner.getId());
+            case "all" -> bookingService::getAllBookings;
+            default -> bookingService::getCancellationRequests;
+        };
+
+        persistBookings(owner, 0, SMALL);
+        long small = countStatements(query, SMALL);
+        persistBookings(owner, SMALL, LARGE - SMALL);
+        long large = countStatements(query, LARGE);
+
+        assertThat(large).as("statements for %d vs %d %s bookings", LARGE, SMALL, listing).isEqualTo(small);
+        assertThat(small).isLessThanOrEqualTo(8);
+    }
+
+    private long countStatements(Supplier<List<BookingResponse>> query, int expectedRows) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingResponse> responses = query.get();
+
+        assertThat(responses).hasSize(expectedRows);
+        assertThat(responses).allSatisfy(response -> {
+            assertThat(response.getMovieTitle()).isNotEmpty();
+            assertThat(response.getTheaterName()).isNotEmpty();
+            assertThat(response.getScreen()).isEqualTo("Screen 1");
+            assertThat(response.getSeatLabels()).hasSize(2);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void persistBookings(User owner, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            Movie movie = new Movie();
+            movie.setTitle("Movie " + i);
+            movie.setDuration(120);
+            movie.setReleaseDate(LocalDate.now());
+            movie.setGenre(List.of("Drama", "Comedy"));
+            movie.setCrew(List.of("Director " + i));
+            entityManager.persist(movie);
+
+            Theater theater = new Theater();
+            theater.setName("Theater " + i);
+            theater.setLocation("City");
+            theater.setAddress("Street " + i);
+            entityManager.persist(theater);
+
+            Screen screen = new Screen();
+            screen.setName("Screen 1");
+            screen.setTotalSeats(100);
+            screen.setTheater(theater);
+            entityManager.persist(screen);
+
+            Showtime showtime = new Showtime();
+            showtime.setMovie(movie);
+            showtime.setTheater(theater);
+            showtime.setScreen(screen.getId());
+            showtime.setShowDateTime(LocalDateTime.now().plusDays(3));
+            showtime.setTicketPrice(200.0);
+            showtime.setTotalSeats(100);
+            showtime.setAvailableSeats(98);
+            entityManager.persist(showtime);
+
+            Booking booking = new Booking();
+            booking.setUser(owner);
+            booking.setShowtime(showtime);
+            booking.setSeats(List.of("s" + i + "a", "s" + i + "b"));
+            booking.setSeatLabels(List.of("A1", "A2"));
+            booking.setTotalAmount(400.0);
+            // Older bookings have no screen name snapshot and are resolved through the screens table
+            booking.setScreenName(i % 2 == 0 ? "Screen 1" : null);
+            booking.setStatus(Booking.BookingStatus.CANCELLATION_PENDING);
+            booking.setCancellationRequestedAt(LocalDateTime.now());
+            booking.setCustomerName("Customer " + i);
+            booking.setCustomerEmail("customer" + i + "@example.com");
+            booking.setCustomerPhone("9999999999");
+            entityManager.persist(booking);
+        }
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName("Owner");
+        user.setPassword("secret");
+        user.setRole(User.Role.USER);
+        entityManager.persist(user);
+        return user;
+    }
+}
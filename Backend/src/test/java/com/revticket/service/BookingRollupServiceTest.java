@@ -0,0 +1,113 @@
+package com.revticket.service;
+
+import com.revticket.entity.Booking;
+import com.revticket.entity.Movie;
+import com.revticket.entity.Showtime;
+import com.revticket.entity.Theater;
+import com.revticket.event.BookingChangedEvent;
+import com.revticket.repository.BookingDailyRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class BookingRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 1);
+
+    private BookingDailyRollupRepository rollupRepository;
+    private BookingRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        rollupRepository = mock(BookingDailyRollupRepository.class);
+        rollupService = new BookingRollupService();
+        ReflectionTestUtils.setField(rollupService, "rollupRepository", rollupRepository);
+    }
+
+    @Test
+    void reassigningSeatsMovesOnlyTheSeatCount() {
+        Booking booking = booking(Booking.BookingStatus.CONFIRMED, List.of("A1", "A2"));
+        BookingChangedEvent.State before = BookingChangedEvent.State.of(booking);
+        booking.setSeats(List.of("B1", "B2", "B3"));
+
+        rollupService.onBookingChanged(BookingChangedEvent.updated(booking, before));
+
+        verify(rollupRepository).addDelta(DAY, "theater-1", "movie-1", "CONFIRMED", 0L, 1L, 0.0, 0.0);
+    }
+
+    @Test
+    void statusChangeMovesTheBookingBetweenStatusRows() {
+        Booking booking = booking(Booking.BookingStatus.CANCELLATION_PENDING, List.of("A1", "A2"));
+        BookingChangedEvent.State before = BookingChangedEvent.State.of(booking);
+        booking.setStatus(Booking.BookingStatus.CANCELLED);
+        booking.setRefundAmount(360.0);
+
+        rollupService.onBookingChanged(BookingChangedEvent.updated(booking, before));
+
+        verify(rollupRepository).addDelta(DAY, "theater-1", "movie-1", "CANCELLATION_PENDING", -1L, -2L, -400.0, 0.0);
+        verify(rollupRepository).addDelta(DAY, "theater-1", "movie-1", "CANCELLED", 1L, 2L, 400.0, 360.0);
+    }
+
+    @Test
+    void unchangedBookingWritesNothing() {
+        Booking booking = booking(Booking.BookingStatus.CONFIRMED, List.of("A1"));
+
+        rollupService.onBookingChanged(BookingChangedEvent.updated(booking, BookingChangedEvent.State.of(booking)));
+
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void bulkChangesOfOneRowAreMergedIntoOneUpsert() {
+        Booking first = booking(Booking.BookingStatus.CONFIRMED, List.of("A1"));
+        Booking second = booking(Booking.BookingStatus.CONFIRMED, List.of("A2", "A3"));
+
+        rollupService.onBookingChanged(new BookingChangedEvent(List.of(
+                new BookingChangedEvent.Change(first, null, BookingChangedEvent.State.of(first)),
+                new BookingChangedEvent.Change(second, null, BookingChangedEvent.State.of(second)))));
+
+        verify(rollupRepository).addDelta(DAY, "theater-1", "movie-1", "CONFIRMED", 2L, 3L, 800.0, 0.0);
+        verify(rollupRepository, never()).addDelta(eq(DAY), anyString(), anyString(), eq("CANCELLED"),
+                anyLong(), anyLong(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void purgedBookingsStayInTheRollup() {
+        Booking booking = booking(Booking.BookingStatus.CONFIRMED, List.of("A1"));
+
+        rollupService.onBookingChanged(BookingChangedEvent.purged(List.of(booking)));
+
+        verifyNoInteractions(rollupRepository);
+    }
+
+    private static Booking booking(Booking.BookingStatus status, List<String> seats) {
+        Movie movie = new Movie();
+        movie.setId("movie-1");
+        Theater theater = new Theater();
+        theater.setId("theater-1");
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater(theater);
+
+        Booking booking = new Booking();
+        booking.setShowtime(showtime);
+        booking.setStatus(status);
+        booking.setSeats(new ArrayList<>(seats));
+        booking.setTotalAmount(400.0);
+        booking.setBookingDate(DAY.atTime(10, 0));
+        return booking;
+    }
+}
@@ -0,0 +1,158 @@
+package com.revticket.service;
+
+import com.revticket.dto.BookingReportFilter;
+import com.revticket.entity.Booking;
+import com.revticket.entity.Movie;
+import com.revticket.entity.Showtime;
+import com.revticket.entity.Theater;
+import com.revticket.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bookings are indexed under their normalized name, email and phone terms, and a search matches
+ * when every query word finds a term, exactly or by prefix. H2 runs in MySQL mode for the
+ * index's INSERT IGNORE.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-search;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BookingSearchService.class)
+class BookingSearchServiceTest {
+
+    @Autowired
+    private BookingSearchService searchService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private SettingsService settingsService;
+
+    @Test
+    void bookingIsIndexedUnderItsNormalizedTerms() {
+        Booking booking = persistBooking("  Asha   Rao ", "Asha.Rao@Example.com", "+91 98765-43210");
+
+        searchService.index(booking);
+
+        assertThat(jdbcTemplate.queryForList("SELECT term FROM booking_search_terms", String.class))
+                .containsExactlyInAnyOrder(booking.getId(), "asha rao", "asha", "rao",
+                        "asha.rao@example.com", "asha.rao", "919876543210");
+    }
+
+    @Test
+    void everyQueryWordMustMatchATermByPrefix() {
+        Booking asha = persistBooking("Asha Rao", "asha@example.com", "9876543210");
+        Booking ravi = persistBooking("Ravi Rao", "ravi@example.com", "9123456780");
+        searchService.index(asha);
+        searchService.index(ravi);
+
+        assertThat(search("RAO", false)).containsExactlyInAnyOrder(asha.getId(), ravi.getId());
+        assertThat(search("as ra", false)).containsExactly(asha.getId());
+        assertThat(search("98765-", false)).containsExactly(asha.getId());
+        // Single letters are too broad for a prefix scan and are ignored
+        assertThat(search("r rav", false)).containsExactly(ravi.getId());
+        assertThat(search("a", false)).isEmpty();
+    }
+
+    @Test
+    void exactSearchOnlyMatchesWholeTerms() {
+        Booking asha = persistBooking("Asha Rao", "asha@example.com", "9876543210");
+        searchService.index(asha);
+
+        assertThat(search("asha@example.com", true)).containsExactly(asha.getId());
+        assertThat(search("ash", true)).isEmpty();
+    }
+
+    @Test
+    void prefixWordsAreEscapedForLike() {
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+
+        searchService.appendFilters(sql, params, filter("50%_off!"), false);
+
+        assertThat(sql.toString()).contains("t.term LIKE ? ESCAPE '!'");
+        assertThat(params).containsExactly("50!%!_off!!%");
+    }
+
+    private List<String> search(String query, boolean exact) {
+        entityManager.flush();
+        return searchService.search(filter(query), exact, 0, 10, false).bookings().stream()
+                .map(Booking::getId)
+                .toList();
+    }
+
+    private BookingReportFilter filter(String searchTerm) {
+        BookingReportFilter filter = new BookingReportFilter();
+        filter.setSearchTerm(searchTerm);
+        return filter;
+    }
+
+    private Booking persistBooking(String customer, String email, String phone) {
+        Movie movie = new Movie();
+        movie.setTitle("Movie");
+        movie.setDuration(120);
+        movie.setReleaseDate(LocalDate.now());
+        entityManager.persist(movie);
+
+        Theater theater = new Theater();
+        theater.setName("Theater");
+        theater.setLocation("City");
+        theater.setAddress("Street");
+        entityManager.persist(theater);
+
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater(theater);
+        showtime.setScreen("screen-1");
+        showtime.setShowDateTime(LocalDateTime.now().plusDays(1));
+        showtime.setTicketPrice(200.0);
+        showtime.setTotalSeats(100);
+        showtime.setAvailableSeats(99);
+        entityManager.persist(showtime);
+
+        User user = new User();
+        user.setEmail(email);
+        user.setName(customer);
+        user.setPassword("secret");
+        user.setRole(User.Role.USER);
+        entityManager.persist(user);
+
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setShowtime(showtime);
+        booking.setSeats(List.of("seat-1"));
+        booking.setSeatLabels(List.of("A1"));
+        booking.setTotalAmount(200.0);
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setCustomerName(customer);
+        booking.setCustomerEmail(email);
+        booking.setCustomerPhone(phone);
+        entityManager.persist(booking);
+        entityManager.flush();
+        return booking;
+    }
+}
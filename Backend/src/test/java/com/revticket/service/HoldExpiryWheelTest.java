@@ -0,0 +1,74 @@
+package com.revticket.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HoldExpiryWheelTest {
+
+    private static final long TICK = 100;
+    private static final long START = 1_000_000;
+
+    @Test
+    void entriesFallDueOnceTheirDeadlineTickIsReached() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(TICK, 8, START);
+        wheel.schedule("showtime-1", "A1", START + 250);
+        wheel.schedule("showtime-1", "A2", START + 500);
+
+        assertThat(wheel.advance(START + 200)).isEmpty();
+        assertThat(wheel.advance(START + 300)).extracting(HoldExpiryWheel.Entry::getSeatId).containsExactly("A1");
+        assertThat(wheel.advance(START + 300)).isEmpty();
+        assertThat(wheel.advance(START + 500)).extracting(HoldExpiryWheel.Entry::getSeatId).containsExactly("A2");
+    }
+
+    @Test
+    void entriesOfALaterRevolutionWaitInTheirSlot() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(TICK, 4, START);
+        // Same slot as START + 100, one revolution later
+        wheel.schedule("showtime-1", "A1", START + 500);
+
+        assertThat(wheel.advance(START + 100)).isEmpty();
+        assertThat(wheel.advance(START + 400)).isEmpty();
+        assertThat(wheel.advance(START + 500)).extracting(HoldExpiryWheel.Entry::getSeatId).containsExactly("A1");
+    }
+
+    @Test
+    void advancingPastAWholeRevolutionReturnsEverythingDue() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(TICK, 4, START);
+        wheel.schedule("showtime-1", "A1", START + 100);
+        wheel.schedule("showtime-1", "A2", START + 700);
+        wheel.schedule("showtime-1", "A3", START + 5_000);
+
+        assertThat(wheel.advance(START + 1_000)).extracting(HoldExpiryWheel.Entry::getSeatId)
+                .containsExactlyInAnyOrder("A1", "A2");
+        assertThat(wheel.advance(START + 5_000)).extracting(HoldExpiryWheel.Entry::getSeatId).containsExactly("A3");
+    }
+
+    @Test
+    void pastDeadlinesAreDueOnTheNextTick() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(TICK, 8, START);
+        wheel.schedule("showtime-1", "A1", START - 5_000);
+
+        assertThat(wheel.advance(START + 99)).isEmpty();
+        assertThat(wheel.advance(START + 100)).extracting(HoldExpiryWheel.Entry::getDeadline)
+                .containsExactly(START - 5_000);
+    }
+
+    @Test
+    void dueEntriesOnlyExpireHoldsThatWereNotExtended() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(TICK, 8, START);
+        ShowtimeSeatInventory inventory = new ShowtimeSeatInventory("showtime-1", SeatInventoryServiceTest.seats("A", 2), 1L);
+        inventory.hold(List.of("A1"), "session-1", START + 250, START);
+        inventory.hold(List.of("A2"), "session-2", START + 250, START);
+        wheel.schedule("showtime-1", "A1", START + 250);
+        wheel.schedule("showtime-1", "A2", START + 250);
+        inventory.extendHolds("session-2", START + 900, START + 100);
+
+        List<String> due = wheel.advance(START + 300).stream().map(HoldExpiryWheel.Entry::getSeatId).toList();
+
+        assertThat(due).containsExactlyInAnyOrder("A1", "A2");
+        assertThat(inventory.expireHolds(due, START + 300)).containsExactly("A1");
+    }
+}
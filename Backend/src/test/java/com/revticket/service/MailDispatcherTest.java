@@ -0,0 +1,130 @@
+package com.revticket.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private MailDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void trackedMailCompletesOnceTheServerAcceptedIt() throws Exception {
+        dispatcher = startDispatcher(greenMail.getSmtp().getPort(), false);
+
+        List<CompletableFuture<Void>> deliveries = List.of(
+                dispatcher.sendTracked(message("a@example.com", "First")),
+                dispatcher.sendTracked(message("b@example.com", "Second")),
+                dispatcher.sendTracked(message("c@example.com", "Third")));
+
+        CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+        assertThat(dispatcher.getStatus().getSent()).isEqualTo(3);
+    }
+
+    @Test
+    void trackedMailFailsBackToItsSenderInsteadOfBeingDeadLettered() throws Exception {
+        dispatcher = startDispatcher(unusedPort(), false);
+
+        CompletableFuture<Void> delivery = dispatcher.sendTracked(message("a@example.com", "Lost"));
+
+        assertThatThrownBy(() -> delivery.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(MailSendException.class);
+        assertThat(dispatcher.getStatus().getFailedAttempts()).isEqualTo(2);
+        assertThat(dispatcher.getDeadLetters()).isEmpty();
+    }
+
+    @Test
+    void untrackedMailIsDeadLetteredAfterTheLastAttempt() throws Exception {
+        dispatcher = startDispatcher(unusedPort(), false);
+
+        dispatcher.send(message("a@example.com", "Lost"));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (dispatcher.getDeadLetters().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(dispatcher.getDeadLetters()).hasSize(1);
+        assertThat(dispatcher.getDeadLetters().get(0).getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void adminDigestCompletesEveryNotificationItContains() throws Exception {
+        dispatcher = startDispatcher(greenMail.getSmtp().getPort(), true);
+
+        CompletableFuture<Void> first = dispatcher.sendAdminNotificationTracked(message("admin@example.com", "New Booking - A"));
+        CompletableFuture<Void> second = dispatcher.sendAdminNotificationTracked(message("admin@example.com", "New Booking - B"));
+        assertThat(first).isNotDone();
+
+        dispatcher.flushAdminDigest();
+
+        CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getSubject()).isEqualTo("RevTicket Admin Digest - 2 notifications");
+    }
+
+    private static MailDispatcher startDispatcher(int smtpPort, boolean adminDigestEnabled) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+
+        MailDispatcher dispatcher = new MailDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "mailSender", mailSender);
+        ReflectionTestUtils.setField(dispatcher, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(dispatcher, "workers", 1);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 25);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 2);
+        ReflectionTestUtils.setField(dispatcher, "retryBaseSeconds", 0L);
+        ReflectionTestUtils.setField(dispatcher, "perRecipientPerMinute", 100);
+        ReflectionTestUtils.setField(dispatcher, "deadLetterCapacity", 10);
+        ReflectionTestUtils.setField(dispatcher, "adminDigestEnabled", adminDigestEnabled);
+        dispatcher.start();
+        return dispatcher;
+    }
+
+    private static SimpleMailMessage message(String to, String subject) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("noreply@revticket.test");
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText("Body of " + subject);
+        return message;
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
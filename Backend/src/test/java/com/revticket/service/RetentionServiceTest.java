@@ -0,0 +1,199 @@
+package com.revticket.service;
+
+import com.revticket.dto.RetentionJobStatus;
+import com.revticket.entity.Booking;
+import com.revticket.entity.Movie;
+import com.revticket.entity.Showtime;
+import com.revticket.entity.Theater;
+import com.revticket.entity.User;
+import com.revticket.event.BookingChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+/**
+ * The booking retention job walks past bookings in (show time, id) order a chunk at a time, each
+ * chunk in its own transaction, until a short chunk ends the run. The test runs outside a test
+ * transaction so every chunk really commits.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RetentionService.class, SimpleMeterRegistry.class})
+@RecordApplicationEvents
+class RetentionServiceTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.now().minusDays(30).withNano(0);
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private BookingArchiveService bookingArchiveService;
+    @MockBean
+    private SeatInventoryService seatInventoryService;
+    @MockBean
+    private ShowtimeListingCache showtimeListingCache;
+    @MockBean
+    private ShowtimeAvailabilityService showtimeAvailabilityService;
+    @MockBean
+    private MovieStatisticsService movieStatisticsService;
+
+    private String newerShowtimeId;
+    private String recentBookingId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retentionService, "chunkSize", 2);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Three bookings share one show time, so a chunk boundary falls between equal times
+            Showtime older = persistShowtime(LONG_AGO);
+            Showtime newer = persistShowtime(LONG_AGO.plusHours(3));
+            Showtime recent = persistShowtime(LocalDateTime.now().plusDays(1));
+            for (int i = 0; i < 3; i++) {
+                persistBooking(older, "older-" + i);
+            }
+            for (int i = 0; i < 2; i++) {
+                persistBooking(newer, "newer-" + i);
+            }
+            newerShowtimeId = newer.getId();
+            recentBookingId = persistBooking(recent, "recent").getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("booking_seats", "booking_seat_labels", "bookings", "showtimes", "users",
+                "theaters", "movies")) {
+            jdbcTemplate.execute("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void runDeletesEveryPastBookingChunkByChunk() {
+        long deleted = retentionService.purgeBookings();
+
+        assertThat(deleted).isEqualTo(5);
+        assertThat(remainingBookingIds()).containsExactly(recentBookingId);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking_seats", Long.class)).isEqualTo(1);
+        RetentionJobStatus status = bookingsStatus();
+        assertThat(status.getChunks()).isEqualTo(3);
+        assertThat(status.getComplete()).isTrue();
+        assertThat(status.getCursorShowDateTime()).isEqualTo(LONG_AGO.plusHours(3));
+        List<BookingChangedEvent> published = events.stream(BookingChangedEvent.class).toList();
+        assertThat(published).hasSize(3).allMatch(BookingChangedEvent::isPurged);
+        assertThat(published).flatExtracting(BookingChangedEvent::getChanges).hasSize(5);
+    }
+
+    @Test
+    void failedChunkRollsBackAloneAndTheNextRunFinishes() {
+        // The second chunk holds the last booking of the older showtime and the first of the newer
+        doThrow(new RuntimeException("evict failed")).when(seatInventoryService).evict(newerShowtimeId);
+
+        assertThat(retentionService.purgeBookings()).isEqualTo(2);
+        RetentionJobStatus failed = bookingsStatus();
+        assertThat(failed.getLastError()).isEqualTo("evict failed");
+        assertThat(failed.getComplete()).isFalse();
+        assertThat(remainingBookingIds()).hasSize(4);
+
+        reset(seatInventoryService);
+        assertThat(retentionService.purgeBookings()).isEqualTo(3);
+        assertThat(remainingBookingIds()).containsExactly(recentBookingId);
+        assertThat(bookingsStatus().getComplete()).isTrue();
+    }
+
+    private List<String> remainingBookingIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM bookings", String.class);
+    }
+
+    private RetentionJobStatus bookingsStatus() {
+        return retentionService.getStatus().stream()
+                .filter(status -> status.getJob().equals(RetentionService.BOOKINGS_JOB))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Showtime persistShowtime(LocalDateTime showDateTime) {
+        Movie movie = new Movie();
+        movie.setTitle("Movie");
+        movie.setDuration(120);
+        movie.setReleaseDate(LocalDate.now());
+        entityManager.persist(movie);
+
+        Theater theater = new Theater();
+        theater.setName("Theater");
+        theater.setLocation("City");
+        theater.setAddress("Street");
+        entityManager.persist(theater);
+
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater(theater);
+        showtime.setScreen("screen-1");
+        showtime.setShowDateTime(showDateTime);
+        showtime.setTicketPrice(200.0);
+        showtime.setTotalSeats(100);
+        showtime.setAvailableSeats(97);
+        entityManager.persist(showtime);
+        return showtime;
+    }
+
+    private Booking persistBooking(Showtime showtime, String customer) {
+        User user = new User();
+        user.setEmail(customer + "@example.com");
+        user.setName(customer);
+        user.setPassword("secret");
+        user.setRole(User.Role.USER);
+        entityManager.persist(user);
+
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setShowtime(showtime);
+        booking.setSeats(List.of("seat-1"));
+        booking.setSeatLabels(List.of("A1"));
+        booking.setTotalAmount(200.0);
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setCustomerName(customer);
+        booking.setCustomerEmail(user.getEmail());
+        booking.setCustomerPhone("9999999999");
+        entityManager.persist(booking);
+        return booking;
+    }
+}
@@ -0,0 +1,91 @@
+package com.revticket.service;
+
+import com.revticket.dto.SeatDeltaEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SeatEventPublisherTest {
+
+    private static final String SHOWTIME_ID = "showtime-1";
+
+    private SimpMessagingTemplate messagingTemplate;
+    private SeatEventPublisher publisher;
+    private ShowtimeSeatInventory inventory;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        publisher = new SeatEventPublisher();
+        ReflectionTestUtils.setField(publisher, "messagingTemplate", messagingTemplate);
+        now = System.currentTimeMillis();
+        inventory = new ShowtimeSeatInventory(SHOWTIME_ID, SeatInventoryServiceTest.seats("A", 4), 1_000L);
+    }
+
+    @Test
+    void frameCarriesEachSeatsStateAtTheFramesVersion() {
+        inventory.hold(List.of("A1"), "session-1", now + 60_000, now);
+        // The release lands before the hold is reported, so one report covers both changes
+        inventory.release(List.of("A1"), now);
+        publisher.seatsChanged(inventory);
+        publisher.flush();
+
+        SeatDeltaEvent event = sentFrame();
+        assertThat(event.getVersion()).isEqualTo(inventory.getVersion());
+        assertThat(event.getChanges()).containsExactly(
+                new SeatDeltaEvent.SeatChange("A1", SeatDeltaEvent.State.AVAILABLE));
+    }
+
+    @Test
+    void lateReportOfAnAlreadySentChangeSendsNothing() {
+        inventory.hold(List.of("A1", "A2"), "session-1", now + 60_000, now);
+        publisher.seatsChanged(inventory);
+        publisher.flush();
+        publisher.seatsChanged(inventory);
+        publisher.flush();
+
+        verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void changesBeyondTheLogAreSentAsAResync() {
+        publisher.seatsChanged(inventory);
+        for (int i = 0; i < ShowtimeSeatInventory.CHANGE_LOG_SIZE; i++) {
+            inventory.hold(List.of("A1"), "session-1", now + 60_000, now);
+            inventory.release(List.of("A1"), now);
+        }
+        publisher.flush();
+
+        SeatDeltaEvent event = sentFrame();
+        assertThat(event.isResync()).isTrue();
+        assertThat(event.getVersion()).isEqualTo(inventory.getVersion());
+    }
+
+    @Test
+    void unchangedInventorySendsNothing() {
+        publisher.seatsChanged(inventory);
+        publisher.flush();
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    private SeatDeltaEvent sentFrame() {
+        ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/seats/" + SHOWTIME_ID), frame.capture());
+        return (SeatDeltaEvent) frame.getValue();
+    }
+}
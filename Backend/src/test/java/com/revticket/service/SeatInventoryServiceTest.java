@@ -0,0 +1,143 @@
+package com.revticket.service;
+
+import com.revticket.entity.Seat;
+import com.revticket.exception.ResourceNotFoundException;
+import com.revticket.repository.SeatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeatInventoryServiceTest {
+
+    private static final String SHOWTIME_ID = "showtime-1";
+
+    private SeatRepository seatRepository;
+    private SeatTemplateService seatTemplateService;
+    private SeatInventoryService inventoryService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        seatRepository = mock(SeatRepository.class);
+        seatTemplateService = mock(SeatTemplateService.class);
+        when(seatTemplateService.loadSeatMap(SHOWTIME_ID)).thenReturn(seats("A", 4));
+
+        inventoryService = new SeatInventoryService();
+        ReflectionTestUtils.setField(inventoryService, "seatRepository", seatRepository);
+        ReflectionTestUtils.setField(inventoryService, "seatTemplateService", seatTemplateService);
+        ReflectionTestUtils.setField(inventoryService, "seatEventPublisher", mock(SeatEventPublisher.class));
+        ReflectionTestUtils.setField(inventoryService, "holdMinutes", 10L);
+        transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+    }
+
+    @Test
+    void holdsOfAFailedFlushAreWrittenByTheNextOne() {
+        inventoryService.holdSeats(SHOWTIME_ID, List.of("A1", "A2"), "session-1");
+        when(seatRepository.markHeld(anyCollection(), anyString(), any()))
+                .thenThrow(new CannotAcquireLockException("Deadlock found when trying to get lock"))
+                .thenReturn(2);
+
+        assertThatThrownBy(this::flush).isInstanceOf(CannotAcquireLockException.class);
+        flush();
+
+        verify(seatRepository, times(2)).markHeld(eq(List.of("A1", "A2")), eq("session-1"), any());
+    }
+
+    @Test
+    void retriedWritesDoNotOverrideWritesQueuedAfterTheFailure() {
+        inventoryService.holdSeats(SHOWTIME_ID, List.of("A1"), "session-1");
+        when(seatRepository.markHeld(anyCollection(), anyString(), any()))
+                .thenThrow(new CannotAcquireLockException("Lock wait timeout exceeded"));
+
+        assertThatThrownBy(this::flush).isInstanceOf(CannotAcquireLockException.class);
+        inventoryService.releaseSeats(SHOWTIME_ID, List.of("A1"));
+        flush();
+
+        InOrder order = inOrder(seatRepository);
+        order.verify(seatRepository).markHeld(eq(List.of("A1")), eq("session-1"), any());
+        order.verify(seatRepository).clearHolds(List.of("A1"));
+        order.verify(seatRepository, never()).markHeld(anyCollection(), anyString(), any());
+    }
+
+    @Test
+    void releasedSeatsLoseTheirRowsInTemplateBackedShowtimes() {
+        inventoryService.holdSeats(SHOWTIME_ID, List.of("A1", "A2"), "session-1");
+        flush();
+        inventoryService.releaseSeats(SHOWTIME_ID, List.of("A1"));
+        flush();
+
+        verify(seatRepository).clearHolds(List.of("A1"));
+        verify(seatTemplateService).deleteFreeSeatRows(List.of("A1"));
+    }
+
+    @Test
+    void unknownShowtimeIsReportedAndNotCached() {
+        when(seatTemplateService.loadSeatMap("missing"))
+                .thenThrow(new ResourceNotFoundException("Showtime not found: missing"));
+
+        assertThatThrownBy(() -> inventoryService.getInventory("missing")).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> inventoryService.getInventory("missing")).isInstanceOf(ResourceNotFoundException.class);
+
+        verify(seatTemplateService, times(2)).loadSeatMap("missing");
+    }
+
+    private void flush() {
+        transactionTemplate.executeWithoutResult(status -> inventoryService.flushPendingWrites());
+    }
+
+    static List<Seat> seats(String row, int count) {
+        List<Seat> seats = new ArrayList<>();
+        for (int number = 1; number <= count; number++) {
+            Seat seat = new Seat();
+            seat.setId(row + number);
+            seat.setRow(row);
+            seat.setNumber(number);
+            seat.setPrice(150.0);
+            seat.setType(Seat.SeatType.REGULAR);
+            seats.add(seat);
+        }
+        return seats;
+    }
+
+    // Runs transaction synchronizations (and so the rollback callbacks) without a database
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
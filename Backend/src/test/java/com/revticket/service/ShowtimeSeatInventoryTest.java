@@ -0,0 +1,182 @@
+package com.revticket.service;
+
+import com.revticket.dto.SeatHoldResult.Outcome;
+import com.revticket.dto.SeatMapStatusDTO;
+import com.revticket.entity.Seat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class ShowtimeSeatInventoryTest {
+
+    private static final long HOLD_MILLIS = 60_000;
+
+    private ShowtimeSeatInventory inventory;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        now = System.currentTimeMillis();
+        inventory = new ShowtimeSeatInventory("showtime-1", SeatInventoryServiceTest.seats("A", 6), 1L);
+    }
+
+    @Test
+    void holdTakesEverySeatOrNone() {
+        inventory.hold(List.of("A2"), "session-1", now + HOLD_MILLIS, now);
+        long version = inventory.getVersion();
+
+        assertThatThrownBy(() -> inventory.hold(List.of("A1", "A2"), "session-2", now + HOLD_MILLIS, now))
+                .hasMessageContaining("held by another user");
+
+        assertThat(inventory.getVersion()).isEqualTo(version);
+        assertThat(inventory.holdEach(List.of("A1"), "session-3", now + HOLD_MILLIS, now))
+                .containsEntry("A1", Outcome.HELD);
+    }
+
+    @Test
+    void onlyTheHoldingSessionMayBookAHeldSeat() {
+        inventory.hold(List.of("A1", "A2"), "session-1", now + HOLD_MILLIS, now);
+
+        assertThatThrownBy(() -> inventory.book(List.of("A1"), "session-2", now))
+                .hasMessageContaining("no longer available");
+        inventory.book(List.of("A1", "A2"), "session-1", now);
+
+        assertThatThrownBy(() -> inventory.book(List.of("A2"), "session-1", now))
+                .hasMessageContaining("no longer available");
+        assertThatThrownBy(() -> inventory.hold(List.of("A1"), "session-2", now + HOLD_MILLIS, now))
+                .hasMessageContaining("already booked");
+        assertThat(inventory.countAvailable()).isEqualTo(4);
+    }
+
+    @Test
+    void lapsedHoldNoLongerBlocksOtherSessions() {
+        inventory.hold(List.of("A1"), "session-1", now + HOLD_MILLIS, now);
+        long later = now + HOLD_MILLIS;
+
+        inventory.book(List.of("A1"), "session-2", later);
+
+        assertThatThrownBy(() -> inventory.book(List.of("A1"), "session-1", later))
+                .hasMessageContaining("no longer available");
+    }
+
+    @Test
+    void releaseReportsWhySeatsWereNotReleased() {
+        inventory.hold(List.of("A1"), "session-1", now + HOLD_MILLIS, now);
+        inventory.book(List.of("A3"), "session-1", now);
+
+        Map<String, Outcome> byOther = inventory.releaseEach(List.of("A1", "A2", "A3", "Z9"), "session-2", now);
+        Map<String, Outcome> byHolder = inventory.releaseEach(List.of("A1"), "session-1", now);
+
+        assertThat(byOther).containsExactly(
+                entry("A1", Outcome.HELD_BY_OTHER), entry("A2", Outcome.NOT_HELD),
+                entry("A3", Outcome.ALREADY_BOOKED), entry("Z9", Outcome.NOT_FOUND));
+        assertThat(byHolder).containsEntry("A1", Outcome.RELEASED);
+        assertThat(inventory.holdEach(List.of("A1"), "session-2", now + HOLD_MILLIS, now))
+                .containsEntry("A1", Outcome.HELD);
+    }
+
+    @Test
+    void unknownSeatRejectsTheWholeClaim() {
+        assertThatThrownBy(() -> inventory.hold(List.of("A1", "Z9"), "session-1", now + HOLD_MILLIS, now))
+                .hasMessageContaining("Seat not found: Z9");
+
+        assertThat(inventory.holdEach(List.of("A1"), "session-2", now + HOLD_MILLIS, now))
+                .containsEntry("A1", Outcome.HELD);
+    }
+
+    @Test
+    void statusEncodingDecodesToEverySeatsState() {
+        List<Seat> seats = new ArrayList<>(SeatInventoryServiceTest.seats("A", 6));
+        seats.addAll(SeatInventoryServiceTest.seats("B", 12));
+        seats.get(17).setIsDisabled(true);
+        ShowtimeSeatInventory inventory = new ShowtimeSeatInventory("showtime-1", seats, 1L);
+        inventory.hold(List.of("A2", "A3"), "session-1", now + HOLD_MILLIS, now);
+        inventory.hold(List.of("A4"), "session-1", now + 1, now);
+        inventory.book(List.of("B1", "B2", "B3", "B4", "B5", "B6", "B7", "B8", "B9", "B10", "B11"), "session-2", now);
+
+        SeatMapStatusDTO status = inventory.toStatus(now + 1);
+
+        // The lapsed hold on A4 reads as available
+        assertThat(status.getStatus()).isEqualTo("1A2H3A11B1D");
+        assertThat(status.getSeatCount()).isEqualTo(18);
+        assertThat(status.getVersion()).isEqualTo(inventory.getVersion());
+        String expected = inventory.toSeats(now + 1).seats().stream()
+                .map(seat -> seat.getIsDisabled() ? "D" : seat.getIsBooked() ? "B" : seat.getIsHeld() ? "H" : "A")
+                .collect(Collectors.joining());
+        assertThat(decode(status.getStatus())).isEqualTo(expected);
+    }
+
+    @Test
+    void bestBlockIsCentredInTheRowAtThePreferredDepth() {
+        ShowtimeSeatInventory hall = new ShowtimeSeatInventory("showtime-1", hall(Seat.SeatType.REGULAR), 1L);
+
+        assertThat(hall.holdBestAvailable(2, null, "session-1", now + HOLD_MILLIS, now))
+                .containsExactly("C5", "C6");
+    }
+
+    @Test
+    void bestBlockDoesNotStrandASingleSeat() {
+        inventory = new ShowtimeSeatInventory("showtime-1", SeatInventoryServiceTest.seats("A", 10), 1L);
+        inventory.book(List.of("A1", "A2", "A3"), "session-2", now);
+
+        // A5-A6 is nearer the centre but would leave A4 alone
+        assertThat(inventory.holdBestAvailable(2, null, "session-1", now + HOLD_MILLIS, now))
+                .containsExactly("A4", "A5");
+    }
+
+    @Test
+    void bestBlockPrefersTheRequestedSeatType() {
+        ShowtimeSeatInventory hall = new ShowtimeSeatInventory("showtime-1", hall(Seat.SeatType.PREMIUM), 1L);
+
+        assertThat(hall.holdBestAvailable(2, Seat.SeatType.PREMIUM, "session-1", now + HOLD_MILLIS, now))
+                .containsExactly("A5", "A6");
+    }
+
+    @Test
+    void bestBlockOnlySpansAdjacentFreeSeats() {
+        List<Seat> seats = new ArrayList<>(SeatInventoryServiceTest.seats("A", 7));
+        // An aisle between A3 and A5
+        seats.remove(3);
+        inventory = new ShowtimeSeatInventory("showtime-1", seats, 1L);
+        inventory.hold(List.of("A6"), "session-2", now + HOLD_MILLIS, now);
+        inventory.hold(List.of("A2"), "session-1", now + HOLD_MILLIS, now);
+
+        assertThat(inventory.holdBestAvailable(4, null, "session-1", now + HOLD_MILLIS, now)).isEmpty();
+        // The session's own hold counts as free
+        assertThat(inventory.holdBestAvailable(3, null, "session-1", now + HOLD_MILLIS, now))
+                .containsExactly("A1", "A2", "A3");
+    }
+
+    // Five rows of ten seats; row A is of the given type
+    private static List<Seat> hall(Seat.SeatType frontRowType) {
+        List<Seat> seats = new ArrayList<>();
+        for (String row : List.of("A", "B", "C", "D", "E")) {
+            seats.addAll(SeatInventoryServiceTest.seats(row, 10));
+        }
+        seats.subList(0, 10).forEach(seat -> seat.setType(frontRowType));
+        return seats;
+    }
+
+    private static String decode(String runs) {
+        StringBuilder states = new StringBuilder();
+        Matcher run = Pattern.compile("(\\d+)([AHBD])").matcher(runs);
+        int end = 0;
+        while (run.find()) {
+            assertThat(run.start()).isEqualTo(end);
+            states.append(run.group(2).repeat(Integer.parseInt(run.group(1))));
+            end = run.end();
+        }
+        assertThat(end).isEqualTo(runs.length());
+        return states.toString();
+    }
+}
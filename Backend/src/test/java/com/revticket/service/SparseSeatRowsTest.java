@@ -0,0 +1,100 @@
+package com.revticket.service;
+
+import com.revticket.entity.Movie;
+import com.revticket.entity.Seat;
+import com.revticket.entity.Showtime;
+import com.revticket.entity.Theater;
+import com.revticket.repository.SeatRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Template-backed showtimes only keep rows for held and booked seats: a row whose seat is free
+ * again is deleted, while the rows of fully materialized showtimes always stay.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Import(SeatTemplateService.class)
+class SparseSeatRowsTest {
+
+    @Autowired
+    private SeatTemplateService seatTemplateService;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void freeRowsOfTemplateBackedShowtimesAreDeleted() {
+        Showtime sparse = persistShowtime(true);
+        Showtime dense = persistShowtime(false);
+        Seat free = persistSeat(sparse, 1, false, false);
+        Seat held = persistSeat(sparse, 2, false, true);
+        Seat booked = persistSeat(sparse, 3, true, false);
+        Seat denseFree = persistSeat(dense, 1, false, false);
+        entityManager.flush();
+        entityManager.clear();
+
+        seatTemplateService.deleteFreeSeatRows(List.of(free.getId(), held.getId(), booked.getId(), denseFree.getId()));
+
+        assertThat(seatRepository.findAll()).extracting(Seat::getId)
+                .containsExactlyInAnyOrder(held.getId(), booked.getId(), denseFree.getId());
+    }
+
+    private Showtime persistShowtime(boolean templateSeats) {
+        Movie movie = new Movie();
+        movie.setTitle("Movie");
+        movie.setDuration(120);
+        movie.setReleaseDate(LocalDate.now());
+        entityManager.persist(movie);
+
+        Theater theater = new Theater();
+        theater.setName("Theater");
+        theater.setLocation("City");
+        theater.setAddress("Street");
+        entityManager.persist(theater);
+
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setTheater(theater);
+        showtime.setScreen("screen-1");
+        showtime.setShowDateTime(LocalDateTime.now().plusDays(3));
+        showtime.setTicketPrice(200.0);
+        showtime.setTotalSeats(100);
+        showtime.setAvailableSeats(100);
+        showtime.setTemplateSeats(templateSeats);
+        entityManager.persist(showtime);
+        return showtime;
+    }
+
+    private Seat persistSeat(Showtime showtime, int number, boolean booked, boolean held) {
+        Seat seat = new Seat();
+        seat.setShowtime(showtime);
+        seat.setRow("A");
+        seat.setNumber(number);
+        seat.setPrice(150.0);
+        seat.setType(Seat.SeatType.REGULAR);
+        seat.setIsBooked(booked);
+        seat.setIsHeld(held);
+        if (held) {
+            seat.setSessionId("session-1");
+            seat.setHoldExpiry(LocalDateTime.now().plusMinutes(10));
+        }
+        entityManager.persist(seat);
+        return seat;
+    }
+}
@@ -1,6 +1,7 @@
-import { Injectable, signal } from '@angular/core';
+import { Injectable, inject, signal } from '@angular/core';
 import { Client } from '@stomp/stompjs';
 import * as SockJS from 'sockjs-client';
+import { AuthService } from './auth.service';
 
 export interface Notification {
   id: string;
@@ -14,6 +15,7 @@ export interface Notification {
   providedIn: 'root'
 })
 export class NotificationService {
+  private authService = inject(AuthService);
   private client: Client | null = null;
   private notifications = signal<Notification[]>([]);
   private connected = signal(false);
@@ -31,6 +33,11 @@ export class NotificationService {
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
+      // Read the token on every (re)connect so a login after startup is picked up
+      beforeConnect: (client: Client) => {
+        const token = localStorage.getItem('token');
+        client.connectHeaders = token ? { Authorization: `Bearer ${token}` } : {};
+      },
     });
 
     this.client.onConnect = () => {
@@ -49,10 +56,12 @@ export class NotificationService {
     const client = this.client;
     if (!client) return;
     
-    // Admin notifications
-    client.subscribe('/topic/admin/reviews', (message) => {
-      this.addNotification(message.body, 'info');
-    });
+    // Admin notifications; the server ignores this subscription unless CONNECT carried an admin token
+    if (this.authService.isAdmin()) {
+      client.subscribe('/topic/admin/reviews', (message) => {
+        this.addNotification(message.body, 'info');
+      });
+    }
 
     // General notifications
     client.subscribe('/topic/reviews', (message) => {